@@ -0,0 +1,110 @@
+package za.co.tangentsolutions.chessclub.benchmarks;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import za.co.tangentsolutions.chessclub.Application;
+import za.co.tangentsolutions.chessclub.services.LadderService;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A running application on its own in-memory H2 database with a ladder of {@code ladderSize}
+ * members, seeded with plain JDBC batches rather than through the services.
+ */
+@State(Scope.Benchmark)
+public class ClubState {
+
+    private static final int SEED_BATCH = 5_000;
+
+    @Param({"1000", "10000", "100000"})
+    public int ladderSize;
+
+    @Param({"dense", "gapped"})
+    public String storageMode;
+
+    public ConfigurableApplicationContext context;
+    public LadderService ladderService;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(Application.class)
+                // Vaadin needs a servlet context, so run the real thing on a random port
+                .web(WebApplicationType.SERVLET)
+                .run(arguments().toArray(String[]::new));
+        ladderService = context.getBean(LadderService.class);
+        seed();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    // Passed as arguments so they win over application.yml
+    protected List<String> arguments() {
+        return new ArrayList<>(List.of("--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:bench_" + storageMode + "_" + ladderSize + ";DB_CLOSE_DELAY=-1",
+                "--spring.jpa.show-sql=false",
+                "--spring.flyway.locations=classpath:db/migration/{vendor}",
+                "--logging.level.root=WARN",
+                "--logging.level.chessclub.ranking.events=OFF",
+                "--chessclub.ladder.storage-mode=" + storageMode,
+                "--chessclub.ladder.rebalance-interval=PT1H"));
+    }
+
+    // Repeated arguments are merged by Spring rather than replaced, so drop the earlier one first
+    protected static void override(List<String> arguments, String property, String value) {
+        arguments.removeIf(argument -> argument.startsWith("--" + property + "="));
+        arguments.add("--" + property + "=" + value);
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    // Id of the member currently on the given rank
+    public Long memberAt(int rank) {
+        return ladderService.membersBetween(rank, rank).get(0);
+    }
+
+    public int size() {
+        return ladderService.size();
+    }
+
+    // Two distinct ranks, higher (smaller) first, at least minDistance apart within the top `within` places
+    public static int[] pickRanks(int within, int minDistance) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int higher = 1 + random.nextInt(within - minDistance);
+        int lower = higher + minDistance + random.nextInt(within - higher - minDistance + 1);
+        return new int[] {higher, lower};
+    }
+
+    private void seed() {
+        JdbcTemplate jdbcTemplate = bean(JdbcTemplate.class);
+        long positionGap = storageMode.equals("gapped") ? 1024 : 1;
+        Date birthday = Date.valueOf(LocalDate.of(1990, 1, 1));
+        for (int from = 1; from <= ladderSize; from += SEED_BATCH) {
+            List<Object[]> rows = new ArrayList<>(SEED_BATCH);
+            for (int rank = from; rank < from + SEED_BATCH && rank <= ladderSize; rank++) {
+                rows.add(new Object[] {"Bench", "Member" + rank, "bench" + rank + "@email.com", birthday,
+                        rank, rank * positionGap});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO members (id, name, surname, email, birthday, games_played, rank, "
+                    + "ladder_position) VALUES (NEXT VALUE FOR members_seq, ?, ?, ?, ?, 0, ?, ?)", rows);
+        }
+        ladderService.invalidate();
+        ladderService.size();
+    }
+}
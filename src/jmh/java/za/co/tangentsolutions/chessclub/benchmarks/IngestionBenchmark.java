@@ -0,0 +1,89 @@
+package za.co.tangentsolutions.chessclub.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import za.co.tangentsolutions.chessclub.models.MatchResult;
+import za.co.tangentsolutions.chessclub.models.MatchSubmission;
+import za.co.tangentsolutions.chessclub.models.MemberImportReport;
+import za.co.tangentsolutions.chessclub.services.MemberImportService;
+import za.co.tangentsolutions.chessclub.services.RankingService;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bulk ingestion: {@code rows} matches through {@link RankingService#recordMatches} and {@code rows}
+ * new members through the CSV import, each per operation. With {@code jdbcBatchSize=1} every insert
+ * and update is its own round trip, which is what IDENTITY ids forced; 50 is the configured batch.
+ * importMembers grows the ladder by {@code rows} members per operation.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IngestionBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class BatchedClub extends ClubState {
+
+        @Param({"1", "50"})
+        public int jdbcBatchSize;
+
+        @Override
+        protected List<String> arguments() {
+            List<String> arguments = super.arguments();
+            override(arguments, "spring.jpa.properties.hibernate.jdbc.batch_size", String.valueOf(jdbcBatchSize));
+            return arguments;
+        }
+    }
+
+    @Param({"500"})
+    public int rows;
+
+    private final AtomicLong imported = new AtomicLong();
+
+    private RankingService rankingService;
+    private MemberImportService memberImportService;
+
+    @Setup(Level.Trial)
+    public void setUp(BatchedClub club) {
+        rankingService = club.bean(RankingService.class);
+        memberImportService = club.bean(MemberImportService.class);
+    }
+
+    @Benchmark
+    public List<MatchResult> recordMatches(BatchedClub club) {
+        List<MatchSubmission> submissions = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            int[] ranks = ClubState.pickRanks(club.size(), 1);
+            submissions.add(new MatchSubmission(club.memberAt(ranks[0]), club.memberAt(ranks[1]), 0, 1));
+        }
+        return rankingService.recordMatches(submissions);
+    }
+
+    @Benchmark
+    public MemberImportReport importMembers() throws IOException {
+        StringBuilder csv = new StringBuilder("name,surname,email,birthday\n");
+        for (int i = 0; i < rows; i++) {
+            long n = imported.incrementAndGet();
+            csv.append("Imported,Member").append(n).append(",imported").append(n).append("@email.com,1993-04-05\n");
+        }
+        return memberImportService.importCsv(new StringReader(csv.toString()));
+    }
+}
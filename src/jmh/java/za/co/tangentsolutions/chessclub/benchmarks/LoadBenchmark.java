@@ -0,0 +1,112 @@
+package za.co.tangentsolutions.chessclub.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP load on the running app from more concurrent clients than Tomcat has platform threads,
+ * in both threading modes: throughput, and latency percentiles (p0.99 in the SampleTime rows).
+ *
+ * platform: Tomcat's thread pool (server.tomcat.threads.max) caps the requests in flight;
+ * virtual: the virtual profile, with requests and the ladder writer on virtual threads. Needs a
+ * JDK 21 runtime, so build with -Pjdk21.
+ *
+ * mvn -Pbenchmarks,jdk21 test-compile exec:exec -Dbenchmark.args="LoadBenchmark -p ladderSize=1000 -p storageMode=dense"
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(400)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoadBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class ServedClub extends ClubState {
+
+        @Param({"platform", "virtual"})
+        public String threading;
+
+        @Override
+        public void start() {
+            if (threading.equals("virtual") && Runtime.version().feature() < 21) {
+                throw new IllegalStateException("Virtual threads need a JDK 21 runtime; run with -Pjdk21");
+            }
+            super.start();
+        }
+
+        @Override
+        protected List<String> arguments() {
+            List<String> arguments = super.arguments();
+            if (threading.equals("virtual")) {
+                arguments.add("--spring.profiles.active=virtual");
+            }
+            return arguments;
+        }
+
+        public URI uri(String path) {
+            return URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port") + path);
+        }
+    }
+
+    private HttpClient client;
+    private HttpRequest members;
+
+    @Setup(Level.Trial)
+    public void setUp(ServedClub club) {
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        members = HttpRequest.newBuilder(club.uri("/api/members")).GET().build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client = null;
+    }
+
+    @Benchmark
+    public int listMembers() throws IOException, InterruptedException {
+        return send(members, 200);
+    }
+
+    // Upsets within the top 100, so every request moves members on the ladder
+    @Benchmark
+    public int recordMatch(ServedClub club) throws IOException, InterruptedException {
+        int[] ranks = ClubState.pickRanks(Math.min(100, club.size()), 2);
+        String body = "{\"player1\": {\"id\": " + club.memberAt(ranks[0]) + "}, \"player2\": {\"id\": "
+                + club.memberAt(ranks[1]) + "}, \"player1Score\": 0, \"player2Score\": 1}";
+        HttpRequest request = HttpRequest.newBuilder(club.uri("/api/matches"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return send(request, 201);
+    }
+
+    private int send(HttpRequest request, int expectedStatus) throws IOException, InterruptedException {
+        int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        if (status != expectedStatus) {
+            throw new IllegalStateException(request.method() + " " + request.uri().getPath() + " answered " + status);
+        }
+        return status;
+    }
+}
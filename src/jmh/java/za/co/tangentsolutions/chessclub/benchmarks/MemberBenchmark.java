@@ -0,0 +1,66 @@
+package za.co.tangentsolutions.chessclub.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.support.TransactionTemplate;
+import za.co.tangentsolutions.chessclub.models.Member;
+import za.co.tangentsolutions.chessclub.repositories.MemberRepository;
+import za.co.tangentsolutions.chessclub.services.MemberService;
+
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Member enrolment and the bulk rank-shift queries. createMember grows the ladder by one member
+ * per operation, so the ladder ends a run somewhat larger than {@code ladderSize}.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MemberBenchmark {
+
+    private final AtomicLong enrolled = new AtomicLong();
+
+    private MemberService memberService;
+    private MemberRepository memberRepository;
+    private TransactionTemplate transactionTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp(ClubState club) {
+        memberService = club.bean(MemberService.class);
+        memberRepository = club.bean(MemberRepository.class);
+        transactionTemplate = club.bean(TransactionTemplate.class);
+    }
+
+    @Benchmark
+    public Member createMember() {
+        long n = enrolled.incrementAndGet();
+        return memberService.createMember(new Member("Joined", "Member" + n, "joined" + n + "@email.com",
+                LocalDate.of(1995, 6, 1), 0));
+    }
+
+    // Shifts a random tenth of the ladder down a place and back, as the old range updates did
+    @Benchmark
+    public void shiftRanks(ClubState club) {
+        int span = Math.max(2, club.ladderSize / 10);
+        int start = 1 + ThreadLocalRandom.current().nextInt(club.ladderSize - span);
+        transactionTemplate.executeWithoutResult(status -> {
+            memberRepository.incrementRanks(start, start + span);
+            memberRepository.decrementRanks(start, start + span);
+        });
+    }
+}
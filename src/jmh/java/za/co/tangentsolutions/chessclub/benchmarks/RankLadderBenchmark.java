@@ -0,0 +1,54 @@
+package za.co.tangentsolutions.chessclub.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import za.co.tangentsolutions.chessclub.ranking.RankLadder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// The in-memory part of processRankingChanges on its own: an upset's two moves on the ladder
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RankLadderBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int ladderSize;
+
+    private RankLadder ladder;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Long> memberIds = new ArrayList<>(ladderSize);
+        for (long id = 1; id <= ladderSize; id++) {
+            memberIds.add(id);
+        }
+        ladder = RankLadder.of(memberIds);
+    }
+
+    @Benchmark
+    public int upset() {
+        int[] ranks = ClubState.pickRanks(ladderSize, 1);
+        Long higher = ladder.memberAt(ranks[0]);
+        Long lower = ladder.memberAt(ranks[1]);
+        ladder.move(higher, ranks[0] + 1);
+        ladder.move(lower, ranks[1] - Math.max(1, (ranks[1] - ranks[0]) / 2));
+        return ladder.rankOf(lower);
+    }
+}
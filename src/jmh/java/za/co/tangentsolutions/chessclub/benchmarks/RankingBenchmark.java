@@ -0,0 +1,59 @@
+package za.co.tangentsolutions.chessclub.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import za.co.tangentsolutions.chessclub.models.Game;
+import za.co.tangentsolutions.chessclub.services.RankingService;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link RankingService#recordMatch} end to end: ladder move, member and game writes and commit.
+ *
+ * upset: a random lower-ranked member beats a random higher-ranked one, the most rows shifted in dense mode;
+ * draw: random non-adjacent pairs draw, so the lower-ranked member moves up one place;
+ * top: upsets among the top ten, the contended end of a real ladder.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RankingBenchmark {
+
+    @Param({"upset", "draw", "top"})
+    public String workload;
+
+    private RankingService rankingService;
+
+    @Setup(Level.Trial)
+    public void setUp(ClubState club) {
+        rankingService = club.bean(RankingService.class);
+    }
+
+    @Benchmark
+    public Game recordMatch(ClubState club) {
+        int[] ranks = switch (workload) {
+            case "upset" -> ClubState.pickRanks(club.size(), 1);
+            case "draw" -> ClubState.pickRanks(club.size(), 2);
+            case "top" -> ClubState.pickRanks(Math.min(10, club.size()), 1);
+            default -> throw new IllegalArgumentException("Unknown workload " + workload);
+        };
+        Long higher = club.memberAt(ranks[0]);
+        Long lower = club.memberAt(ranks[1]);
+        int lowerScore = 1;
+        int higherScore = workload.equals("draw") ? 1 : 0;
+        return rankingService.recordMatch(higher, lower, higherScore, lowerScore);
+    }
+}
@@ -0,0 +1,69 @@
+package za.co.tangentsolutions.chessclub.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import za.co.tangentsolutions.chessclub.models.Game;
+import za.co.tangentsolutions.chessclub.services.RankingService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of logging on the match path: upsets recorded with each logging setup.
+ *
+ * sql: every statement printed (show-sql), plus the ranking event log, as the app used to run;
+ * events / json: one ranking event per match as text or JSON;
+ * sampled: one match in a hundred logged;
+ * off: the ranking event logger switched off.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RankingLogBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class LoggedClub extends ClubState {
+
+        @Param({"sql", "events", "json", "sampled", "off"})
+        public String logging;
+
+        @Override
+        protected List<String> arguments() {
+            List<String> arguments = super.arguments();
+            override(arguments, "logging.level.chessclub.ranking.events", logging.equals("off") ? "OFF" : "INFO");
+            switch (logging) {
+                case "sql" -> override(arguments, "spring.jpa.show-sql", "true");
+                case "json" -> override(arguments, "chessclub.ranking-events.format", "json");
+                case "sampled" -> override(arguments, "chessclub.ranking-events.sample-rate", "0.01");
+                default -> { }
+            }
+            return arguments;
+        }
+    }
+
+    private RankingService rankingService;
+
+    @Setup(Level.Trial)
+    public void setUp(LoggedClub club) {
+        rankingService = club.bean(RankingService.class);
+    }
+
+    @Benchmark
+    public Game recordUpset(LoggedClub club) {
+        int[] ranks = ClubState.pickRanks(club.size(), 1);
+        return rankingService.recordMatch(club.memberAt(ranks[0]), club.memberAt(ranks[1]), 0, 1);
+    }
+}
@@ -0,0 +1,98 @@
+package za.co.tangentsolutions.chessclub.config;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import za.co.tangentsolutions.chessclub.services.ClubMetrics;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Measures how far the replica trails the primary. Each check compares the replica's copy of the
+ * {@code replica_heartbeat} row with the primary's current one, then stamps a new beat on the primary
+ * for the next check. A replica holding the latest beat is not behind; otherwise the lag is how much
+ * older its beat is, so the measurement moves in steps of the check interval. The replica is used
+ * only while that lag is within {@code max-lag}.
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger logger = LogManager.getLogger(ReplicaLagMonitor.class);
+    private static final String HEARTBEAT = "SELECT beat_at FROM replica_heartbeat WHERE id = 1";
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final Duration maxLag;
+
+    // Unknown until the replica has answered once
+    private volatile Duration lag;
+    private volatile boolean usable;
+
+    public ReplicaLagMonitor(DataSource primary, DataSource replica, Duration maxLag, ClubMetrics clubMetrics) {
+        this.primary = new JdbcTemplate(primary);
+        this.replica = new JdbcTemplate(replica);
+        this.maxLag = maxLag;
+        clubMetrics.trackReplica(this);
+    }
+
+    @Scheduled(fixedDelayString = "${chessclub.datasource.replica.lag-check-interval:PT1S}")
+    public void check() {
+        Timestamp latest;
+        try {
+            latest = primary.queryForObject(HEARTBEAT, Timestamp.class);
+        } catch (DataAccessException e) {
+            logger.warn("Could not read the primary heartbeat: {}", e.getMessage());
+            return;
+        }
+        try {
+            Timestamp replicated = replica.queryForObject(HEARTBEAT, Timestamp.class);
+            measure(Duration.between(replicated.toInstant(), latest.toInstant()));
+        } catch (DataAccessException e) {
+            unavailable(e);
+        }
+        beat();
+    }
+
+    private void beat() {
+        try {
+            primary.update("UPDATE replica_heartbeat SET beat_at = ? WHERE id = 1", Timestamp.from(Instant.now()));
+        } catch (DataAccessException e) {
+            logger.warn("Could not write the replica heartbeat: {}", e.getMessage());
+        }
+    }
+
+    private void measure(Duration measured) {
+        lag = measured.isNegative() ? Duration.ZERO : measured;
+        boolean fresh = lag.compareTo(maxLag) <= 0;
+        if (fresh != usable) {
+            if (fresh) {
+                logger.info("Replica is {} ms behind; reading from it again", lag.toMillis());
+            } else {
+                logger.warn("Replica is {} ms behind, over the {} ms bound; reading from the primary",
+                        lag.toMillis(), maxLag.toMillis());
+            }
+        }
+        usable = fresh;
+    }
+
+    // Called when the replica fails; reads stay on the primary until a check gets an answer again
+    public void unavailable(Exception cause) {
+        if (usable) {
+            logger.warn("Replica unavailable, reading from the primary: {}", cause.getMessage());
+        }
+        usable = false;
+    }
+
+    public boolean isUsable() {
+        return usable;
+    }
+
+    public double lagSeconds() {
+        Duration current = lag;
+        return current == null ? Double.NaN : current.toNanos() / 1e9;
+    }
+}
@@ -0,0 +1,61 @@
+package za.co.tangentsolutions.chessclub.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import za.co.tangentsolutions.chessclub.services.ClubMetrics;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * With {@code chessclub.datasource.replica.enabled}, the application's DataSource sends
+ * {@code @Transactional(readOnly = true)} work to a replica pool and everything else, including
+ * Flyway and the ladder writer, to the primary pool configured under {@code spring.datasource}.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "chessclub.datasource.replica.enabled", havingValue = "true")
+public class ReplicaRoutingConfiguration {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties("chessclub.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(@Value("${chessclub.datasource.replica.url}") String url,
+                                              @Value("${chessclub.datasource.replica.username:}") String username,
+                                              @Value("${chessclub.datasource.replica.password:}") String password) {
+        HikariDataSource replica = DataSourceBuilder.create().type(HikariDataSource.class)
+                .url(url).username(username).password(password).build();
+        replica.setPoolName("replica");
+        replica.setReadOnly(true);
+        return replica;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("primaryDataSource") DataSource primary,
+                                               @Qualifier("replicaDataSource") DataSource replica,
+                                               @Value("${chessclub.datasource.replica.max-lag:PT5S}") Duration maxLag,
+                                               ClubMetrics clubMetrics) {
+        return new ReplicaLagMonitor(primary, replica, maxLag, clubMetrics);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 ReplicaLagMonitor monitor, ClubMetrics clubMetrics) {
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, replica, monitor, clubMetrics));
+    }
+}
@@ -0,0 +1,69 @@
+package za.co.tangentsolutions.chessclub.config;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import za.co.tangentsolutions.chessclub.services.ClubMetrics;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+
+/**
+ * Hands out replica connections to read-only transactions while {@link ReplicaLagMonitor} reports
+ * the replica fresh, and primary connections to everything else. If the replica cannot supply a
+ * connection the read goes to the primary instead. It has to sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, so the connection is
+ * only fetched once the transaction has been marked read-only.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final ReplicaLagMonitor monitor;
+    private final ClubMetrics clubMetrics;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor monitor,
+                                    ClubMetrics clubMetrics) {
+        this.primary = primary;
+        this.replica = replica;
+        this.monitor = monitor;
+        this.clubMetrics = clubMetrics;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return route(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return route(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    private Connection route(ConnectionSource source) throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return source.from(primary);
+        }
+        if (!monitor.isUsable()) {
+            clubMetrics.replicaRead("primary");
+            return source.from(primary);
+        }
+        try {
+            Connection connection = source.from(replica);
+            clubMetrics.replicaRead("replica");
+            return connection;
+        } catch (SQLFeatureNotSupportedException e) {
+            // Hikari pools refuse per-call credentials; that says nothing about the replica's health
+            throw e;
+        } catch (SQLException e) {
+            monitor.unavailable(e);
+            clubMetrics.replicaRead("primary");
+            return source.from(primary);
+        }
+    }
+
+    private interface ConnectionSource {
+        Connection from(DataSource dataSource) throws SQLException;
+    }
+}
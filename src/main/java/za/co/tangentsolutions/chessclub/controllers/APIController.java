@@ -11,16 +11,44 @@ import jakarta.validation.Valid;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import za.co.tangentsolutions.chessclub.models.Game;
+import za.co.tangentsolutions.chessclub.models.GameCursor;
+import za.co.tangentsolutions.chessclub.models.HeadToHead;
+import za.co.tangentsolutions.chessclub.models.KeysetPage;
+import za.co.tangentsolutions.chessclub.models.LeaderboardSnapshot;
+import za.co.tangentsolutions.chessclub.models.MatchResult;
+import za.co.tangentsolutions.chessclub.models.MatchSubmission;
+import za.co.tangentsolutions.chessclub.models.MatchTicket;
 import za.co.tangentsolutions.chessclub.models.Member;
+import za.co.tangentsolutions.chessclub.models.MemberImportReport;
+import za.co.tangentsolutions.chessclub.models.PlayerStats;
+import za.co.tangentsolutions.chessclub.services.ClubMetrics;
+import za.co.tangentsolutions.chessclub.services.IdempotencyConflictException;
+import za.co.tangentsolutions.chessclub.services.LeaderboardService;
+import za.co.tangentsolutions.chessclub.services.MatchExportService;
+import za.co.tangentsolutions.chessclub.services.MatchSubmissionQueue;
+import za.co.tangentsolutions.chessclub.services.MemberImportService;
 import za.co.tangentsolutions.chessclub.services.MemberService;
+import za.co.tangentsolutions.chessclub.services.RankingChangeStream;
 import za.co.tangentsolutions.chessclub.services.RankingService;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api")
@@ -29,25 +57,98 @@ public class APIController {
 
     private final MemberService memberService;
     private final RankingService rankingService;
+    private final LeaderboardService leaderboardService;
+    private final MatchExportService matchExportService;
+    private final MatchSubmissionQueue matchSubmissionQueue;
+    private final MemberImportService memberImportService;
+    private final RankingChangeStream rankingChangeStream;
+    private final ClubMetrics clubMetrics;
+
+    @Value("${chessclub.matches.max-batch-size:1000}")
+    private int maxBatchSize;
+
+    @Value("${chessclub.pagination.max-page-size:500}")
+    private int maxPageSize;
 
     @Autowired
-    public APIController(MemberService memberService, RankingService rankingService) {
+    public APIController(MemberService memberService, RankingService rankingService,
+                         LeaderboardService leaderboardService, MatchExportService matchExportService,
+                         MatchSubmissionQueue matchSubmissionQueue, MemberImportService memberImportService,
+                         RankingChangeStream rankingChangeStream, ClubMetrics clubMetrics) {
         this.memberService = memberService;
         this.rankingService = rankingService;
+        this.leaderboardService = leaderboardService;
+        this.matchExportService = matchExportService;
+        this.matchSubmissionQueue = matchSubmissionQueue;
+        this.memberImportService = memberImportService;
+        this.rankingChangeStream = rankingChangeStream;
+        this.clubMetrics = clubMetrics;
     }
 
     private static final Logger logger = LogManager.getLogger(APIController.class);
 
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 100;
+
     @GetMapping("/members")
     @Operation(summary = "Get all members", description = "Retrieve a list of all chess club members ordered by rank")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Successfully retrieved members",
-                    content = @Content(schema = @Schema(implementation = Member.class)))
+                    content = @Content(schema = @Schema(implementation = Member.class))),
+        @ApiResponse(responseCode = "304", description = "Leaderboard unchanged since the If-None-Match ETag")
     })
-    public ResponseEntity<List<Member>> allMembers() {
+    public ResponseEntity<byte[]> allMembers(WebRequest request) {
         logger.info("Getting all club members");
-        List<Member> memberList = memberService.getAllMembers();
-        return ResponseEntity.status(HttpStatus.OK).body(memberList);
+        long start = System.nanoTime();
+        LeaderboardSnapshot snapshot = leaderboardService.current();
+        if (request.checkNotModified(snapshot.getEtag())) {
+            clubMetrics.leaderboardRead(true, start);
+            return null;
+        }
+        clubMetrics.leaderboardRead(false, start);
+        return ResponseEntity.status(HttpStatus.OK)
+                .eTag(snapshot.getEtag())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(snapshot.getJson());
+    }
+
+    @GetMapping(value = "/rankings/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream ranking changes",
+               description = "Server-sent events: a ranking event with memberId, oldRank, newRank and gameId for every move "
+                       + "once it has committed; reconnect with Last-Event-ID to receive missed events, or a reset event "
+                       + "when the leaderboard has to be reloaded")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Stream opened"),
+        @ApiResponse(responseCode = "503", description = "Too many open streams; retry later")
+    })
+    public ResponseEntity<SseEmitter> streamRankingChanges(
+            @Parameter(description = "Id of the last event received before reconnecting")
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        logger.info("Opening ranking stream after event {}", lastEventId);
+        try {
+            return ResponseEntity.ok(rankingChangeStream.subscribe(lastEventId));
+        } catch (RejectedExecutionException e) {
+            logger.warn("Refusing ranking stream: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .build();
+        }
+    }
+
+    @GetMapping("/members/page")
+    @Operation(summary = "Get a page of the leaderboard",
+               description = "Members ranked below afterRank, best first; follow nextCursor as afterRank for the next page")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved members"),
+        @ApiResponse(responseCode = "400", description = "Invalid cursor or page size")
+    })
+    public ResponseEntity<Object> membersPage(@RequestParam(defaultValue = "0") int afterRank,
+                                              @RequestParam(defaultValue = "50") int limit) {
+        logger.info("Getting members after rank {}", afterRank);
+        if (afterRank < 0 || limit < 1 || limit > maxPageSize) {
+            return ResponseEntity.badRequest().body("afterRank must be >= 0 and limit between 1 and " + maxPageSize);
+        }
+        KeysetPage<Member> page = memberService.getMembersPage(afterRank, limit);
+        return ResponseEntity.ok(page);
     }
 
     @GetMapping("/members/{id}")
@@ -71,6 +172,72 @@ public class APIController {
         return ResponseEntity.status(HttpStatus.CREATED).body(newMember);
     }
 
+    @PostMapping(value = "/members/import", consumes = {"text/csv", "application/x-ndjson"})
+    @Operation(summary = "Import members",
+               description = "Enroll members from a CSV file with a name,surname,email,birthday header, or from NDJSON "
+                       + "with one member per line; valid rows join the bottom of the ladder in file order")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Import finished; rejected rows are listed with their line",
+                    content = @Content(schema = @Schema(implementation = MemberImportReport.class))),
+        @ApiResponse(responseCode = "400", description = "Missing CSV columns"),
+        @ApiResponse(responseCode = "503", description = "Ladder writer busy; retry later")
+    })
+    public ResponseEntity<Object> importMembers(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                InputStream body) {
+        logger.info("Importing members as {}", contentType);
+        try (InputStreamReader reader = new InputStreamReader(body, StandardCharsets.UTF_8)) {
+            MemberImportReport report = contentType.isCompatibleWith(MediaType.APPLICATION_NDJSON)
+                    ? memberImportService.importNdjson(reader)
+                    : memberImportService.importCsv(reader);
+            return ResponseEntity.ok(report);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (RejectedExecutionException e) {
+            logger.warn("Refusing member import: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(e.getMessage());
+        } catch (IOException e) {
+            logger.error("Error reading member import: {}", e.getMessage());
+            return ResponseEntity.badRequest().body("Could not read the upload: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/members/{id}/stats")
+    @Operation(summary = "Get player statistics",
+               description = "Wins, losses, draws, streaks and best rank reached in a match, maintained as matches are recorded")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved statistics",
+                    content = @Content(schema = @Schema(implementation = PlayerStats.class))),
+        @ApiResponse(responseCode = "404", description = "Member not found")
+    })
+    public ResponseEntity<PlayerStats> getPlayerStats(@PathVariable Long id) {
+        logger.info("Getting statistics for member: {}", id);
+        return rankingService.getPlayerStats(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/members/{id}/head-to-head/{opponentId}")
+    @Operation(summary = "Get a head-to-head record",
+               description = "Wins, losses and draws of a member against one opponent, with their most recent games")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved head-to-head record",
+                    content = @Content(schema = @Schema(implementation = HeadToHead.class))),
+        @ApiResponse(responseCode = "400", description = "Same member twice or invalid limit"),
+        @ApiResponse(responseCode = "404", description = "Member not found")
+    })
+    public ResponseEntity<Object> getHeadToHead(@PathVariable Long id, @PathVariable Long opponentId,
+                                                @RequestParam(defaultValue = "10") int limit) {
+        logger.info("Getting head-to-head for members {} and {}", id, opponentId);
+        if (id.equals(opponentId) || limit < 1 || limit > maxPageSize) {
+            return ResponseEntity.badRequest().body("Two different members and a limit between 1 and " + maxPageSize + " are required");
+        }
+        Optional<HeadToHead> headToHead = rankingService.getHeadToHead(id, opponentId, limit);
+        return headToHead.<ResponseEntity<Object>>map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     @PutMapping("/members/{id}")
     public ResponseEntity<Member> updateMember(@PathVariable Long id, @Valid @RequestBody Member memberDetails) {
         logger.info("Updating member with id: {}", id);
@@ -103,29 +270,89 @@ public class APIController {
         return ResponseEntity.status(HttpStatus.OK).body(matchesList);
     }
 
+    @GetMapping("/matches/page")
+    @Operation(summary = "Get a page of the match history",
+               description = "Games played before the cursor, newest first; pass nextCursor back as cursor for the next page")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved games"),
+        @ApiResponse(responseCode = "400", description = "Invalid cursor or page size")
+    })
+    public ResponseEntity<Object> matchesPage(@RequestParam(required = false) String cursor,
+                                              @RequestParam(defaultValue = "50") int limit) {
+        logger.info("Getting club matches before cursor {}", cursor);
+        if (limit < 1 || limit > maxPageSize) {
+            return ResponseEntity.badRequest().body("limit must be between 1 and " + maxPageSize);
+        }
+        try {
+            GameCursor before = cursor == null ? null : GameCursor.decode(cursor);
+            KeysetPage<Game> page = rankingService.getGameHistoryPage(before, limit);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/matches/export")
+    @Operation(summary = "Export the full match history",
+               description = "Streams every game, oldest first, as NDJSON (default) or CSV")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Export streamed"),
+        @ApiResponse(responseCode = "400", description = "Unknown format")
+    })
+    public ResponseEntity<StreamingResponseBody> exportMatches(@RequestParam(defaultValue = "ndjson") String format) {
+        logger.info("Exporting club matches as {}", format);
+        if (format.equalsIgnoreCase("csv")) {
+            return ResponseEntity.ok()
+                    .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"matches.csv\"")
+                    .body(matchExportService::writeCsv);
+        }
+        if (format.equalsIgnoreCase("ndjson")) {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_NDJSON)
+                    .body(matchExportService::writeNdjson);
+        }
+        return ResponseEntity.badRequest().build();
+    }
+
     @PostMapping("/matches")
     @Operation(summary = "Record a match", description = "Record a chess match between two players and update rankings")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "201", description = "Match recorded successfully",
                     content = @Content(schema = @Schema(implementation = Game.class))),
         @ApiResponse(responseCode = "400", description = "Invalid match data"),
+        @ApiResponse(responseCode = "409", description = "Idempotency-Key already used for a different match"),
+        @ApiResponse(responseCode = "503", description = "Ladder writer busy; retry later"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public ResponseEntity<Object> addGame(@Valid @RequestBody Game game) {
+    public ResponseEntity<Object> addGame(@Valid @RequestBody Game game,
+                                          @Parameter(description = "Retries with the same key record the match once")
+                                          @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         try {
             // Validate that players are different
             if (game.getPlayer1().getId().equals(game.getPlayer2().getId())) {
                 return ResponseEntity.badRequest().body("Player 1 and Player 2 must be different");
             }
+            if (!validIdempotencyKey(idempotencyKey)) {
+                return ResponseEntity.badRequest().body("Idempotency-Key must be 1 to " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters");
+            }
             
             Game newGame = rankingService.recordMatch(
                     game.getPlayer1().getId(),
                     game.getPlayer2().getId(),
                     game.getPlayer1Score(),
-                    game.getPlayer2Score()
+                    game.getPlayer2Score(),
+                    idempotencyKey
             );
             logger.info("creating game");
             return ResponseEntity.status(HttpStatus.CREATED).body(newGame);
+        } catch (IdempotencyConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (RejectedExecutionException e) {
+            logger.warn("Refusing match: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(e.getMessage());
         } catch (Exception e) {
             logger.error("Error creating game: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -133,6 +360,84 @@ public class APIController {
         }
     }
 
+    @PostMapping("/matches/async")
+    @Operation(summary = "Submit a match",
+               description = "Queue a match to be recorded without waiting for it; poll the returned ticket for the result")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Match queued; the Location header points at its ticket",
+                    content = @Content(schema = @Schema(implementation = MatchTicket.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid match data"),
+        @ApiResponse(responseCode = "409", description = "Idempotency-Key already used for a different match"),
+        @ApiResponse(responseCode = "503", description = "Queue full; retry later")
+    })
+    public ResponseEntity<Object> submitGame(@Valid @RequestBody Game game,
+                                             @Parameter(description = "Retries with the same key get the same ticket")
+                                             @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        if (game.getPlayer1().getId().equals(game.getPlayer2().getId())) {
+            return ResponseEntity.badRequest().body("Player 1 and Player 2 must be different");
+        }
+        if (!validIdempotencyKey(idempotencyKey)) {
+            return ResponseEntity.badRequest().body("Idempotency-Key must be 1 to " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters");
+        }
+        try {
+            MatchTicket ticket = matchSubmissionQueue.submit(MatchSubmission.of(game), idempotencyKey);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/matches/tickets/" + ticket.getId()))
+                    .body(ticket);
+        } catch (IdempotencyConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (RejectedExecutionException e) {
+            logger.warn("Refusing match submission: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/matches/tickets/{id}")
+    @Operation(summary = "Get a match ticket",
+               description = "Status of an asynchronously submitted match, with the recorded game once it is applied")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Ticket found",
+                    content = @Content(schema = @Schema(implementation = MatchTicket.class))),
+        @ApiResponse(responseCode = "404", description = "Unknown or expired ticket")
+    })
+    public ResponseEntity<MatchTicket> getMatchTicket(@PathVariable String id) {
+        return matchSubmissionQueue.ticket(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/matches/batch")
+    @Operation(summary = "Record a batch of matches",
+               description = "Apply many results in order in one transaction and return a result per submitted match")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Batch processed; see the per-match results",
+                    content = @Content(schema = @Schema(implementation = MatchResult.class))),
+        @ApiResponse(responseCode = "400", description = "Empty or oversized batch"),
+        @ApiResponse(responseCode = "503", description = "Ladder writer busy; retry later")
+    })
+    public ResponseEntity<Object> addGames(@RequestBody List<Game> games) {
+        if (games.isEmpty() || games.size() > maxBatchSize) {
+            return ResponseEntity.badRequest().body("A batch must contain between 1 and " + maxBatchSize + " matches");
+        }
+        try {
+            List<MatchSubmission> submissions = games.stream().map(MatchSubmission::of).toList();
+            List<MatchResult> results = rankingService.recordMatches(submissions);
+            logger.info("creating {} games", submissions.size());
+            return ResponseEntity.ok(results);
+        } catch (RejectedExecutionException e) {
+            logger.warn("Refusing match batch: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error creating games: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error creating games: " + e.getMessage());
+        }
+    }
+
     @GetMapping("/matches/player/{playerId}")
     @Operation(summary = "Get player game history", description = "Retrieve all games for a specific player")
     @ApiResponses(value = {
@@ -145,4 +450,7 @@ public class APIController {
         return ResponseEntity.ok(games);
     }
 
-}
\ No newline at end of file
+    private static boolean validIdempotencyKey(String key) {
+        return key == null || (!key.isBlank() && key.length() <= MAX_IDEMPOTENCY_KEY_LENGTH);
+    }
+}
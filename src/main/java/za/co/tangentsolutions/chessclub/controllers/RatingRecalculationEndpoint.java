@@ -0,0 +1,31 @@
+package za.co.tangentsolutions.chessclub.controllers;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+import za.co.tangentsolutions.chessclub.services.RatingRecalculationService;
+
+// GET /actuator/ratings for the progress of the current or last recalculation, POST to start one
+@Component
+@Endpoint(id = "ratings")
+public class RatingRecalculationEndpoint {
+
+    private final RatingRecalculationService ratingRecalculationService;
+
+    @Autowired
+    public RatingRecalculationEndpoint(RatingRecalculationService ratingRecalculationService) {
+        this.ratingRecalculationService = ratingRecalculationService;
+    }
+
+    @ReadOperation
+    public RatingRecalculationService.Progress progress() {
+        return ratingRecalculationService.progress();
+    }
+
+    @WriteOperation
+    public RatingRecalculationService.Progress recalculate() {
+        return ratingRecalculationService.start();
+    }
+}
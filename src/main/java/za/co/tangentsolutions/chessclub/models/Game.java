@@ -1,5 +1,6 @@
 package za.co.tangentsolutions.chessclub.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -10,10 +11,17 @@ import jakarta.validation.Valid;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "games")
+@Table(name = "games", indexes = {
+        @Index(name = "idx_games_played_at_id", columnList = "played_at DESC, id DESC"),
+        @Index(name = "idx_games_pair_played_at", columnList = "player_low_id, player_high_id, played_at DESC"),
+        @Index(name = "idx_games_player1_played_at", columnList = "player1_id, played_at"),
+        @Index(name = "idx_games_player2_played_at", columnList = "player2_id, played_at")
+})
 public class Game {
+    // Pooled like Member ids, so a batch of games goes in as one JDBC batch
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "games_seq")
+    @SequenceGenerator(name = "games_seq", sequenceName = "games_seq", allocationSize = 50)
     private Long id;
     
     @NotNull(message = "Player 1 is required")
@@ -49,6 +57,20 @@ public class Game {
     
     @Column(name = "player2_rank_after")
     private int player2RankAfter;
+
+    // The two player ids in ascending order, so games between a pair share one index range
+    @JsonIgnore
+    @Column(name = "player_low_id", nullable = false)
+    private Long playerLowId;
+
+    @JsonIgnore
+    @Column(name = "player_high_id", nullable = false)
+    private Long playerHighId;
+
+    // Client-supplied key a retried submission is recognised by; null when none was sent
+    @JsonIgnore
+    @Column(name = "idempotency_key", unique = true, length = 100)
+    private String idempotencyKey;
     
     // Constructors
     public Game() {
@@ -96,6 +118,17 @@ public class Game {
     public int getPlayer2RankAfter() { return player2RankAfter; }
     public void setPlayer2RankAfter(int player2RankAfter) { this.player2RankAfter = player2RankAfter; }
     
+    public String getIdempotencyKey() { return idempotencyKey; }
+    public void setIdempotencyKey(String idempotencyKey) { this.idempotencyKey = idempotencyKey; }
+    
+    @PrePersist
+    @PreUpdate
+    void normalizePair() {
+        PairRecord.Key pair = PairRecord.Key.of(player1.getId(), player2.getId());
+        playerLowId = pair.getPlayerLowId();
+        playerHighId = pair.getPlayerHighId();
+    }
+
     // Helper methods
     public boolean isDraw() {
         return player1Score == player2Score;
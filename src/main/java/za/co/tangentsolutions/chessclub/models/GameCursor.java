@@ -0,0 +1,36 @@
+package za.co.tangentsolutions.chessclub.models;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Keyset position in the match history, which is ordered newest first on (playedAt, id).
+ * Encoded as an opaque URL-safe token for API clients.
+ */
+public record GameCursor(LocalDateTime playedAt, Long id) {
+
+    public static GameCursor after(Game game) {
+        return new GameCursor(game.getPlayedAt(), game.getId());
+    }
+
+    public String encode() {
+        String raw = playedAt + "_" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static GameCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('_');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor: " + token);
+            }
+            return new GameCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, e);
+        }
+    }
+}
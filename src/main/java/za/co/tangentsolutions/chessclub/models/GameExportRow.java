@@ -0,0 +1,14 @@
+package za.co.tangentsolutions.chessclub.models;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDateTime;
+
+// Flat, entity-free view of one game for bulk export
+public record GameExportRow(Long id,
+                            @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss.SSSSSS") LocalDateTime playedAt,
+                            Long player1Id, String player1Name, String player1Surname,
+                            int player1Score, int player1RankBefore, int player1RankAfter,
+                            Long player2Id, String player2Name, String player2Surname,
+                            int player2Score, int player2RankBefore, int player2RankAfter) {
+}
@@ -0,0 +1,16 @@
+package za.co.tangentsolutions.chessclub.models;
+
+import java.time.LocalDate;
+
+/**
+ * Narrows a match history listing; null fields do not filter. playerName matches part of either
+ * player's full name, ignoring case, and the dates are inclusive.
+ */
+public record GameFilter(Long playerId, String playerName, LocalDate from, LocalDate to) {
+
+    public static final GameFilter NONE = new GameFilter(null, null, null, null);
+
+    public static GameFilter forPlayer(Long playerId) {
+        return new GameFilter(playerId, null, null, null);
+    }
+}
@@ -0,0 +1,8 @@
+package za.co.tangentsolutions.chessclub.models;
+
+import java.time.LocalDateTime;
+
+// The fields of one game a rating engine needs, for streaming the whole history
+public record GameRatingRow(Long id, LocalDateTime playedAt, Long player1Id, Long player2Id,
+                            int player1Score, int player2Score) {
+}
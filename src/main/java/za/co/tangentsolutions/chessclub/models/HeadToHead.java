@@ -0,0 +1,17 @@
+package za.co.tangentsolutions.chessclub.models;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Record between two members from the first member's side, with their most recent games against each other
+public record HeadToHead(Long memberId, Long opponentId, int wins, int losses, int draws, int gamesPlayed,
+                         LocalDateTime lastPlayedAt, List<Game> recentGames) {
+
+    public static HeadToHead of(Long memberId, Long opponentId, PairRecord record, List<Game> recentGames) {
+        if (record == null) {
+            return new HeadToHead(memberId, opponentId, 0, 0, 0, 0, null, recentGames);
+        }
+        return new HeadToHead(memberId, opponentId, record.winsFor(memberId), record.lossesFor(memberId),
+                record.getDraws(), record.getGamesPlayed(), record.getLastPlayedAt(), recentGames);
+    }
+}
@@ -0,0 +1,87 @@
+package za.co.tangentsolutions.chessclub.models;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One entry of the append-only ladder event log: a member joining or leaving the ladder, or a
+ * match result. Together with a {@link LadderSnapshot} the events are enough to rebuild the ladder
+ * order without looking at the members table. Rows are only ever inserted.
+ */
+@Entity
+@Table(name = "ladder_events")
+public class LadderEvent {
+
+    public enum Type { JOINED, LEFT, MATCH }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 8)
+    private Type type;
+
+    // The joining or leaving member, or player 1 of a match
+    @Column(name = "member_id", nullable = false)
+    private Long memberId;
+
+    @Column(name = "opponent_id")
+    private Long opponentId;
+
+    @Column(name = "member_score")
+    private Integer memberScore;
+
+    @Column(name = "opponent_score")
+    private Integer opponentScore;
+
+    @Column(name = "game_id")
+    private Long gameId;
+
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+
+    // Constructors
+    public LadderEvent() {}
+
+    private LadderEvent(Type type, Long memberId, LocalDateTime occurredAt) {
+        this.type = type;
+        this.memberId = memberId;
+        this.occurredAt = occurredAt;
+    }
+
+    public static LadderEvent joined(Long memberId) {
+        return new LadderEvent(Type.JOINED, memberId, LocalDateTime.now());
+    }
+
+    public static LadderEvent left(Long memberId) {
+        return new LadderEvent(Type.LEFT, memberId, LocalDateTime.now());
+    }
+
+    public static LadderEvent match(Game game) {
+        LadderEvent event = new LadderEvent(Type.MATCH, game.getPlayer1().getId(), game.getPlayedAt());
+        event.opponentId = game.getPlayer2().getId();
+        event.memberScore = game.getPlayer1Score();
+        event.opponentScore = game.getPlayer2Score();
+        event.gameId = game.getId();
+        return event;
+    }
+
+    // Getters
+    public Long getId() { return id; }
+
+    public Type getType() { return type; }
+
+    public Long getMemberId() { return memberId; }
+
+    public Long getOpponentId() { return opponentId; }
+
+    public Integer getMemberScore() { return memberScore; }
+
+    public Integer getOpponentScore() { return opponentScore; }
+
+    public Long getGameId() { return gameId; }
+
+    public LocalDateTime getOccurredAt() { return occurredAt; }
+}
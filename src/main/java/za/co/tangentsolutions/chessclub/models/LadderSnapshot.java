@@ -0,0 +1,65 @@
+package za.co.tangentsolutions.chessclub.models;
+
+import jakarta.persistence.*;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The ladder order as it stood after event {@code lastEventId} (0 for none), stored as one packed
+ * array of member ids so a snapshot of a large ladder is a single row read.
+ */
+@Entity
+@Table(name = "ladder_snapshots")
+public class LadderSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "last_event_id", nullable = false, unique = true)
+    private long lastEventId;
+
+    @Column(name = "taken_at", nullable = false)
+    private LocalDateTime takenAt;
+
+    @Column(name = "member_count", nullable = false)
+    private int memberCount;
+
+    // Member ids in rank order, 8 bytes each
+    @Lob
+    @Column(name = "member_ids", nullable = false)
+    private byte[] memberIds;
+
+    // Constructors
+    public LadderSnapshot() {}
+
+    public LadderSnapshot(long lastEventId, List<Long> memberIdsInRankOrder) {
+        this.lastEventId = lastEventId;
+        this.takenAt = LocalDateTime.now();
+        this.memberCount = memberIdsInRankOrder.size();
+        ByteBuffer buffer = ByteBuffer.allocate(memberCount * Long.BYTES);
+        memberIdsInRankOrder.forEach(buffer::putLong);
+        this.memberIds = buffer.array();
+    }
+
+    public List<Long> getMemberIds() {
+        ByteBuffer buffer = ByteBuffer.wrap(memberIds);
+        List<Long> ids = new ArrayList<>(memberCount);
+        for (int i = 0; i < memberCount; i++) {
+            ids.add(buffer.getLong());
+        }
+        return ids;
+    }
+
+    // Getters
+    public Long getId() { return id; }
+
+    public long getLastEventId() { return lastEventId; }
+
+    public LocalDateTime getTakenAt() { return takenAt; }
+
+    public int getMemberCount() { return memberCount; }
+}
@@ -0,0 +1,62 @@
+package za.co.tangentsolutions.chessclub.models;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDate;
+
+// Read-only view of a member on the leaderboard; serializes like Member
+public final class LeaderboardEntry {
+    private final Long id;
+    private final String name;
+    private final String surname;
+    private final String email;
+    private final LocalDate birthday;
+    private final int gamesPlayed;
+    private final int rank;
+    private final double rating;
+    private final double ratingDeviation;
+    private final double ratingVolatility;
+
+    public LeaderboardEntry(Long id, String name, String surname, String email, LocalDate birthday,
+                            int gamesPlayed, int rank, double rating, double ratingDeviation, double ratingVolatility) {
+        this.id = id;
+        this.name = name;
+        this.surname = surname;
+        this.email = email;
+        this.birthday = birthday;
+        this.gamesPlayed = gamesPlayed;
+        this.rank = rank;
+        this.rating = rating;
+        this.ratingDeviation = ratingDeviation;
+        this.ratingVolatility = ratingVolatility;
+    }
+
+    public static LeaderboardEntry of(Member member, int rank) {
+        return new LeaderboardEntry(member.getId(), member.getName(), member.getSurname(), member.getEmail(),
+                member.getBirthday(), member.getGamesPlayed(), rank, member.getRating(), member.getRatingDeviation(),
+                member.getRatingVolatility());
+    }
+
+    public LeaderboardEntry withRank(int rank) {
+        return rank == this.rank ? this : new LeaderboardEntry(id, name, surname, email, birthday, gamesPlayed, rank,
+                rating, ratingDeviation, ratingVolatility);
+    }
+
+    public Long getId() { return id; }
+    public String getName() { return name; }
+    public String getSurname() { return surname; }
+    public String getEmail() { return email; }
+
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    public LocalDate getBirthday() { return birthday; }
+
+    public int getGamesPlayed() { return gamesPlayed; }
+    public int getRank() { return rank; }
+    public double getRating() { return rating; }
+    public double getRatingDeviation() { return ratingDeviation; }
+    public double getRatingVolatility() { return ratingVolatility; }
+
+    public String getFullName() {
+        return name + " " + surname;
+    }
+}
@@ -0,0 +1,42 @@
+package za.co.tangentsolutions.chessclub.models;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Immutable leaderboard as of one committed change. The JSON body is rendered once per version
+ * so that REST readers are served the same bytes until the next change.
+ */
+public final class LeaderboardSnapshot {
+    private final long version;
+    private final String etag;
+    private final List<LeaderboardEntry> entries;
+    private final Map<Long, LeaderboardEntry> entriesById;
+    private final byte[] json;
+
+    public LeaderboardSnapshot(long version, String etag, List<LeaderboardEntry> entries, byte[] json) {
+        this.version = version;
+        this.etag = etag;
+        this.entries = Collections.unmodifiableList(entries);
+        this.json = json;
+        Map<Long, LeaderboardEntry> byId = new HashMap<>(entries.size() * 2);
+        for (LeaderboardEntry entry : entries) {
+            byId.put(entry.getId(), entry);
+        }
+        this.entriesById = Collections.unmodifiableMap(byId);
+    }
+
+    public long getVersion() { return version; }
+    public String getEtag() { return etag; }
+    public List<LeaderboardEntry> getEntries() { return entries; }
+
+    public Optional<LeaderboardEntry> getEntry(Long memberId) {
+        return Optional.ofNullable(entriesById.get(memberId));
+    }
+
+    // Shared, do not modify
+    public byte[] getJson() { return json; }
+}
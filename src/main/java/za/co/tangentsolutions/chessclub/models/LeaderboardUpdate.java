@@ -0,0 +1,42 @@
+package za.co.tangentsolutions.chessclub.models;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * What changed between two leaderboard snapshots: the entries that are new or differ from the
+ * previous version (a moved member shows up with its new rank) and the members that left, plus
+ * each rank move on its own. Applied to a copy of {@code previousVersion} it gives {@code version}.
+ * gameId is the match behind the change, null when it was not a match.
+ */
+public record LeaderboardUpdate(long previousVersion, long version, int size, Long gameId,
+                                List<LeaderboardEntry> changed, Set<Long> removedMemberIds,
+                                List<RankChange> rankChanges) {
+
+    public static LeaderboardUpdate between(LeaderboardSnapshot previous, LeaderboardSnapshot next, Long gameId) {
+        List<LeaderboardEntry> changed = new ArrayList<>();
+        List<RankChange> rankChanges = new ArrayList<>();
+        // Unchanged entries are carried over as the same instance, so identity is enough here
+        for (LeaderboardEntry entry : next.getEntries()) {
+            LeaderboardEntry before = previous.getEntry(entry.getId()).orElse(null);
+            if (before != entry) {
+                changed.add(entry);
+                if (before == null || before.getRank() != entry.getRank()) {
+                    rankChanges.add(new RankChange(entry.getId(), before == null ? null : before.getRank(),
+                            entry.getRank(), gameId));
+                }
+            }
+        }
+        Set<Long> removed = new HashSet<>();
+        for (LeaderboardEntry entry : previous.getEntries()) {
+            if (next.getEntry(entry.getId()).isEmpty()) {
+                removed.add(entry.getId());
+                rankChanges.add(new RankChange(entry.getId(), entry.getRank(), null, gameId));
+            }
+        }
+        return new LeaderboardUpdate(previous.getVersion(), next.getVersion(), next.getEntries().size(), gameId,
+                List.copyOf(changed), Set.copyOf(removed), List.copyOf(rankChanges));
+    }
+}
@@ -0,0 +1,13 @@
+package za.co.tangentsolutions.chessclub.models;
+
+// Outcome of one submission in a batch; either the recorded game or the reason it was rejected
+public record MatchResult(int index, boolean recorded, Game game, String error) {
+
+    public static MatchResult recorded(int index, Game game) {
+        return new MatchResult(index, true, game, null);
+    }
+
+    public static MatchResult rejected(int index, String error) {
+        return new MatchResult(index, false, null, error);
+    }
+}
@@ -0,0 +1,13 @@
+package za.co.tangentsolutions.chessclub.models;
+
+// A reported result that has not been applied to the ladder yet
+public record MatchSubmission(Long player1Id, Long player2Id, int player1Score, int player2Score) {
+
+    public static MatchSubmission of(Game game) {
+        return new MatchSubmission(
+                game.getPlayer1() != null ? game.getPlayer1().getId() : null,
+                game.getPlayer2() != null ? game.getPlayer2().getId() : null,
+                game.getPlayer1Score(),
+                game.getPlayer2Score());
+    }
+}
@@ -0,0 +1,48 @@
+package za.co.tangentsolutions.chessclub.models;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// Receipt for a match submitted asynchronously; completed by the ladder writer once it is applied or refused
+public class MatchTicket {
+
+    public enum Status { PENDING, APPLIED, REJECTED }
+
+    private final String id = UUID.randomUUID().toString();
+    private final MatchSubmission submission;
+    @JsonIgnore
+    private final String idempotencyKey;
+    private final Instant submittedAt = Instant.now();
+    private volatile Status status = Status.PENDING;
+    private volatile Game game;
+    private volatile String error;
+    private volatile Instant completedAt;
+
+    public MatchTicket(MatchSubmission submission, String idempotencyKey) {
+        this.submission = submission;
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    public void applied(Game game) {
+        this.game = game;
+        this.completedAt = Instant.now();
+        this.status = Status.APPLIED;
+    }
+
+    public void rejected(String error) {
+        this.error = error;
+        this.completedAt = Instant.now();
+        this.status = Status.REJECTED;
+    }
+
+    public String getId() { return id; }
+    public MatchSubmission getSubmission() { return submission; }
+    public String getIdempotencyKey() { return idempotencyKey; }
+    public Instant getSubmittedAt() { return submittedAt; }
+    public Status getStatus() { return status; }
+    public Game getGame() { return game; }
+    public String getError() { return error; }
+    public Instant getCompletedAt() { return completedAt; }
+}
@@ -5,33 +5,42 @@ import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Past;
+import jakarta.validation.groups.Default;
+import za.co.tangentsolutions.chessclub.validation.MemberDetails;
 import za.co.tangentsolutions.chessclub.validation.UniqueEmail;
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "members")
+@Table(name = "members", indexes = {
+        @Index(name = "idx_members_rank", columnList = "rank"),
+        @Index(name = "idx_members_ladder_position", columnList = "ladder_position")
+})
 public class Member {
+    // Pooled: one sequence call reserves 50 ids, so inserts can be batched, which IDENTITY rules out
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "members_seq")
+    @SequenceGenerator(name = "members_seq", sequenceName = "members_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false)
-    @NotBlank(message = "Name cannot be blank")
+    @NotBlank(message = "Name cannot be blank", groups = {Default.class, MemberDetails.class})
     private String name;
 
-    @NotBlank(message = "Surname cannot be blank")
+    @NotBlank(message = "Surname cannot be blank", groups = {Default.class, MemberDetails.class})
     private String surname;
     
     @Column(nullable = false, unique = true)
-    @Email(message = "Email must be valid")
+    @Email(message = "Email must be valid", groups = {Default.class, MemberDetails.class})
     @UniqueEmail
-    @NotBlank(message = "Email cannot be blank")
+    @NotBlank(message = "Email cannot be blank", groups = {Default.class, MemberDetails.class})
     private String email;
 
-    @NotNull(message = "Birthday cannot be null")
-    @Past(message = "Birthday must be in the past")
+    @NotNull(message = "Birthday cannot be null", groups = {Default.class, MemberDetails.class})
+    @Past(message = "Birthday must be in the past", groups = {Default.class, MemberDetails.class})
     @JsonFormat(pattern = "yyyy-MM-dd")
     private LocalDate birthday;
     
@@ -40,6 +49,24 @@ public class Member {
     
     @Column(nullable = false)
     private int rank;
+
+    // Sort key for the gapped ladder storage mode; the displayed rank is derived from it
+    @JsonIgnore
+    @Column(name = "ladder_position", nullable = false)
+    private long position;
+
+    // Rating engine state on the Glicko scale; rows inserted without them start as a new player
+    @Column(nullable = false)
+    @ColumnDefault("1500")
+    private double rating = 1500;
+
+    @Column(name = "rating_deviation", nullable = false)
+    @ColumnDefault("350")
+    private double ratingDeviation = 350;
+
+    @Column(name = "rating_volatility", nullable = false)
+    @ColumnDefault("0.06")
+    private double ratingVolatility = 0.06;
     
     // Constructors
     public Member() {}
@@ -74,6 +101,18 @@ public class Member {
     public int getRank() { return rank; }
     public void setRank(int rank) { this.rank = rank; }
     
+    public long getPosition() { return position; }
+    public void setPosition(long position) { this.position = position; }
+    
+    public double getRating() { return rating; }
+    public void setRating(double rating) { this.rating = rating; }
+    
+    public double getRatingDeviation() { return ratingDeviation; }
+    public void setRatingDeviation(double ratingDeviation) { this.ratingDeviation = ratingDeviation; }
+    
+    public double getRatingVolatility() { return ratingVolatility; }
+    public void setRatingVolatility(double ratingVolatility) { this.ratingVolatility = ratingVolatility; }
+    
     public String getFullName() {
         return name + " " + surname;
     }
@@ -0,0 +1,14 @@
+package za.co.tangentsolutions.chessclub.models;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk member import. Rows are numbered by their line in the uploaded file; errors
+ * lists at most the configured number of rejected rows, rejected counts all of them.
+ */
+public record MemberImportReport(long rowsRead, long imported, long rejected, long elapsedMillis,
+                                 double rowsPerSecond, List<RowError> errors) {
+
+    public record RowError(long row, String error) {
+    }
+}
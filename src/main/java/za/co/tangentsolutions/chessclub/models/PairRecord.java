@@ -0,0 +1,123 @@
+package za.co.tangentsolutions.chessclub.models;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Running head-to-head totals for one pair of members, stored once per pair under the lower id
+ * first, and kept up to date as matches are recorded.
+ */
+@Entity
+@Table(name = "pair_records")
+@IdClass(PairRecord.Key.class)
+public class PairRecord implements Persistable<PairRecord.Key> {
+    @Id
+    @Column(name = "player_low_id")
+    private Long playerLowId;
+
+    @Id
+    @Column(name = "player_high_id")
+    private Long playerHighId;
+
+    @Column(name = "low_wins", nullable = false)
+    private int lowWins;
+
+    @Column(name = "high_wins", nullable = false)
+    private int highWins;
+
+    @Column(nullable = false)
+    private int draws;
+
+    @Column(name = "last_played_at")
+    private LocalDateTime lastPlayedAt;
+
+    @Transient
+    private boolean isNew = true;
+
+    // Constructors
+    public PairRecord() {}
+
+    public PairRecord(Key key) {
+        this.playerLowId = key.playerLowId;
+        this.playerHighId = key.playerHighId;
+    }
+
+    public void recordGame(Game game) {
+        int lowScore = game.getPlayer1().getId().equals(playerLowId) ? game.getPlayer1Score() : game.getPlayer2Score();
+        int highScore = game.getPlayer1().getId().equals(playerLowId) ? game.getPlayer2Score() : game.getPlayer1Score();
+        if (lowScore > highScore) {
+            lowWins++;
+        } else if (highScore > lowScore) {
+            highWins++;
+        } else {
+            draws++;
+        }
+        lastPlayedAt = game.getPlayedAt();
+    }
+
+    // Wins for the given member of the pair
+    public int winsFor(Long memberId) {
+        return memberId.equals(playerLowId) ? lowWins : highWins;
+    }
+
+    public int lossesFor(Long memberId) {
+        return memberId.equals(playerLowId) ? highWins : lowWins;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        isNew = false;
+    }
+
+    @Override
+    public Key getId() { return Key.of(playerLowId, playerHighId); }
+
+    @Override
+    public boolean isNew() { return isNew; }
+
+    // Getters
+    public Long getPlayerLowId() { return playerLowId; }
+    public Long getPlayerHighId() { return playerHighId; }
+    public int getLowWins() { return lowWins; }
+    public int getHighWins() { return highWins; }
+    public int getDraws() { return draws; }
+    public int getGamesPlayed() { return lowWins + highWins + draws; }
+    public LocalDateTime getLastPlayedAt() { return lastPlayedAt; }
+
+    public static class Key implements Serializable {
+        private Long playerLowId;
+        private Long playerHighId;
+
+        public Key() {}
+
+        private Key(Long playerLowId, Long playerHighId) {
+            this.playerLowId = playerLowId;
+            this.playerHighId = playerHighId;
+        }
+
+        // Either order of the two members gives the same key
+        public static Key of(Long memberId, Long opponentId) {
+            return memberId < opponentId ? new Key(memberId, opponentId) : new Key(opponentId, memberId);
+        }
+
+        public Long getPlayerLowId() { return playerLowId; }
+        public Long getPlayerHighId() { return playerHighId; }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key key)) return false;
+            return Objects.equals(playerLowId, key.playerLowId) && Objects.equals(playerHighId, key.playerHighId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(playerLowId, playerHighId);
+        }
+    }
+}
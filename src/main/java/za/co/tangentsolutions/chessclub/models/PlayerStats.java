@@ -0,0 +1,100 @@
+package za.co.tangentsolutions.chessclub.models;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Running totals for one member, kept up to date as each match is recorded so a profile is a
+ * single row lookup rather than a scan of the member's games.
+ */
+@Entity
+@Table(name = "player_stats")
+public class PlayerStats implements Persistable<Long> {
+    @Id
+    @Column(name = "member_id")
+    private Long memberId;
+
+    @Column(nullable = false)
+    private int wins;
+
+    @Column(nullable = false)
+    private int losses;
+
+    @Column(nullable = false)
+    private int draws;
+
+    // Positive for consecutive wins, negative for consecutive losses, 0 after a draw
+    @Column(name = "current_streak", nullable = false)
+    private int currentStreak;
+
+    @Column(name = "longest_win_streak", nullable = false)
+    private int longestWinStreak;
+
+    // Best rank held before or after one of the member's own games, as V4 backfills it from the
+    // games table. Climbing because someone above left the club, or through a ladder restore, only
+    // shows up here once the member next plays.
+    @Column(name = "best_rank")
+    private Integer bestRank;
+
+    @Column(name = "last_played_at")
+    private LocalDateTime lastPlayedAt;
+
+    // The id is the member's, so tell Spring Data when to insert rather than merge
+    @Transient
+    private boolean isNew = true;
+
+    // Constructors
+    public PlayerStats() {}
+
+    public PlayerStats(Long memberId) {
+        this.memberId = memberId;
+    }
+
+    // Applies one game from this member's side of the board
+    public void recordGame(int score, int opponentScore, int rankBefore, int rankAfter, LocalDateTime playedAt) {
+        if (score > opponentScore) {
+            wins++;
+            currentStreak = currentStreak > 0 ? currentStreak + 1 : 1;
+            longestWinStreak = Math.max(longestWinStreak, currentStreak);
+        } else if (score < opponentScore) {
+            losses++;
+            currentStreak = currentStreak < 0 ? currentStreak - 1 : -1;
+        } else {
+            draws++;
+            currentStreak = 0;
+        }
+        int best = Math.min(rankBefore, rankAfter);
+        if (bestRank == null || best < bestRank) {
+            bestRank = best;
+        }
+        lastPlayedAt = playedAt;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        isNew = false;
+    }
+
+    @Override
+    @JsonIgnore
+    public Long getId() { return memberId; }
+
+    @Override
+    @JsonIgnore
+    public boolean isNew() { return isNew; }
+
+    // Getters
+    public Long getMemberId() { return memberId; }
+    public int getWins() { return wins; }
+    public int getLosses() { return losses; }
+    public int getDraws() { return draws; }
+    public int getGamesPlayed() { return wins + losses + draws; }
+    public int getCurrentStreak() { return currentStreak; }
+    public int getLongestWinStreak() { return longestWinStreak; }
+    public Integer getBestRank() { return bestRank; }
+    public LocalDateTime getLastPlayedAt() { return lastPlayedAt; }
+}
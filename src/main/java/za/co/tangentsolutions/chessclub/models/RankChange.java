@@ -0,0 +1,5 @@
+package za.co.tangentsolutions.chessclub.models;
+
+// One member's move on the ladder; oldRank is null for a member who joined, newRank for one who left
+public record RankChange(Long memberId, Integer oldRank, Integer newRank, Long gameId) {
+}
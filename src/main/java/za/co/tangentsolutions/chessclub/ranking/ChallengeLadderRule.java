@@ -0,0 +1,33 @@
+package za.co.tangentsolutions.chessclub.ranking;
+
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * The club's rules: a higher-ranked win changes nothing; a draw between players more than one
+ * place apart moves the lower-ranked player up one; an upset moves the higher-ranked player down
+ * one and the winner up by half the gap between them (at least one place).
+ */
+@Component
+public class ChallengeLadderRule implements LadderRule {
+
+    @Override
+    public List<Move> movesFor(int player1Rank, int player2Rank, int player1Score, int player2Score) {
+        int higher = player1Rank < player2Rank ? 1 : 2;
+        int lower = 3 - higher;
+        int higherRank = Math.min(player1Rank, player2Rank);
+        int lowerRank = Math.max(player1Rank, player2Rank);
+        int rankDifference = lowerRank - higherRank;
+
+        if (player1Score == player2Score) {
+            return rankDifference > 1 ? List.of(new Move(lower, lowerRank - 1)) : List.of();
+        }
+        int winner = player1Score > player2Score ? 1 : 2;
+        if (winner == higher || rankDifference < 1) {
+            return List.of();
+        }
+        int moveUp = Math.max(1, rankDifference / 2);
+        return List.of(new Move(higher, higherRank + 1), new Move(lower, lowerRank - moveUp));
+    }
+}
@@ -0,0 +1,42 @@
+package za.co.tangentsolutions.chessclub.ranking;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import za.co.tangentsolutions.chessclub.models.Member;
+
+import java.util.Set;
+
+/**
+ * Classic Elo with a fixed K factor. Only the rating is used; deviation and volatility are left
+ * alone so switching to Glicko-2 later starts from the Elo ratings.
+ */
+@Component
+@Order(1)
+@ConditionalOnProperty(name = "chessclub.ranking.rating-engine", havingValue = "elo")
+public class EloRatingEngine implements RankingStrategy {
+
+    private final double kFactor;
+
+    public EloRatingEngine(@Value("${chessclub.ranking.elo-k-factor:32}") double kFactor) {
+        this.kFactor = kFactor;
+    }
+
+    @Override
+    public Set<Long> apply(Member player1, Member player2, int player1Score, int player2Score) {
+        double[] ratings = {player1.getRating(), player2.getRating()};
+        rate(ratings, RankingStrategy.score(player1Score, player2Score));
+        player1.setRating(ratings[0]);
+        player2.setRating(ratings[1]);
+        return Set.of();
+    }
+
+    // Updates ratings[0] and ratings[1] in place for one game, scoreA from the first player's side
+    public void rate(double[] ratings, double scoreA) {
+        double expectedA = 1 / (1 + Math.pow(10, (ratings[1] - ratings[0]) / 400));
+        double change = kFactor * (scoreA - expectedA);
+        ratings[0] += change;
+        ratings[1] -= change;
+    }
+}
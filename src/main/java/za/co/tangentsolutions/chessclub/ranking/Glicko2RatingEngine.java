@@ -0,0 +1,173 @@
+package za.co.tangentsolutions.chessclub.ranking;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import za.co.tangentsolutions.chessclub.models.Member;
+
+import java.util.Set;
+
+/**
+ * Glicko-2 (Glickman, 2012). A rating state is a {@code double[3]} of rating, deviation and
+ * volatility on the Glicko scale; all math works on those arrays in place.
+ *
+ * Live matches are rated as a one-game rating period for each player, from both players' ratings
+ * before the game, so a match costs O(1) and touches only the two players. {@link #ratePeriod}
+ * rates a whole period of games at once for bulk re-rating.
+ */
+@Component
+@Order(1)
+@ConditionalOnProperty(name = "chessclub.ranking.rating-engine", havingValue = "glicko2", matchIfMissing = true)
+public class Glicko2RatingEngine implements RankingStrategy {
+
+    public static final int RATING = 0;
+    public static final int DEVIATION = 1;
+    public static final int VOLATILITY = 2;
+
+    public static final double DEFAULT_RATING = 1500;
+    public static final double DEFAULT_DEVIATION = 350;
+    public static final double DEFAULT_VOLATILITY = 0.06;
+
+    private static final double SCALE = 173.7178;
+    private static final double CONVERGENCE = 0.000001;
+
+    // Constrains how fast volatility moves; 0.3 - 1.2 is reasonable
+    private final double tau;
+
+    public Glicko2RatingEngine(@Value("${chessclub.ranking.glicko2-tau:0.5}") double tau) {
+        this.tau = tau;
+    }
+
+    @Override
+    public Set<Long> apply(Member player1, Member player2, int player1Score, int player2Score) {
+        double[] state1 = {player1.getRating(), player1.getRatingDeviation(), player1.getRatingVolatility()};
+        double[] state2 = {player2.getRating(), player2.getRatingDeviation(), player2.getRatingVolatility()};
+        rateGame(state1, state2, RankingStrategy.score(player1Score, player2Score));
+        write(player1, state1);
+        write(player2, state2);
+        return Set.of();
+    }
+
+    /**
+     * Rates one game between {@code a} and {@code b}, {@code scoreA} from a's side, updating both
+     * states in place from their values before the game.
+     */
+    public void rateGame(double[] a, double[] b, double scoreA) {
+        double muA = (a[RATING] - DEFAULT_RATING) / SCALE;
+        double phiA = a[DEVIATION] / SCALE;
+        double muB = (b[RATING] - DEFAULT_RATING) / SCALE;
+        double phiB = b[DEVIATION] / SCALE;
+
+        double gB = g(phiB);
+        double expectedA = expected(muA, muB, gB);
+        double gA = g(phiA);
+        double expectedB = expected(muB, muA, gA);
+
+        finish(a, muA, phiA, gB * gB * expectedA * (1 - expectedA), gB * (scoreA - expectedA));
+        finish(b, muB, phiB, gA * gA * expectedB * (1 - expectedB), gA * ((1 - scoreA) - expectedB));
+    }
+
+    /**
+     * Rates one rating period for {@code player} against entries {@code from} (inclusive) to
+     * {@code to} (exclusive) of the opponent arrays, which hold the opponents' ratings and deviations
+     * at the start of the period. A period without games only widens the deviation.
+     */
+    public void ratePeriod(double[] player, double[] opponentRatings, double[] opponentDeviations,
+                           double[] scores, int from, int to) {
+        if (from == to) {
+            idle(player, 1);
+            return;
+        }
+        double mu = (player[RATING] - DEFAULT_RATING) / SCALE;
+        double phi = player[DEVIATION] / SCALE;
+        double inverseVariance = 0;
+        double improvement = 0;
+        for (int i = from; i < to; i++) {
+            double g = g(opponentDeviations[i] / SCALE);
+            double expected = expected(mu, (opponentRatings[i] - DEFAULT_RATING) / SCALE, g);
+            inverseVariance += g * g * expected * (1 - expected);
+            improvement += g * (scores[i] - expected);
+        }
+        finish(player, mu, phi, inverseVariance, improvement);
+    }
+
+    // Widens the deviation for rating periods the player sat out; volatility is unchanged by them
+    public void idle(double[] player, int periods) {
+        if (periods <= 0) {
+            return;
+        }
+        double phi = player[DEVIATION] / SCALE;
+        double sigma = player[VOLATILITY];
+        player[DEVIATION] = Math.min(DEFAULT_DEVIATION, Math.sqrt(phi * phi + periods * sigma * sigma) * SCALE);
+    }
+
+    private void finish(double[] state, double mu, double phi, double inverseVariance, double improvement) {
+        double variance = 1 / inverseVariance;
+        double delta = variance * improvement;
+        double sigma = volatility(phi, state[VOLATILITY], variance, delta);
+
+        double phiStar = Math.sqrt(phi * phi + sigma * sigma);
+        double newPhi = 1 / Math.sqrt(1 / (phiStar * phiStar) + inverseVariance);
+        double newMu = mu + newPhi * newPhi * improvement;
+
+        state[RATING] = newMu * SCALE + DEFAULT_RATING;
+        state[DEVIATION] = Math.min(DEFAULT_DEVIATION, newPhi * SCALE);
+        state[VOLATILITY] = sigma;
+    }
+
+    // Step 5 of the paper: the Illinois variant of regula falsi on f(x), x = ln(sigma'^2)
+    private double volatility(double phi, double sigma, double variance, double delta) {
+        double a = Math.log(sigma * sigma);
+        double deltaSquared = delta * delta;
+        double phiSquared = phi * phi;
+
+        double upper;
+        if (deltaSquared > phiSquared + variance) {
+            upper = Math.log(deltaSquared - phiSquared - variance);
+        } else {
+            int k = 1;
+            while (f(a - k * tau, a, deltaSquared, phiSquared, variance) < 0) {
+                k++;
+            }
+            upper = a - k * tau;
+        }
+        double lower = a;
+        double fLower = f(lower, a, deltaSquared, phiSquared, variance);
+        double fUpper = f(upper, a, deltaSquared, phiSquared, variance);
+        while (Math.abs(upper - lower) > CONVERGENCE) {
+            double next = lower + (lower - upper) * fLower / (fUpper - fLower);
+            double fNext = f(next, a, deltaSquared, phiSquared, variance);
+            if (fNext * fUpper <= 0) {
+                lower = upper;
+                fLower = fUpper;
+            } else {
+                fLower = fLower / 2;
+            }
+            upper = next;
+            fUpper = fNext;
+        }
+        return Math.exp(lower / 2);
+    }
+
+    private double f(double x, double a, double deltaSquared, double phiSquared, double variance) {
+        double ex = Math.exp(x);
+        double denominator = phiSquared + variance + ex;
+        return ex * (deltaSquared - phiSquared - variance - ex) / (2 * denominator * denominator)
+                - (x - a) / (tau * tau);
+    }
+
+    private static double g(double phi) {
+        return 1 / Math.sqrt(1 + 3 * phi * phi / (Math.PI * Math.PI));
+    }
+
+    private static double expected(double mu, double opponentMu, double opponentG) {
+        return 1 / (1 + Math.exp(-opponentG * (mu - opponentMu)));
+    }
+
+    private static void write(Member member, double[] state) {
+        member.setRating(state[RATING]);
+        member.setRatingDeviation(state[DEVIATION]);
+        member.setRatingVolatility(state[VOLATILITY]);
+    }
+}
@@ -0,0 +1,19 @@
+package za.co.tangentsolutions.chessclub.ranking;
+
+import java.util.List;
+
+/**
+ * How a result moves the two players on the ladder. Rules only see ranks and scores, so the same
+ * rule drives live match recording and the replay of the ladder event log.
+ */
+public interface LadderRule {
+
+    /**
+     * One player moving to {@code toRank}; {@code player} is 1 or 2. Moves are applied in order,
+     * each against the ladder as the previous one left it.
+     */
+    record Move(int player, int toRank) {
+    }
+
+    List<Move> movesFor(int player1Rank, int player2Rank, int player1Score, int player2Score);
+}
@@ -0,0 +1,315 @@
+package za.co.tangentsolutions.chessclub.ranking;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Ordered ladder of member ids backed by an implicit treap (an order-statistic tree keyed by
+ * position in the ladder). Looking up a member's rank, fetching the member at a rank and moving
+ * a member to another rank are all O(log n); nothing else in the ladder is touched by a move.
+ *
+ * Each entry also carries an opaque {@code position} key which the gapped storage mode uses as
+ * the persisted sort key. The ladder itself never interprets it.
+ *
+ * Not thread-safe; callers are expected to guard access.
+ */
+public class RankLadder {
+
+    private static final class Node {
+        final long memberId;
+        final int priority;
+        long position;
+        int size = 1;
+        Node left;
+        Node right;
+        Node parent;
+
+        Node(long memberId, long position, int priority) {
+            this.memberId = memberId;
+            this.position = position;
+            this.priority = priority;
+        }
+    }
+
+    private final Map<Long, Node> nodes = new HashMap<>();
+    private final SplittableRandom random = new SplittableRandom();
+    private Node root;
+
+    public RankLadder() {
+    }
+
+    /**
+     * Builds a ladder from member ids already in rank order, in O(n).
+     */
+    public static RankLadder of(List<Long> memberIdsInRankOrder) {
+        long[] positions = new long[memberIdsInRankOrder.size()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = i + 1;
+        }
+        return of(memberIdsInRankOrder, positions);
+    }
+
+    public static RankLadder of(List<Long> memberIdsInRankOrder, long[] positions) {
+        RankLadder ladder = new RankLadder();
+        ladder.build(memberIdsInRankOrder, positions);
+        return ladder;
+    }
+
+    public int size() {
+        return size(root);
+    }
+
+    public boolean contains(long memberId) {
+        return nodes.containsKey(memberId);
+    }
+
+    public int rankOf(long memberId) {
+        Node node = nodes.get(memberId);
+        if (node == null) {
+            throw new IllegalArgumentException("Member " + memberId + " is not on the ladder");
+        }
+        int rank = size(node.left) + 1;
+        while (node.parent != null) {
+            if (node == node.parent.right) {
+                rank += size(node.parent.left) + 1;
+            }
+            node = node.parent;
+        }
+        return rank;
+    }
+
+    public long memberAt(int rank) {
+        return nodeAt(rank).memberId;
+    }
+
+    public long positionOf(long memberId) {
+        Node node = nodes.get(memberId);
+        if (node == null) {
+            throw new IllegalArgumentException("Member " + memberId + " is not on the ladder");
+        }
+        return node.position;
+    }
+
+    public long positionAt(int rank) {
+        return nodeAt(rank).position;
+    }
+
+    public void setPosition(long memberId, long position) {
+        Node node = nodes.get(memberId);
+        if (node == null) {
+            throw new IllegalArgumentException("Member " + memberId + " is not on the ladder");
+        }
+        node.position = position;
+    }
+
+    public void append(long memberId, long position) {
+        insert(size() + 1, memberId, position);
+    }
+
+    public void insert(int rank, long memberId, long position) {
+        if (nodes.containsKey(memberId)) {
+            throw new IllegalArgumentException("Member " + memberId + " is already on the ladder");
+        }
+        checkRank(rank, size() + 1);
+        Node node = new Node(memberId, position, random.nextInt());
+        nodes.put(memberId, node);
+        insertNode(rank, node);
+    }
+
+    public void remove(long memberId) {
+        int rank = rankOf(memberId);
+        removeNodeAt(rank);
+        nodes.remove(memberId);
+    }
+
+    /**
+     * Moves a member to {@code newRank}; everyone between the old and new rank shifts by one.
+     */
+    public void move(long memberId, int newRank) {
+        int oldRank = rankOf(memberId);
+        checkRank(newRank, size());
+        if (oldRank == newRank) {
+            return;
+        }
+        Node node = removeNodeAt(oldRank);
+        insertNode(newRank, node);
+    }
+
+    /**
+     * Member ids holding ranks {@code fromRank..toRank} inclusive, in rank order.
+     */
+    public List<Long> membersBetween(int fromRank, int toRank) {
+        List<Long> result = new ArrayList<>(Math.max(0, toRank - fromRank + 1));
+        collect(root, 1, fromRank, toRank, result);
+        return result;
+    }
+
+    public List<Long> memberIds() {
+        return membersBetween(1, size());
+    }
+
+    private Node nodeAt(int rank) {
+        checkRank(rank, size());
+        Node node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (rank <= leftSize) {
+                node = node.left;
+            } else if (rank == leftSize + 1) {
+                return node;
+            } else {
+                rank -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    private void insertNode(int rank, Node node) {
+        node.left = null;
+        node.right = null;
+        node.parent = null;
+        node.size = 1;
+        Node[] parts = split(root, rank - 1);
+        root = merge(merge(parts[0], node), parts[1]);
+        root.parent = null;
+    }
+
+    private Node removeNodeAt(int rank) {
+        Node[] head = split(root, rank - 1);
+        Node[] tail = split(head[1], 1);
+        root = merge(head[0], tail[1]);
+        if (root != null) {
+            root.parent = null;
+        }
+        return tail[0];
+    }
+
+    // Splits the tree into its first {@code count} entries and the rest.
+    private Node[] split(Node node, int count) {
+        if (node == null) {
+            return new Node[] {null, null};
+        }
+        if (size(node.left) >= count) {
+            Node[] parts = split(node.left, count);
+            node.left = parts[1];
+            pull(node);
+            if (parts[0] != null) {
+                parts[0].parent = null;
+            }
+            return new Node[] {parts[0], node};
+        }
+        Node[] parts = split(node.right, count - size(node.left) - 1);
+        node.right = parts[0];
+        pull(node);
+        if (parts[1] != null) {
+            parts[1].parent = null;
+        }
+        return new Node[] {node, parts[1]};
+    }
+
+    private Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            pull(left);
+            return left;
+        }
+        right.left = merge(left, right.left);
+        pull(right);
+        return right;
+    }
+
+    private void pull(Node node) {
+        node.size = 1 + size(node.left) + size(node.right);
+        if (node.left != null) {
+            node.left.parent = node;
+        }
+        if (node.right != null) {
+            node.right.parent = node;
+        }
+    }
+
+    private void collect(Node node, int offset, int fromRank, int toRank, List<Long> result) {
+        if (node == null) {
+            return;
+        }
+        int rank = offset + size(node.left);
+        if (fromRank < rank) {
+            collect(node.left, offset, fromRank, toRank, result);
+        }
+        if (rank >= fromRank && rank <= toRank) {
+            result.add(node.memberId);
+        }
+        if (toRank > rank) {
+            collect(node.right, rank + 1, fromRank, toRank, result);
+        }
+    }
+
+    // Linear-time Cartesian tree construction over random priorities.
+    private void build(List<Long> memberIds, long[] positions) {
+        Deque<Node> spine = new ArrayDeque<>();
+        int i = 0;
+        for (Long memberId : memberIds) {
+            Node node = new Node(memberId, positions[i++], random.nextInt());
+            if (nodes.put(memberId, node) != null) {
+                throw new IllegalArgumentException("Member " + memberId + " appears twice on the ladder");
+            }
+            Node last = null;
+            while (!spine.isEmpty() && spine.peek().priority < node.priority) {
+                last = spine.pop();
+            }
+            node.left = last;
+            if (!spine.isEmpty()) {
+                spine.peek().right = node;
+            }
+            spine.push(node);
+        }
+        while (!spine.isEmpty()) {
+            root = spine.pop();
+        }
+        if (root != null) {
+            fixUp(root);
+            root.parent = null;
+        }
+    }
+
+    private void fixUp(Node node) {
+        // Post-order without recursion; the built tree is balanced only in expectation.
+        Deque<Node> stack = new ArrayDeque<>();
+        Deque<Node> order = new ArrayDeque<>();
+        stack.push(node);
+        while (!stack.isEmpty()) {
+            Node current = stack.pop();
+            order.push(current);
+            if (current.left != null) {
+                stack.push(current.left);
+            }
+            if (current.right != null) {
+                stack.push(current.right);
+            }
+        }
+        while (!order.isEmpty()) {
+            pull(order.pop());
+        }
+    }
+
+    private static void checkRank(int rank, int max) {
+        if (rank < 1 || rank > max) {
+            throw new IllegalArgumentException("Rank " + rank + " is outside 1.." + max);
+        }
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+}
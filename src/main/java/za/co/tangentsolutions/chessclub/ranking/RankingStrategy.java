@@ -0,0 +1,24 @@
+package za.co.tangentsolutions.chessclub.ranking;
+
+import za.co.tangentsolutions.chessclub.models.Member;
+
+import java.util.Set;
+
+/**
+ * Applies one match result to the players. Every strategy bean runs for every recorded match, on
+ * the ladder writer and with both players' ranks already taken from the ladder: the position
+ * ladder always, plus the rating engine selected by {@code chessclub.ranking.rating-engine}.
+ */
+public interface RankingStrategy {
+
+    /**
+     * Updates the two players in place and returns the ids of any other members whose stored row
+     * now needs rewriting.
+     */
+    Set<Long> apply(Member player1, Member player2, int player1Score, int player2Score);
+
+    // Result from player 1's side on the usual rating scale: 1 win, 0.5 draw, 0 loss
+    static double score(int player1Score, int player2Score) {
+        return player1Score > player2Score ? 1.0 : player1Score == player2Score ? 0.5 : 0.0;
+    }
+}
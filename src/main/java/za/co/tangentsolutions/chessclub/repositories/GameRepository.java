@@ -1,22 +1,101 @@
 package za.co.tangentsolutions.chessclub.repositories;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import za.co.tangentsolutions.chessclub.models.Game;
+import za.co.tangentsolutions.chessclub.models.GameCursor;
+import za.co.tangentsolutions.chessclub.models.GameExportRow;
+import za.co.tangentsolutions.chessclub.models.GameRatingRow;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface GameRepository extends JpaRepository<Game, Long> {
     @Query("SELECT g FROM Game g JOIN FETCH g.player1 JOIN FETCH g.player2 WHERE g.player1.id = :player1Id OR g.player2.id = :player2Id ORDER BY g.playedAt DESC")
     List<Game> findByPlayer1IdOrPlayer2IdOrderByPlayedAtDesc(@Param("player1Id") Long player1Id, @Param("player2Id") Long player2Id);
     
-    @Query("SELECT g FROM Game g JOIN FETCH g.player1 JOIN FETCH g.player2 WHERE g.player1.id = :playerId OR g.player2.id = :playerId ORDER BY g.playedAt DESC")
+    // One index lookup per seat rather than an OR across two columns, which H2 can only answer with a scan
+    @Query("SELECT g FROM Game g JOIN FETCH g.player1 JOIN FETCH g.player2 WHERE g.id IN (" +
+           "SELECT g1.id FROM Game g1 WHERE g1.player1.id = :playerId UNION ALL " +
+           "SELECT g2.id FROM Game g2 WHERE g2.player2.id = :playerId) ORDER BY g.playedAt DESC")
     List<Game> findMatchesByPlayerId(@Param("playerId") Long playerId);
 
     @Query("SELECT g FROM Game g JOIN FETCH g.player1 JOIN FETCH g.player2 ORDER BY g.playedAt DESC")
     List<Game> findAllByOrderByPlayedAtDesc();
-}
 
+    // Keyset pages of the match history, newest first; id breaks ties between games played at the same instant
+    @Query("SELECT g FROM Game g JOIN FETCH g.player1 JOIN FETCH g.player2 ORDER BY g.playedAt DESC, g.id DESC")
+    List<Game> findLatest(Pageable limit);
+
+    @Query("SELECT g FROM Game g JOIN FETCH g.player1 JOIN FETCH g.player2 " +
+           "WHERE g.playedAt < :playedAt OR (g.playedAt = :playedAt AND g.id < :id) " +
+           "ORDER BY g.playedAt DESC, g.id DESC")
+    List<Game> findPlayedBefore(@Param("playedAt") LocalDateTime playedAt, @Param("id") Long id, Pageable limit);
+
+    // Games between one pair of members, newest first, from the normalized pair index
+    @Query("SELECT g FROM Game g JOIN FETCH g.player1 JOIN FETCH g.player2 " +
+           "WHERE g.playerLowId = :playerLowId AND g.playerHighId = :playerHighId " +
+           "ORDER BY g.playedAt DESC, g.id DESC")
+    List<Game> findBetween(@Param("playerLowId") Long playerLowId, @Param("playerHighId") Long playerHighId,
+                           Pageable limit);
+
+    // Forward-only and entity-free so nothing accumulates in the persistence context; must be consumed in a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new za.co.tangentsolutions.chessclub.models.GameExportRow(g.id, g.playedAt, " +
+           "p1.id, p1.name, p1.surname, g.player1Score, g.player1RankBefore, g.player1RankAfter, " +
+           "p2.id, p2.name, p2.surname, g.player2Score, g.player2RankBefore, g.player2RankAfter) " +
+           "FROM Game g JOIN g.player1 p1 JOIN g.player2 p2 ORDER BY g.playedAt ASC, g.id ASC")
+    Stream<GameExportRow> streamExportRows();
+
+    // Offset pages of a filtered history for lazy grids; the order comes from the Pageable
+    @Query("SELECT g FROM Game g JOIN FETCH g.player1 p1 JOIN FETCH g.player2 p2 " + HISTORY_FILTER)
+    List<Game> findHistory(@Param("playerId") Long playerId, @Param("name") String name,
+                           @Param("from") LocalDateTime from, @Param("to") LocalDateTime to, Pageable page);
+
+    @Query("SELECT COUNT(g) FROM Game g JOIN g.player1 p1 JOIN g.player2 p2 " + HISTORY_FILTER)
+    long countHistory(@Param("playerId") Long playerId, @Param("name") String name,
+                      @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    String HISTORY_FILTER = "WHERE (:playerId IS NULL OR p1.id = :playerId OR p2.id = :playerId) " +
+           "AND (:from IS NULL OR g.playedAt >= :from) AND (:to IS NULL OR g.playedAt < :to) " +
+           "AND (:name IS NULL OR LOWER(CONCAT(p1.name, ' ', p1.surname)) LIKE :name " +
+           "OR LOWER(CONCAT(p2.name, ' ', p2.surname)) LIKE :name)";
+
+    Optional<Game> findByIdempotencyKey(String idempotencyKey);
+
+    /*
+     * Re-rating reads the history up to the last game in (playedAt, id) order and then catches up on
+     * the games after it. Pooled ids are handed out in blocks per node, so id order alone is not the
+     * order games were recorded in.
+     */
+    @Query("SELECT new za.co.tangentsolutions.chessclub.models.GameCursor(g.playedAt, g.id) " +
+           "FROM Game g ORDER BY g.playedAt DESC, g.id DESC")
+    List<GameCursor> findLastPlayed(Pageable limit);
+
+    @Query("SELECT COUNT(g) FROM Game g WHERE " + PLAYED_UP_TO)
+    long countPlayedUpTo(@Param("playedAt") LocalDateTime playedAt, @Param("id") Long id);
+
+    // Same cursor rules as the export
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new za.co.tangentsolutions.chessclub.models.GameRatingRow(g.id, g.playedAt, " +
+           "g.player1.id, g.player2.id, g.player1Score, g.player2Score) " +
+           "FROM Game g WHERE " + PLAYED_UP_TO + " ORDER BY g.playedAt ASC, g.id ASC")
+    Stream<GameRatingRow> streamRatingRowsUpTo(@Param("playedAt") LocalDateTime playedAt, @Param("id") Long id);
+
+    @Query("SELECT new za.co.tangentsolutions.chessclub.models.GameRatingRow(g.id, g.playedAt, " +
+           "g.player1.id, g.player2.id, g.player1Score, g.player2Score) " +
+           "FROM Game g WHERE NOT (" + PLAYED_UP_TO + ") ORDER BY g.playedAt ASC, g.id ASC")
+    Stream<GameRatingRow> streamRatingRowsAfter(@Param("playedAt") LocalDateTime playedAt, @Param("id") Long id);
+
+    // A null cursor comes before every game
+    String PLAYED_UP_TO = "(:playedAt IS NOT NULL AND (g.playedAt < :playedAt OR (g.playedAt = :playedAt AND g.id <= :id)))";
+}
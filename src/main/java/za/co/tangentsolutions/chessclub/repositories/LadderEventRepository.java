@@ -0,0 +1,13 @@
+package za.co.tangentsolutions.chessclub.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import za.co.tangentsolutions.chessclub.models.LadderEvent;
+
+@Repository
+public interface LadderEventRepository extends JpaRepository<LadderEvent, Long> {
+
+    @Query("SELECT COALESCE(MAX(e.id), 0) FROM LadderEvent e")
+    long findLastId();
+}
@@ -0,0 +1,15 @@
+package za.co.tangentsolutions.chessclub.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import za.co.tangentsolutions.chessclub.models.LadderSnapshot;
+
+import java.util.Optional;
+
+@Repository
+public interface LadderSnapshotRepository extends JpaRepository<LadderSnapshot, Long> {
+
+    Optional<LadderSnapshot> findFirstByOrderByLastEventIdDesc();
+
+    Optional<LadderSnapshot> findFirstByOrderByLastEventIdAsc();
+}
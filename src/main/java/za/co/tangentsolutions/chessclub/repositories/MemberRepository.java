@@ -1,5 +1,6 @@
 package za.co.tangentsolutions.chessclub.repositories;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -14,17 +15,37 @@ import java.util.Optional;
 public interface MemberRepository extends JpaRepository<Member, Long> {
     Optional<Member> findByEmail(String email);
     List<Member> findAllByOrderByRankAsc();
+
+    @Query("SELECT m.id FROM Member m ORDER BY m.rank ASC")
+    List<Long> findIdsOrderByRankAsc();
+
+    List<Member> findAllByOrderByPositionAsc();
+
+    // Keyset pages of the leaderboard; pass a Pageable for the page size only
+    @Query("SELECT m FROM Member m WHERE m.rank > :afterRank ORDER BY m.rank ASC")
+    List<Member> findRankedAfter(@Param("afterRank") int afterRank, Pageable limit);
+
+    @Query("SELECT m.id AS id, m.position AS position FROM Member m ORDER BY m.position ASC, m.rank ASC")
+    List<LadderSlot> findLadderSlotsOrderByPositionAsc();
     
     @Query("SELECT MAX(m.rank) FROM Member m")
     Integer findMaxRank();
     
     @Modifying
     @Query("UPDATE Member m SET m.rank = m.rank + 1 WHERE m.rank >= :startRank AND m.rank < :endRank")
-    void incrementRanks(@Param("startRank") int startRank, @Param("endRank") int endRank);
+    int incrementRanks(@Param("startRank") int startRank, @Param("endRank") int endRank);
     
     @Modifying
     @Query("UPDATE Member m SET m.rank = m.rank - 1 WHERE m.rank > :startRank AND m.rank <= :endRank")
-    void decrementRanks(@Param("startRank") int startRank, @Param("endRank") int endRank);
+    int decrementRanks(@Param("startRank") int startRank, @Param("endRank") int endRank);
 
     boolean existsByEmail(String email);
+
+    @Query("SELECT m.email FROM Member m")
+    List<String> findAllEmails();
+
+    interface LadderSlot {
+        Long getId();
+        long getPosition();
+    }
 }
\ No newline at end of file
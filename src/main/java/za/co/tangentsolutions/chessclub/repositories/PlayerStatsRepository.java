@@ -0,0 +1,9 @@
+package za.co.tangentsolutions.chessclub.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import za.co.tangentsolutions.chessclub.models.PlayerStats;
+
+@Repository
+public interface PlayerStatsRepository extends JpaRepository<PlayerStats, Long> {
+}
@@ -0,0 +1,200 @@
+package za.co.tangentsolutions.chessclub.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import za.co.tangentsolutions.chessclub.config.ReplicaLagMonitor;
+import za.co.tangentsolutions.chessclub.models.Game;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters for the ladder pipeline, all named {@code chessclub.*}. Timers take the {@link System#nanoTime()}
+ * the measured work started at. Percentile histograms are switched on in application.yml.
+ */
+@Component
+public class ClubMetrics {
+
+    public static final String DRAW = "draw";
+    public static final String UPSET = "upset";
+    public static final String FAVORITE_WIN = "favorite_win";
+
+    private static final List<String> OUTCOMES = List.of(DRAW, UPSET, FAVORITE_WIN);
+
+    private final MeterRegistry registry;
+    private final Map<String, Timer> matchTimers = new HashMap<>();
+    private final Map<String, Counter> matchCounters = new HashMap<>();
+    // Keyed by the operation or target tag; callers pass a handful of constant names
+    private final Map<String, DistributionSummary> rowsWritten = new ConcurrentHashMap<>();
+    private final Map<String, Timer> memberChanges = new ConcurrentHashMap<>();
+    private final Map<String, Counter> replicaReads = new ConcurrentHashMap<>();
+    private final Timer batchTimer;
+    private final DistributionSummary shiftUp;
+    private final DistributionSummary shiftDown;
+    private final Timer leaderboardRead;
+    private final Timer leaderboardNotModified;
+    private final Timer leaderboardBuiltFull;
+    private final Timer leaderboardBuiltPatch;
+    private final Timer emailCheckIndexed;
+    private final Timer emailCheckQueried;
+
+    @Autowired
+    public ClubMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        for (String outcome : OUTCOMES) {
+            matchTimers.put(outcome, Timer.builder("chessclub.matches.record")
+                    .description("Recording a single match, including the wait for the ladder writer")
+                    .tag("outcome", outcome)
+                    .register(registry));
+            matchCounters.put(outcome, Counter.builder("chessclub.matches.recorded")
+                    .description("Matches applied to the ladder, singly or in a batch")
+                    .tag("outcome", outcome)
+                    .register(registry));
+        }
+        batchTimer = Timer.builder("chessclub.matches.record.batch")
+                .description("Recording a batch of matches")
+                .register(registry);
+        shiftUp = rankShift("up");
+        shiftDown = rankShift("down");
+        leaderboardRead = leaderboardRead("ok");
+        leaderboardNotModified = leaderboardRead("not_modified");
+        leaderboardBuiltFull = leaderboardBuild("full");
+        leaderboardBuiltPatch = leaderboardBuild("patch");
+        emailCheckIndexed = emailCheck("index");
+        emailCheckQueried = emailCheck("database");
+    }
+
+    public static String outcome(Game game) {
+        if (game.isDraw()) {
+            return DRAW;
+        }
+        boolean player1Won = game.getPlayer1Score() > game.getPlayer2Score();
+        int winnerRank = player1Won ? game.getPlayer1RankBefore() : game.getPlayer2RankBefore();
+        int loserRank = player1Won ? game.getPlayer2RankBefore() : game.getPlayer1RankBefore();
+        return winnerRank > loserRank ? UPSET : FAVORITE_WIN;
+    }
+
+    public void matchRecorded(Game game, long startNanos) {
+        matchTimers.get(outcome(game)).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void matchApplied(Game game) {
+        matchCounters.get(outcome(game)).increment();
+    }
+
+    public void batchRecorded(long startNanos) {
+        batchTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void rankShifted(int fromRank, int toRank) {
+        if (toRank < fromRank) {
+            shiftUp.record(fromRank - toRank);
+        } else if (toRank > fromRank) {
+            shiftDown.record(toRank - fromRank);
+        }
+    }
+
+    // Member rows written by one ladder operation: move, remove or renumber
+    public void rowsWritten(String operation, int rows) {
+        rowsWritten.computeIfAbsent(operation, o -> DistributionSummary.builder("chessclub.ladder.rows.written")
+                .description("Member rows rewritten by a single ladder operation")
+                .baseUnit("rows")
+                .tag("operation", o)
+                .register(registry))
+                .record(rows);
+    }
+
+    public void memberChanged(String operation, long startNanos) {
+        memberChanges.computeIfAbsent(operation, o -> Timer.builder("chessclub.members.change")
+                .description("Enrolling, updating or removing a member, including the wait for the ladder writer")
+                .tag("operation", o)
+                .register(registry))
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void leaderboardRead(boolean notModified, long startNanos) {
+        (notModified ? leaderboardNotModified : leaderboardRead).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void leaderboardBuilt(boolean full, long startNanos) {
+        (full ? leaderboardBuiltFull : leaderboardBuiltPatch).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    // indexed when the in-memory email index answered, otherwise the members table was queried
+    public void emailChecked(boolean indexed, long startNanos) {
+        (indexed ? emailCheckIndexed : emailCheckQueried).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    // Progress of the running, or last, bulk rating recalculation
+    public void trackRatingRecalculation(RatingRecalculationService job) {
+        Gauge.builder("chessclub.ratings.recalculation.games", job, j -> j.progress().gamesProcessed())
+                .description("Games folded in by the current or last rating recalculation")
+                .baseUnit("games")
+                .register(registry);
+        Gauge.builder("chessclub.ratings.recalculation.throughput", job, j -> j.progress().gamesPerSecond())
+                .description("Games per second of the current or last rating recalculation")
+                .baseUnit("games/s")
+                .register(registry);
+    }
+
+    // Lag of the read replica, NaN until it has answered a check
+    public void trackReplica(ReplicaLagMonitor monitor) {
+        Gauge.builder("chessclub.datasource.replica.lag", monitor, ReplicaLagMonitor::lagSeconds)
+                .description("How far the read replica trails the primary")
+                .baseUnit("seconds")
+                .register(registry);
+    }
+
+    // Read-only connections by where they went: the replica, or the primary when it was stale or down
+    public void replicaRead(String target) {
+        replicaReads.computeIfAbsent(target, t -> Counter.builder("chessclub.datasource.reads")
+                .description("Connections handed to read-only transactions")
+                .tag("target", t)
+                .register(registry))
+                .increment();
+    }
+
+    public void ratingsRecalculated(long startNanos) {
+        Timer.builder("chessclub.ratings.recalculation")
+                .description("A whole bulk rating recalculation, from streaming the history to the final write")
+                .register(registry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private DistributionSummary rankShift(String direction) {
+        return DistributionSummary.builder("chessclub.ladder.rank.shift")
+                .description("Places a member moved on the ladder")
+                .baseUnit("places")
+                .tag("direction", direction)
+                .register(registry);
+    }
+
+    private Timer leaderboardRead(String result) {
+        return Timer.builder("chessclub.leaderboard.read")
+                .description("Serving the leaderboard from its snapshot")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private Timer leaderboardBuild(String kind) {
+        return Timer.builder("chessclub.leaderboard.build")
+                .description("Building a leaderboard snapshot after a commit")
+                .tag("kind", kind)
+                .register(registry);
+    }
+
+    private Timer emailCheck(String source) {
+        return Timer.builder("chessclub.members.email.check")
+                .description("Email uniqueness lookup during validation")
+                .tag("source", source)
+                .register(registry);
+    }
+}
@@ -0,0 +1,138 @@
+package za.co.tangentsolutions.chessclub.services;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import za.co.tangentsolutions.chessclub.repositories.MemberRepository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of the registered member emails, so uniqueness checks need not query the
+ * members table. A Bloom filter answers most "not registered" checks outright; anything it might
+ * contain is confirmed against the exact set. The unique constraint on members.email remains the
+ * final guard against two concurrent registrations of the same address.
+ *
+ * The index is loaded on the ladder writer, which also runs every member change, and changes are
+ * applied once their transaction commits, so it only ever reflects committed members. Until it has
+ * been loaded, {@link #isReady()} is false and callers should ask the database.
+ */
+@Service
+public class EmailIndex {
+
+    private final MemberRepository memberRepository;
+    private final LadderWriter ladderWriter;
+    private final int expectedMembers;
+    private final double falsePositiveRate;
+    private final Set<String> emails = ConcurrentHashMap.newKeySet();
+    private volatile BloomFilter filter;
+    private volatile boolean ready;
+    // Removed emails stay set in the filter until it is rebuilt; only touched on the writer
+    private int removedSinceRebuild;
+
+    private static final Logger logger = LogManager.getLogger(EmailIndex.class);
+
+    @Autowired
+    public EmailIndex(MemberRepository memberRepository, LadderWriter ladderWriter,
+                      @Value("${chessclub.members.email-index.expected-members:100000}") int expectedMembers,
+                      @Value("${chessclub.members.email-index.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.memberRepository = memberRepository;
+        this.ladderWriter = ladderWriter;
+        this.expectedMembers = expectedMembers;
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        ladderWriter.run(() -> {
+            long start = System.nanoTime();
+            emails.clear();
+            emails.addAll(memberRepository.findAllEmails());
+            rebuild();
+            ready = true;
+            logger.info("Indexed {} member emails in {} ms", emails.size(), (System.nanoTime() - start) / 1_000_000);
+        });
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Whether a committed member has this email; only meaningful once the index is ready
+    public boolean contains(String email) {
+        BloomFilter current = filter;
+        return current != null && current.mightContain(email) && emails.contains(email);
+    }
+
+    public void added(String email) {
+        afterCommit(() -> add(email));
+    }
+
+    public void addedAll(Collection<String> addedEmails) {
+        List<String> copy = List.copyOf(addedEmails);
+        afterCommit(() -> copy.forEach(this::add));
+    }
+
+    public void removed(String email) {
+        afterCommit(() -> remove(email));
+    }
+
+    public void changed(String oldEmail, String newEmail) {
+        if (oldEmail != null && !oldEmail.equals(newEmail)) {
+            afterCommit(() -> {
+                remove(oldEmail);
+                add(newEmail);
+            });
+        }
+    }
+
+    private void add(String email) {
+        if (email == null || filter == null) {
+            return;
+        }
+        emails.add(email);
+        filter.add(email);
+        if (emails.size() > filter.capacity()) {
+            rebuild();
+        }
+    }
+
+    private void remove(String email) {
+        if (email == null || filter == null) {
+            return;
+        }
+        emails.remove(email);
+        if (++removedSinceRebuild > filter.capacity() / 2) {
+            rebuild();
+        }
+    }
+
+    private void rebuild() {
+        BloomFilter next = new BloomFilter(Math.max(expectedMembers, emails.size() * 2), falsePositiveRate);
+        emails.forEach(next::add);
+        filter = next;
+        removedSinceRebuild = 0;
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package za.co.tangentsolutions.chessclub.services;
+
+/**
+ * An Idempotency-Key that is already recorded, or queued, for a different match.
+ */
+public class IdempotencyConflictException extends RuntimeException {
+
+    public IdempotencyConflictException() {
+        super("Idempotency-Key was already used for a different match");
+    }
+}
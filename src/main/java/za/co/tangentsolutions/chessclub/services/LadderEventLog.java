@@ -0,0 +1,84 @@
+package za.co.tangentsolutions.chessclub.services;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import za.co.tangentsolutions.chessclub.models.Game;
+import za.co.tangentsolutions.chessclub.models.LadderEvent;
+import za.co.tangentsolutions.chessclub.models.LadderSnapshot;
+import za.co.tangentsolutions.chessclub.repositories.LadderEventRepository;
+import za.co.tangentsolutions.chessclub.repositories.LadderSnapshotRepository;
+
+import java.util.List;
+
+/**
+ * Appends every ladder change to the event log, in the same writer transaction as the change
+ * itself, and snapshots the ladder order every {@code snapshot-interval} events so a replay only
+ * has to run the tail of the log. Must be called after the change has been applied to the ladder.
+ */
+@Service
+public class LadderEventLog {
+
+    private final LadderEventRepository eventRepository;
+    private final LadderSnapshotRepository snapshotRepository;
+    private final LadderService ladderService;
+    private final long snapshotInterval;
+
+    private static final Logger logger = LogManager.getLogger(LadderEventLog.class);
+
+    @Autowired
+    public LadderEventLog(LadderEventRepository eventRepository, LadderSnapshotRepository snapshotRepository,
+                          LadderService ladderService,
+                          @Value("${chessclub.ladder.events.snapshot-interval:10000}") long snapshotInterval) {
+        this.eventRepository = eventRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.ladderService = ladderService;
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    public void memberJoined(Long memberId) {
+        append(List.of(LadderEvent.joined(memberId)));
+    }
+
+    public void membersJoined(List<Long> memberIds) {
+        if (!memberIds.isEmpty()) {
+            append(memberIds.stream().map(LadderEvent::joined).toList());
+        }
+    }
+
+    public void memberLeft(Long memberId) {
+        append(List.of(LadderEvent.left(memberId)));
+    }
+
+    public void matchesRecorded(List<Game> games) {
+        if (!games.isEmpty()) {
+            append(games.stream().map(LadderEvent::match).toList());
+        }
+    }
+
+    /**
+     * Takes the first snapshot if there is none yet, so a log started on an existing ladder has a
+     * starting point to replay from. Must run on the ladder writer.
+     */
+    public void snapshotIfNone() {
+        if (snapshotRepository.count() == 0) {
+            snapshot(eventRepository.findLastId());
+        }
+    }
+
+    private void append(List<LadderEvent> events) {
+        List<LadderEvent> saved = eventRepository.saveAll(events);
+        long firstId = saved.get(0).getId();
+        long lastId = saved.get(saved.size() - 1).getId();
+        if ((firstId - 1) / snapshotInterval != lastId / snapshotInterval) {
+            snapshot(lastId);
+        }
+    }
+
+    private void snapshot(long lastEventId) {
+        LadderSnapshot snapshot = snapshotRepository.save(new LadderSnapshot(lastEventId, ladderService.memberIds()));
+        logger.info("Snapshotted {} ladder members at event {}", snapshot.getMemberCount(), lastEventId);
+    }
+}
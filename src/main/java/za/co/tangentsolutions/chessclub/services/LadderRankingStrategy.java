@@ -0,0 +1,39 @@
+package za.co.tangentsolutions.chessclub.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import za.co.tangentsolutions.chessclub.models.Member;
+import za.co.tangentsolutions.chessclub.ranking.LadderRule;
+import za.co.tangentsolutions.chessclub.ranking.RankingStrategy;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The default strategy: moves players on the position ladder as the {@link LadderRule} says and
+ * reports everyone the moves shifted.
+ */
+@Component
+@Order(0)
+public class LadderRankingStrategy implements RankingStrategy {
+
+    private final LadderService ladderService;
+    private final LadderRule ladderRule;
+
+    @Autowired
+    public LadderRankingStrategy(LadderService ladderService, LadderRule ladderRule) {
+        this.ladderService = ladderService;
+        this.ladderRule = ladderRule;
+    }
+
+    @Override
+    public Set<Long> apply(Member player1, Member player2, int player1Score, int player2Score) {
+        Set<Long> moved = new HashSet<>();
+        for (LadderRule.Move move : ladderRule.movesFor(player1.getRank(), player2.getRank(), player1Score, player2Score)) {
+            Member mover = move.player() == 1 ? player1 : player2;
+            moved.addAll(ladderService.move(mover.getId(), move.toRank()));
+        }
+        return moved;
+    }
+}
@@ -0,0 +1,167 @@
+package za.co.tangentsolutions.chessclub.services;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import za.co.tangentsolutions.chessclub.models.LadderEvent;
+import za.co.tangentsolutions.chessclub.models.LadderSnapshot;
+import za.co.tangentsolutions.chessclub.ranking.LadderRule;
+import za.co.tangentsolutions.chessclub.ranking.RankLadder;
+import za.co.tangentsolutions.chessclub.repositories.LadderSnapshotRepository;
+
+import java.sql.PreparedStatement;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Rebuilds the ladder order from the event log: the latest snapshot plus the events after it for
+ * recovery, or the whole logged history from the first snapshot under any {@link LadderRule} to
+ * see how the ladder would have turned out under different rules.
+ *
+ * Replays only touch the in-memory ladder, so their cost is one streamed read of the log tail.
+ */
+@Service
+public class LadderReplayService {
+
+    private static final int FETCH_SIZE = 10_000;
+
+    private final LadderSnapshotRepository snapshotRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final LadderRule ladderRule;
+    private final LadderService ladderService;
+    private final LadderEventLog ladderEventLog;
+    private final LadderWriter ladderWriter;
+    private final boolean recoverOnStartup;
+
+    private static final Logger logger = LogManager.getLogger(LadderReplayService.class);
+
+    @Autowired
+    public LadderReplayService(LadderSnapshotRepository snapshotRepository, JdbcTemplate jdbcTemplate,
+                               LadderRule ladderRule, LadderService ladderService, LadderEventLog ladderEventLog,
+                               LadderWriter ladderWriter,
+                               @Value("${chessclub.ladder.events.recover-on-startup:false}") boolean recoverOnStartup) {
+        this.snapshotRepository = snapshotRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.ladderRule = ladderRule;
+        this.ladderService = ladderService;
+        this.ladderEventLog = ladderEventLog;
+        this.ladderWriter = ladderWriter;
+        this.recoverOnStartup = recoverOnStartup;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        ladderWriter.run(ladderEventLog::snapshotIfNone);
+        if (recoverOnStartup) {
+            recover();
+        }
+    }
+
+    // The ladder as the log says it stands now
+    public RankLadder replay() {
+        LadderSnapshot latest = snapshotRepository.findFirstByOrderByLastEventIdDesc()
+            .orElseThrow(() -> new IllegalStateException("The ladder event log has no snapshot yet"));
+        return replay(latest, ladderRule);
+    }
+
+    // The ladder every logged result would have produced under the given rule
+    public RankLadder replayHistory(LadderRule rule) {
+        LadderSnapshot first = snapshotRepository.findFirstByOrderByLastEventIdAsc()
+            .orElseThrow(() -> new IllegalStateException("The ladder event log has no snapshot yet"));
+        return replay(first, rule);
+    }
+
+    /**
+     * Rebuilds the ladder from the log and, where the stored ranks disagree, rewrites them to match.
+     * Members stored but never logged keep their relative order at the bottom. Returns the number
+     * of ranks that were wrong.
+     */
+    public int recover() {
+        return ladderWriter.execute(() -> {
+            long start = System.nanoTime();
+            RankLadder rebuilt = replay();
+            // Reload from the table, which is what is being checked
+            ladderService.invalidate();
+            List<Long> stored = ladderService.memberIds();
+
+            Set<Long> storedIds = new HashSet<>(stored);
+            for (Long memberId : rebuilt.memberIds()) {
+                if (!storedIds.contains(memberId)) {
+                    rebuilt.remove(memberId);
+                }
+            }
+            for (Long memberId : stored) {
+                if (!rebuilt.contains(memberId)) {
+                    rebuilt.append(memberId, 0);
+                }
+            }
+
+            List<Long> expected = rebuilt.memberIds();
+            int misplaced = 0;
+            for (int i = 0; i < expected.size(); i++) {
+                if (!expected.get(i).equals(stored.get(i))) {
+                    misplaced++;
+                }
+            }
+            if (misplaced > 0) {
+                ladderService.restore(expected);
+                logger.warn("Recovered ladder from the event log: {} of {} ranks were wrong", misplaced, expected.size());
+            } else {
+                logger.info("Ladder matches the event log ({} members, checked in {} ms)", expected.size(),
+                        (System.nanoTime() - start) / 1_000_000);
+            }
+            return misplaced;
+        });
+    }
+
+    private RankLadder replay(LadderSnapshot from, LadderRule rule) {
+        RankLadder ladder = RankLadder.of(from.getMemberIds());
+        long[] applied = new long[1];
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "SELECT type, member_id, opponent_id, member_score, opponent_score FROM ladder_events "
+                    + "WHERE id > ? ORDER BY id");
+            statement.setFetchSize(FETCH_SIZE);
+            statement.setLong(1, from.getLastEventId());
+            return statement;
+        }, (RowCallbackHandler) row -> {
+            apply(ladder, rule, LadderEvent.Type.valueOf(row.getString(1)), row.getLong(2), row.getLong(3),
+                    row.getInt(4), row.getInt(5));
+            applied[0]++;
+        });
+        logger.info("Replayed {} ladder events on top of the snapshot at event {}", applied[0], from.getLastEventId());
+        return ladder;
+    }
+
+    private static void apply(RankLadder ladder, LadderRule rule, LadderEvent.Type type, long memberId,
+                              long opponentId, int memberScore, int opponentScore) {
+        switch (type) {
+            case JOINED -> {
+                if (!ladder.contains(memberId)) {
+                    ladder.append(memberId, 0);
+                }
+            }
+            case LEFT -> {
+                if (ladder.contains(memberId)) {
+                    ladder.remove(memberId);
+                }
+            }
+            case MATCH -> {
+                if (!ladder.contains(memberId) || !ladder.contains(opponentId)) {
+                    return;
+                }
+                for (LadderRule.Move move : rule.movesFor(ladder.rankOf(memberId), ladder.rankOf(opponentId),
+                        memberScore, opponentScore)) {
+                    ladder.move(move.player() == 1 ? memberId : opponentId, move.toRank());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package za.co.tangentsolutions.chessclub.services;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import za.co.tangentsolutions.chessclub.ranking.RankLadder;
+import za.co.tangentsolutions.chessclub.repositories.MemberRepository;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Holds the in-memory rank ladder, which is the authority for rank moves. The ladder is loaded
+ * lazily from the members table and dropped (to be reloaded) whenever a transaction that changed
+ * it rolls back.
+ *
+ * In {@link LadderStorageMode#GAPPED} mode a move only rewrites the mover's {@code ladder_position},
+ * placed halfway between its new neighbours. When a gap runs out the whole ladder is renumbered;
+ * gaps that are merely getting small are renumbered by the background rebalance instead.
+ *
+ * The ladder is the writer's working copy: a move shows up here as soon as it is made, before its
+ * transaction commits, and disappears again if it rolls back. Only code running on the
+ * {@link LadderWriter} should read it; everything else takes ranks from the committed
+ * {@link LeaderboardService} snapshot or the members table.
+ */
+@Service
+public class LadderService {
+
+    private final MemberRepository memberRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final LadderWriter ladderWriter;
+    private final ClubMetrics clubMetrics;
+    private final LadderStorageMode storageMode;
+    private final long positionGap;
+
+    private final Object rollbackGuard = new Object();
+
+    private RankLadder ladder;
+    private boolean rebalanceDue;
+
+    private static final Logger logger = LogManager.getLogger(LadderService.class);
+
+    @Autowired
+    public LadderService(MemberRepository memberRepository, JdbcTemplate jdbcTemplate, LadderWriter ladderWriter,
+                         ClubMetrics clubMetrics,
+                         @Value("${chessclub.ladder.storage-mode:dense}") LadderStorageMode storageMode,
+                         @Value("${chessclub.ladder.position-gap:1024}") long positionGap) {
+        this.memberRepository = memberRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.ladderWriter = ladderWriter;
+        this.clubMetrics = clubMetrics;
+        this.storageMode = storageMode;
+        this.positionGap = positionGap;
+    }
+
+    public LadderStorageMode getStorageMode() {
+        return storageMode;
+    }
+
+    public boolean isGapped() {
+        return storageMode == LadderStorageMode.GAPPED;
+    }
+
+    public synchronized int rankOf(Long memberId) {
+        return ladder().rankOf(memberId);
+    }
+
+    public synchronized long positionOf(Long memberId) {
+        return ladder().positionOf(memberId);
+    }
+
+    public synchronized int size() {
+        return ladder().size();
+    }
+
+    public synchronized List<Long> membersBetween(int fromRank, int toRank) {
+        return ladder().membersBetween(fromRank, toRank);
+    }
+
+    public synchronized long positionAt(int rank) {
+        return ladder().positionAt(rank);
+    }
+
+    // Every member id in rank order
+    public synchronized List<Long> memberIds() {
+        return ladder().memberIds();
+    }
+
+    /**
+     * Moves a member to {@code newRank} and returns the ids of members whose stored row has to be
+     * rewritten: everyone shifted by the move in dense mode, only the mover in gapped mode.
+     * Callers should take the rank and position of any member entity they hold from the ladder.
+     */
+    public synchronized Set<Long> move(Long memberId, int newRank) {
+        RankLadder current = ladder();
+        int oldRank = current.rankOf(memberId);
+        if (oldRank == newRank) {
+            return Set.of();
+        }
+        invalidateOnRollback();
+        current.move(memberId, newRank);
+        clubMetrics.rankShifted(oldRank, newRank);
+
+        if (storageMode == LadderStorageMode.DENSE) {
+            Set<Long> shifted = new HashSet<>(current.membersBetween(Math.min(oldRank, newRank), Math.max(oldRank, newRank)));
+            clubMetrics.rowsWritten("move", shifted.size());
+            return shifted;
+        }
+        if (!placeBetweenNeighbours(current, memberId, newRank)) {
+            // Written straight through; callers only need to keep entities they hold in step
+            renumber(current);
+        }
+        clubMetrics.rowsWritten("move", 1);
+        return Set.of(memberId);
+    }
+
+    // Position for a member joining at the bottom of the ladder
+    public synchronized long nextAppendPosition() {
+        RankLadder current = ladder();
+        if (storageMode == LadderStorageMode.DENSE) {
+            return current.size() + 1;
+        }
+        return current.size() == 0 ? positionGap : current.positionAt(current.size()) + positionGap;
+    }
+
+    // Positions for count members joining at the bottom together, in joining order
+    public synchronized long[] nextAppendPositions(int count) {
+        long first = nextAppendPosition();
+        long step = storageMode == LadderStorageMode.DENSE ? 1 : positionGap;
+        long[] positions = new long[count];
+        for (int i = 0; i < count; i++) {
+            positions[i] = first + i * step;
+        }
+        return positions;
+    }
+
+    public synchronized void append(Long memberId, long position) {
+        RankLadder current = ladder();
+        if (current.contains(memberId)) {
+            // Already picked up by a load that ran after the insert
+            return;
+        }
+        invalidateOnRollback();
+        current.append(memberId, position);
+    }
+
+    /**
+     * Takes a member off the ladder. Must run before the row is deleted. In dense mode everyone
+     * below closes the gap with one bulk update; in gapped mode no other row changes.
+     */
+    public synchronized void remove(Long memberId) {
+        RankLadder current = ladder();
+        int rank = current.rankOf(memberId);
+        invalidateOnRollback();
+        current.remove(memberId);
+        if (storageMode == LadderStorageMode.DENSE) {
+            clubMetrics.rowsWritten("remove", memberRepository.decrementRanks(rank, Integer.MAX_VALUE));
+        }
+    }
+
+    // Replaces the ladder with the given order and rewrites every stored rank and position to match
+    public synchronized void restore(List<Long> memberIdsInRankOrder) {
+        invalidateOnRollback();
+        ladder = RankLadder.of(memberIdsInRankOrder);
+        renumber(ladder);
+    }
+
+    public synchronized void invalidate() {
+        ladder = null;
+    }
+
+    // Runs on the ladder writer so a renumber never interleaves with a match being recorded
+    @Scheduled(fixedDelayString = "${chessclub.ladder.rebalance-interval:PT1M}")
+    public void rebalanceIfDue() {
+        if (storageMode != LadderStorageMode.GAPPED) {
+            return;
+        }
+        ladderWriter.run(this::renumberIfDue);
+    }
+
+    private synchronized void renumberIfDue() {
+        if (ladder == null || !rebalanceDue) {
+            return;
+        }
+        invalidateOnRollback();
+        renumber(ladder);
+    }
+
+    private boolean placeBetweenNeighbours(RankLadder current, Long memberId, int rank) {
+        boolean hasPrevious = rank > 1;
+        boolean hasNext = rank < current.size();
+        long position;
+        if (!hasPrevious && !hasNext) {
+            position = positionGap;
+        } else if (!hasPrevious) {
+            position = current.positionAt(rank + 1) - positionGap;
+        } else if (!hasNext) {
+            position = current.positionAt(rank - 1) + positionGap;
+        } else {
+            long previous = current.positionAt(rank - 1);
+            long next = current.positionAt(rank + 1);
+            if (next - previous < 2) {
+                return false;
+            }
+            position = previous + (next - previous) / 2;
+            // Schedule a renumber well before the gap is exhausted
+            if (Math.min(position - previous, next - position) < Math.max(2, positionGap / 64)) {
+                rebalanceDue = true;
+            }
+        }
+        current.setPosition(memberId, position);
+        return true;
+    }
+
+    // Spreads positions back out to rank * gap and refreshes the stored rank column on the way
+    private void renumber(RankLadder current) {
+        List<Long> memberIds = current.memberIds();
+        List<Object[]> rows = new ArrayList<>(memberIds.size());
+        for (int i = 0; i < memberIds.size(); i++) {
+            long position = (i + 1) * positionGap;
+            current.setPosition(memberIds.get(i), position);
+            rows.add(new Object[] {position, i + 1, memberIds.get(i)});
+        }
+        jdbcTemplate.batchUpdate("UPDATE members SET ladder_position = ?, rank = ? WHERE id = ?", rows);
+        rebalanceDue = false;
+        clubMetrics.rowsWritten("renumber", memberIds.size());
+        logger.info("Renumbered {} ladder positions", memberIds.size());
+    }
+
+    private RankLadder ladder() {
+        if (ladder == null) {
+            ladder = load();
+            logger.info("Loaded {} rank ladder with {} members", storageMode, ladder.size());
+        }
+        return ladder;
+    }
+
+    private RankLadder load() {
+        if (storageMode == LadderStorageMode.DENSE) {
+            return RankLadder.of(memberRepository.findIdsOrderByRankAsc());
+        }
+        List<MemberRepository.LadderSlot> slots = memberRepository.findLadderSlotsOrderByPositionAsc();
+        List<Long> memberIds = new ArrayList<>(slots.size());
+        long[] positions = new long[slots.size()];
+        for (int i = 0; i < slots.size(); i++) {
+            memberIds.add(slots.get(i).getId());
+            positions[i] = slots.get(i).getPosition();
+            if (i > 0 && positions[i] <= positions[i - 1]) {
+                // e.g. switching over from dense mode; moves renumber on demand until the rebalance runs
+                rebalanceDue = true;
+            }
+        }
+        return RankLadder.of(memberIds, positions);
+    }
+
+    // Once per transaction, however many moves it makes; the resource key marks it as registered
+    private void invalidateOnRollback() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(rollbackGuard)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(rollbackGuard, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(rollbackGuard);
+                if (status != STATUS_COMMITTED) {
+                    invalidate();
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,8 @@
+package za.co.tangentsolutions.chessclub.services;
+
+public enum LadderStorageMode {
+    // members.rank holds the dense 1..N rank; a move rewrites every member it shifts
+    DENSE,
+    // members.ladder_position holds a gapped sort key; ranks are derived from it at read time
+    GAPPED
+}
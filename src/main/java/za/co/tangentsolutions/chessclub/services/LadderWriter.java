@@ -0,0 +1,117 @@
+package za.co.tangentsolutions.chessclub.services;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Single writer for every ladder mutation. Work is queued onto one thread and each task runs in
+ * its own transaction, so reading ranks, moving members and committing never interleave between
+ * two callers. Readers are not routed through here.
+ *
+ * The queue is bounded; once it is full new work is refused with a
+ * {@link java.util.concurrent.RejectedExecutionException} instead of piling up.
+ */
+@Component
+public class LadderWriter {
+
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor executor;
+    private volatile Thread writerThread;
+
+    @Autowired
+    public LadderWriter(PlatformTransactionManager transactionManager,
+                        @Value("${chessclub.ladder.writer-queue-capacity:10000}") int queueCapacity,
+                        Environment environment) {
+        this(transactionManager, queueCapacity, Threading.VIRTUAL.isActive(environment));
+    }
+
+    public LadderWriter(PlatformTransactionManager transactionManager, int queueCapacity) {
+        this(transactionManager, queueCapacity, false);
+    }
+
+    /**
+     * On a virtual thread the writer releases its carrier while it waits on the database, and the
+     * callers parked in {@link #execute} cost no platform thread either.
+     */
+    public LadderWriter(PlatformTransactionManager transactionManager, int queueCapacity, boolean virtualThreads) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        ThreadFactory threads = virtualThreads
+                ? new VirtualThreadTaskExecutor("ladder-writer-").getVirtualThreadFactory()
+                : runnable -> {
+                    Thread thread = new Thread(runnable, "ladder-writer");
+                    thread.setDaemon(true);
+                    return thread;
+                };
+        this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = threads.newThread(runnable);
+                    writerThread = thread;
+                    return thread;
+                });
+    }
+
+    /**
+     * Runs {@code work} in a transaction on the writer thread and waits for its result. Calls made
+     * from the writer thread itself run inline, inside the transaction already open there.
+     */
+    public <T> T execute(Supplier<T> work) {
+        if (Thread.currentThread() == writerThread) {
+            return transactionTemplate.execute(status -> work.get());
+        }
+        return await(submit(work));
+    }
+
+    public void run(Runnable work) {
+        execute(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    // Queues work without waiting for it; the future completes once the transaction has committed
+    public <T> CompletableFuture<T> submit(Supplier<T> work) {
+        return CompletableFuture.supplyAsync(() -> transactionTemplate.execute(status -> work.get()), executor);
+    }
+
+    public int queuedTasks() {
+        return executor.getQueue().size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the ladder writer", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
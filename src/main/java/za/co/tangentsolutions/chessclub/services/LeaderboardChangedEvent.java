@@ -0,0 +1,14 @@
+package za.co.tangentsolutions.chessclub.services;
+
+import java.util.Set;
+
+/**
+ * Published inside a ladder or member transaction; memberIds are the members whose own details
+ * changed and gameId the match that caused the change (the last one of a batch), or null.
+ */
+public record LeaderboardChangedEvent(Set<Long> memberIds, Long gameId) {
+
+    public LeaderboardChangedEvent(Set<Long> memberIds) {
+        this(memberIds, null);
+    }
+}
@@ -0,0 +1,64 @@
+package za.co.tangentsolutions.chessclub.services;
+
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.stereotype.Component;
+import za.co.tangentsolutions.chessclub.models.LeaderboardUpdate;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Shared change feed for the leaderboard. {@link LeaderboardService} publishes one update per
+ * committed change and every subscriber gets that same update, so a screen open in many browsers
+ * costs one snapshot build per change rather than one reload per browser.
+ *
+ * Updates are handed out in order on a dispatch thread of their own, keeping slow subscribers off
+ * the ladder writer.
+ */
+@Component
+public class LeaderboardFeed {
+
+    private final List<Consumer<LeaderboardUpdate>> subscribers = new CopyOnWriteArrayList<>();
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "leaderboard-feed");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final Logger logger = LogManager.getLogger(LeaderboardFeed.class);
+
+    public interface Subscription {
+        void cancel();
+    }
+
+    public Subscription subscribe(Consumer<LeaderboardUpdate> subscriber) {
+        subscribers.add(subscriber);
+        return () -> subscribers.remove(subscriber);
+    }
+
+    public boolean hasSubscribers() {
+        return !subscribers.isEmpty();
+    }
+
+    void publish(LeaderboardUpdate update) {
+        dispatcher.execute(() -> {
+            for (Consumer<LeaderboardUpdate> subscriber : subscribers) {
+                try {
+                    subscriber.accept(update);
+                } catch (RuntimeException e) {
+                    logger.warn("Leaderboard subscriber failed on version {}: {}", update.version(), e.getMessage());
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdown();
+    }
+}
@@ -0,0 +1,135 @@
+package za.co.tangentsolutions.chessclub.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import za.co.tangentsolutions.chessclub.models.LeaderboardEntry;
+import za.co.tangentsolutions.chessclub.models.LeaderboardSnapshot;
+import za.co.tangentsolutions.chessclub.models.LeaderboardUpdate;
+import za.co.tangentsolutions.chessclub.models.Member;
+import za.co.tangentsolutions.chessclub.repositories.MemberRepository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Serves the leaderboard from an immutable snapshot instead of the members table. A new snapshot
+ * is published once a member or match change commits: entries of members whose details changed are
+ * reloaded, everyone else is carried over with the rank the ladder now gives them.
+ *
+ * Snapshots are only built on the ladder writer, after commit and before the next task starts, so
+ * the ladder order they are taken from is always the committed one. Each new snapshot is diffed
+ * against the previous one and the difference published on the {@link LeaderboardFeed}.
+ */
+@Service
+public class LeaderboardService {
+
+    private final MemberRepository memberRepository;
+    private final LadderService ladderService;
+    private final LadderWriter ladderWriter;
+    private final ObjectMapper objectMapper;
+    private final ClubMetrics clubMetrics;
+    private final LeaderboardFeed leaderboardFeed;
+    // Keeps ETags from one run from matching another run's snapshots
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private volatile LeaderboardSnapshot snapshot;
+    private long version;
+
+    private static final Logger logger = LogManager.getLogger(LeaderboardService.class);
+
+    @Autowired
+    public LeaderboardService(MemberRepository memberRepository, LadderService ladderService,
+                              LadderWriter ladderWriter, ObjectMapper objectMapper, ClubMetrics clubMetrics,
+                              LeaderboardFeed leaderboardFeed) {
+        this.memberRepository = memberRepository;
+        this.ladderService = ladderService;
+        this.ladderWriter = ladderWriter;
+        this.objectMapper = objectMapper;
+        this.clubMetrics = clubMetrics;
+        this.leaderboardFeed = leaderboardFeed;
+    }
+
+    public LeaderboardSnapshot current() {
+        LeaderboardSnapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        return ladderWriter.execute(() -> {
+            if (snapshot == null) {
+                snapshot = build(null, Set.of());
+            }
+            return snapshot;
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLeaderboardChanged(LeaderboardChangedEvent event) {
+        LeaderboardSnapshot previous = snapshot;
+        try {
+            LeaderboardSnapshot next = build(previous, event.memberIds());
+            snapshot = next;
+            if (previous != null && leaderboardFeed.hasSubscribers()) {
+                leaderboardFeed.publish(LeaderboardUpdate.between(previous, next, event.gameId()));
+            }
+        } catch (RuntimeException e) {
+            // The change itself has committed; rebuild from scratch on the next read
+            logger.warn("Failed to update leaderboard snapshot, it will be rebuilt: {}", e.getMessage());
+            snapshot = null;
+        }
+    }
+
+    private LeaderboardSnapshot build(LeaderboardSnapshot previous, Set<Long> changedMemberIds) {
+        long start = System.nanoTime();
+        List<Long> order = ladderService.memberIds();
+        Map<Long, Member> loaded = new HashMap<>();
+        if (previous == null) {
+            memberRepository.findAll().forEach(member -> loaded.put(member.getId(), member));
+        } else {
+            Set<Long> stale = new HashSet<>(changedMemberIds);
+            for (Long memberId : order) {
+                if (previous.getEntry(memberId).isEmpty()) {
+                    stale.add(memberId);
+                }
+            }
+            if (!stale.isEmpty()) {
+                memberRepository.findAllById(stale).forEach(member -> loaded.put(member.getId(), member));
+            }
+        }
+
+        List<LeaderboardEntry> entries = new ArrayList<>(order.size());
+        for (int i = 0; i < order.size(); i++) {
+            Long memberId = order.get(i);
+            Member member = loaded.get(memberId);
+            if (member != null) {
+                entries.add(LeaderboardEntry.of(member, i + 1));
+            } else if (previous != null && previous.getEntry(memberId).isPresent()) {
+                entries.add(previous.getEntry(memberId).get().withRank(i + 1));
+            } else {
+                throw new IllegalStateException("Member " + memberId + " is on the ladder but not stored");
+            }
+        }
+
+        long nextVersion = ++version;
+        LeaderboardSnapshot built = new LeaderboardSnapshot(nextVersion, "\"" + epoch + "-" + nextVersion + "\"",
+                entries, toJson(entries));
+        clubMetrics.leaderboardBuilt(previous == null, start);
+        return built;
+    }
+
+    private byte[] toJson(List<LeaderboardEntry> entries) {
+        try {
+            return objectMapper.writeValueAsBytes(entries);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize leaderboard", e);
+        }
+    }
+}
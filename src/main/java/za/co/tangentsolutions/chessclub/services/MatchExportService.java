@@ -0,0 +1,105 @@
+package za.co.tangentsolutions.chessclub.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import za.co.tangentsolutions.chessclub.models.GameExportRow;
+import za.co.tangentsolutions.chessclub.repositories.GameRepository;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes the whole match history straight from a database cursor to an output stream, one row at
+ * a time, oldest game first. Memory use does not depend on the number of games exported.
+ */
+@Service
+public class MatchExportService {
+
+    private static final String CSV_HEADER = "id,played_at,player1_id,player1_name,player1_surname,player1_score,"
+            + "player1_rank_before,player1_rank_after,player2_id,player2_name,player2_surname,player2_score,"
+            + "player2_rank_before,player2_rank_after";
+
+    private final GameRepository gameRepository;
+    private final ObjectMapper objectMapper;
+
+    private static final Logger logger = LogManager.getLogger(MatchExportService.class);
+
+    @Autowired
+    public MatchExportService(GameRepository gameRepository, ObjectMapper objectMapper) {
+        this.gameRepository = gameRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    // One JSON object per line; returns the number of games written
+    @Transactional(readOnly = true)
+    public long writeNdjson(OutputStream out) throws IOException {
+        long count = 0;
+        try (Stream<GameExportRow> rows = gameRepository.streamExportRows();
+             SequenceWriter writer = objectMapper.writer()
+                     .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                     .withRootValueSeparator("\n")
+                     .writeValues(out)) {
+            Iterator<GameExportRow> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                writer.write(iterator.next());
+                count++;
+            }
+            writer.flush();
+        }
+        if (count > 0) {
+            out.write('\n');
+        }
+        out.flush();
+        logger.info("Exported {} games as NDJSON", count);
+        return count;
+    }
+
+    @Transactional(readOnly = true)
+    public long writeCsv(OutputStream out) throws IOException {
+        long count = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        try (Stream<GameExportRow> rows = gameRepository.streamExportRows()) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+            Iterator<GameExportRow> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                writeCsvRow(writer, iterator.next());
+                count++;
+            }
+        }
+        writer.flush();
+        logger.info("Exported {} games as CSV", count);
+        return count;
+    }
+
+    private static void writeCsvRow(Writer writer, GameExportRow row) throws IOException {
+        writer.write(row.id() + "," + row.playedAt() + ","
+                + row.player1Id() + "," + csv(row.player1Name()) + "," + csv(row.player1Surname()) + ","
+                + row.player1Score() + "," + row.player1RankBefore() + "," + row.player1RankAfter() + ","
+                + row.player2Id() + "," + csv(row.player2Name()) + "," + csv(row.player2Surname()) + ","
+                + row.player2Score() + "," + row.player2RankBefore() + "," + row.player2RankAfter() + "\n");
+    }
+
+    // RFC 4180 quoting, only where needed
+    static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
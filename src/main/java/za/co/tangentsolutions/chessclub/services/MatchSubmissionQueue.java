@@ -0,0 +1,123 @@
+package za.co.tangentsolutions.chessclub.services;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import za.co.tangentsolutions.chessclub.models.MatchSubmission;
+import za.co.tangentsolutions.chessclub.models.MatchTicket;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Accepts matches without waiting for them to be applied. Each submission gets a ticket and is
+ * queued onto the ladder writer, which records it in its own transaction and completes the ticket
+ * after the commit. At most {@code queue-capacity} submissions wait at a time, so asynchronous
+ * clients cannot fill the writer's queue and starve synchronous ones; past that they are refused.
+ *
+ * A submission with an idempotency key is queued once: repeats get the same ticket while it is
+ * held, and after that the key stored on the game stops it being recorded twice.
+ */
+@Service
+public class MatchSubmissionQueue {
+
+    private final RankingService rankingService;
+    private final LadderWriter ladderWriter;
+    private final int capacity;
+    private final Duration ticketRetention;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Map<String, MatchTicket> tickets = new ConcurrentHashMap<>();
+    private final Map<String, MatchTicket> ticketsByKey = new ConcurrentHashMap<>();
+
+    private static final Logger logger = LogManager.getLogger(MatchSubmissionQueue.class);
+
+    @Autowired
+    public MatchSubmissionQueue(RankingService rankingService, LadderWriter ladderWriter,
+                                @Value("${chessclub.matches.async.queue-capacity:5000}") int capacity,
+                                @Value("${chessclub.matches.async.ticket-retention:PT1H}") Duration ticketRetention) {
+        this.rankingService = rankingService;
+        this.ladderWriter = ladderWriter;
+        this.capacity = capacity;
+        this.ticketRetention = ticketRetention;
+    }
+
+    /**
+     * Queues the submission and returns its ticket, or the existing ticket for a repeated key.
+     * Throws {@link RejectedExecutionException} when the queue is full and
+     * {@link IdempotencyConflictException} when the key is held by a different match.
+     */
+    public MatchTicket submit(MatchSubmission submission, String idempotencyKey) {
+        MatchTicket ticket = new MatchTicket(submission, idempotencyKey);
+        tickets.put(ticket.getId(), ticket);
+        if (idempotencyKey != null) {
+            MatchTicket existing = ticketsByKey.putIfAbsent(idempotencyKey, ticket);
+            if (existing != null) {
+                tickets.remove(ticket.getId());
+                if (!existing.getSubmission().equals(submission)) {
+                    throw new IdempotencyConflictException();
+                }
+                return existing;
+            }
+        }
+        if (pending.incrementAndGet() > capacity) {
+            discard(ticket);
+            throw new RejectedExecutionException("The match queue is full");
+        }
+        try {
+            ladderWriter.submit(() -> rankingService.recordMatch(submission.player1Id(), submission.player2Id(),
+                            submission.player1Score(), submission.player2Score(), idempotencyKey))
+                    .whenComplete((game, error) -> {
+                        pending.decrementAndGet();
+                        if (error == null) {
+                            ticket.applied(game);
+                        } else {
+                            Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                            logger.warn("Queued match {} was rejected: {}", ticket.getId(), cause.getMessage());
+                            ticket.rejected(cause.getMessage());
+                        }
+                    });
+        } catch (RejectedExecutionException e) {
+            discard(ticket);
+            throw e;
+        }
+        return ticket;
+    }
+
+    public Optional<MatchTicket> ticket(String id) {
+        return Optional.ofNullable(tickets.get(id));
+    }
+
+    public int pending() {
+        return pending.get();
+    }
+
+    // Completed tickets are forgotten after the retention period; their keys stay on the games
+    @Scheduled(fixedDelayString = "${chessclub.matches.async.ticket-retention:PT1H}")
+    public void expireTickets() {
+        Instant cutoff = Instant.now().minus(ticketRetention);
+        tickets.values().removeIf(ticket -> {
+            boolean expired = ticket.getCompletedAt() != null && ticket.getCompletedAt().isBefore(cutoff);
+            if (expired && ticket.getIdempotencyKey() != null) {
+                ticketsByKey.remove(ticket.getIdempotencyKey(), ticket);
+            }
+            return expired;
+        });
+    }
+
+    private void discard(MatchTicket ticket) {
+        pending.decrementAndGet();
+        tickets.remove(ticket.getId());
+        if (ticket.getIdempotencyKey() != null) {
+            ticketsByKey.remove(ticket.getIdempotencyKey(), ticket);
+        }
+    }
+}
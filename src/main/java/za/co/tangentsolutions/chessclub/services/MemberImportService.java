@@ -0,0 +1,289 @@
+package za.co.tangentsolutions.chessclub.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import za.co.tangentsolutions.chessclub.models.Member;
+import za.co.tangentsolutions.chessclub.models.MemberImportReport;
+import za.co.tangentsolutions.chessclub.models.MemberImportReport.RowError;
+import za.co.tangentsolutions.chessclub.repositories.MemberRepository;
+import za.co.tangentsolutions.chessclub.validation.MemberDetails;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Imports members from CSV or NDJSON, reading the upload a line at a time. Rows are validated as
+ * they are read, along with email uniqueness within the file, and the valid ones are enrolled
+ * {@code batch-size} at a time: each batch is one ladder writer task that checks its emails against
+ * the email index (or the database until the index is loaded), reads the bottom rank once, gives
+ * the batch consecutive ranks and saves it with one saveAll, which goes out as JDBC insert batches.
+ * Other ladder work can run between batches, so a long import does not hold up match recording.
+ */
+@Service
+public class MemberImportService {
+
+    private static final List<String> CSV_COLUMNS = List.of("name", "surname", "email", "birthday");
+
+    private final MemberRepository memberRepository;
+    private final LadderService ladderService;
+    private final LadderEventLog ladderEventLog;
+    private final LadderWriter ladderWriter;
+    private final EmailIndex emailIndex;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ClubMetrics clubMetrics;
+    private final int batchSize;
+    private final int maxReportedErrors;
+
+    private static final Logger logger = LogManager.getLogger(MemberImportService.class);
+
+    private record ImportRow(String name, String surname, String email, LocalDate birthday) {
+    }
+
+    private record PendingMember(long row, Member member) {
+    }
+
+    @Autowired
+    public MemberImportService(MemberRepository memberRepository, LadderService ladderService,
+                               LadderEventLog ladderEventLog, LadderWriter ladderWriter, EmailIndex emailIndex,
+                               Validator validator, ObjectMapper objectMapper,
+                               ApplicationEventPublisher eventPublisher, ClubMetrics clubMetrics,
+                               @Value("${chessclub.members.import.batch-size:1000}") int batchSize,
+                               @Value("${chessclub.members.import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.memberRepository = memberRepository;
+        this.ladderService = ladderService;
+        this.ladderEventLog = ladderEventLog;
+        this.ladderWriter = ladderWriter;
+        this.emailIndex = emailIndex;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.clubMetrics = clubMetrics;
+        this.batchSize = batchSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    // Header row naming name, surname, email and birthday (yyyy-MM-dd) in any order
+    public MemberImportReport importCsv(Reader input) throws IOException {
+        Import run = new Import();
+        BufferedReader reader = new BufferedReader(input);
+        String header = reader.readLine();
+        if (header == null) {
+            return run.finish();
+        }
+        List<String> names = splitCsv(header).stream().map(name -> name.trim().toLowerCase(Locale.ROOT)).toList();
+        int[] columns = new int[CSV_COLUMNS.size()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = names.indexOf(CSV_COLUMNS.get(i));
+            if (columns[i] < 0) {
+                throw new IllegalArgumentException("CSV header must name the columns " + String.join(",", CSV_COLUMNS));
+            }
+        }
+        long row = 1;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            row++;
+            if (line.isBlank()) {
+                continue;
+            }
+            run.rowsRead++;
+            List<String> fields = splitCsv(line);
+            String[] values = new String[columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                values[i] = columns[i] < fields.size() ? fields.get(columns[i]).trim() : null;
+            }
+            LocalDate birthday;
+            try {
+                birthday = values[3] == null || values[3].isEmpty() ? null : LocalDate.parse(values[3]);
+            } catch (DateTimeParseException e) {
+                run.reject(row, "Birthday must be yyyy-MM-dd");
+                continue;
+            }
+            run.accept(row, new ImportRow(values[0], values[1], values[2], birthday));
+        }
+        return run.finish();
+    }
+
+    // One JSON object per line with the same fields as POST /api/members
+    public MemberImportReport importNdjson(Reader input) throws IOException {
+        Import run = new Import();
+        BufferedReader reader = new BufferedReader(input);
+        long row = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            row++;
+            if (line.isBlank()) {
+                continue;
+            }
+            run.rowsRead++;
+            ImportRow parsed;
+            try {
+                parsed = objectMapper.readValue(line, ImportRow.class);
+            } catch (JsonProcessingException e) {
+                run.reject(row, "Malformed JSON: " + e.getOriginalMessage());
+                continue;
+            }
+            if (parsed == null) {
+                run.reject(row, "Row must be a JSON object");
+                continue;
+            }
+            run.accept(row, parsed);
+        }
+        return run.finish();
+    }
+
+    // State of one import; only used by the request thread, and by the writer while it waits
+    private class Import {
+        private final long start = System.nanoTime();
+        private final Set<String> emailsInFile = new HashSet<>();
+        private final List<PendingMember> pending = new ArrayList<>(batchSize);
+        private final List<RowError> errors = new ArrayList<>();
+        private long rowsRead;
+        private long imported;
+        private long rejected;
+
+        void accept(long row, ImportRow parsed) {
+            Member member = new Member();
+            member.setName(parsed.name());
+            member.setSurname(parsed.surname());
+            member.setEmail(parsed.email());
+            member.setBirthday(parsed.birthday());
+            // Registered emails are left to enroll, which checks the whole batch at once
+            Set<ConstraintViolation<Member>> violations = validator.validate(member, MemberDetails.class);
+            if (!violations.isEmpty()) {
+                reject(row, violations.iterator().next().getMessage());
+                return;
+            }
+            if (!emailsInFile.add(member.getEmail())) {
+                reject(row, "Email appears more than once in the import");
+                return;
+            }
+            pending.add(new PendingMember(row, member));
+            if (pending.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void reject(long row, String error) {
+            rejected++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new RowError(row, error));
+            }
+        }
+
+        void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            List<PendingMember> batch = List.copyOf(pending);
+            pending.clear();
+            imported += ladderWriter.execute(() -> enroll(batch, this));
+        }
+
+        MemberImportReport finish() {
+            flush();
+            long elapsedNanos = System.nanoTime() - start;
+            double rowsPerSecond = elapsedNanos == 0 ? 0 : rowsRead * 1_000_000_000.0 / elapsedNanos;
+            clubMetrics.memberChanged("import", start);
+            logger.info("Imported {} of {} members in {} ms ({} rows/s)", imported, rowsRead,
+                    elapsedNanos / 1_000_000, Math.round(rowsPerSecond));
+            return new MemberImportReport(rowsRead, imported, rejected, elapsedNanos / 1_000_000, rowsPerSecond,
+                    List.copyOf(errors));
+        }
+    }
+
+    // Runs on the ladder writer, so the emails and the bottom of the ladder cannot change underneath it
+    private int enroll(List<PendingMember> batch, Import run) {
+        List<PendingMember> members = new ArrayList<>(batch.size());
+        for (PendingMember pending : batch) {
+            String email = pending.member().getEmail();
+            boolean taken = emailIndex.isReady() ? emailIndex.contains(email) : memberRepository.existsByEmail(email);
+            if (taken) {
+                run.reject(pending.row(), "Email is already registered");
+            } else {
+                members.add(pending);
+            }
+        }
+        if (members.isEmpty()) {
+            return 0;
+        }
+
+        int firstRank;
+        if (ladderService.isGapped()) {
+            firstRank = ladderService.size() + 1;
+        } else {
+            Integer maxRank = memberRepository.findMaxRank();
+            firstRank = (maxRank != null) ? maxRank + 1 : 1;
+        }
+        long[] positions = ladderService.nextAppendPositions(members.size());
+
+        List<Member> newMembers = new ArrayList<>(members.size());
+        for (int i = 0; i < members.size(); i++) {
+            Member member = members.get(i).member();
+            member.setRank(firstRank + i);
+            member.setPosition(positions[i]);
+            newMembers.add(member);
+        }
+        // Ids come from the pooled sequence on persist, and the inserts go out in JDBC batches at commit
+        memberRepository.saveAll(newMembers);
+
+        List<Long> memberIds = new ArrayList<>(newMembers.size());
+        List<String> emails = new ArrayList<>(newMembers.size());
+        for (Member member : newMembers) {
+            ladderService.append(member.getId(), member.getPosition());
+            memberIds.add(member.getId());
+            emails.add(member.getEmail());
+        }
+        ladderEventLog.membersJoined(memberIds);
+        emailIndex.addedAll(emails);
+        eventPublisher.publishEvent(new LeaderboardChangedEvent(Set.copyOf(memberIds)));
+        clubMetrics.rowsWritten("import", members.size());
+        return members.size();
+    }
+
+    // Comma separated, with double-quoted fields that may contain commas and "" for a quote
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -4,14 +4,22 @@ package za.co.tangentsolutions.chessclub.services;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import za.co.tangentsolutions.chessclub.models.Game;
+import za.co.tangentsolutions.chessclub.models.KeysetPage;
+import za.co.tangentsolutions.chessclub.models.LeaderboardEntry;
 import za.co.tangentsolutions.chessclub.models.Member;
 import za.co.tangentsolutions.chessclub.repositories.MemberRepository;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class MemberService {
@@ -19,58 +27,165 @@ public class MemberService {
 
     private final MemberRepository memberRepository;
     private final RankingService rankingService;
+    private final LadderService ladderService;
+    private final LeaderboardService leaderboardService;
+    private final LadderEventLog ladderEventLog;
+    private final LadderWriter ladderWriter;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ClubMetrics clubMetrics;
+    private final EmailIndex emailIndex;
 
 
     @Autowired
-    public MemberService(MemberRepository memberRepository, RankingService rankingService) {
+    public MemberService(MemberRepository memberRepository, RankingService rankingService,
+                         LadderService ladderService, LeaderboardService leaderboardService,
+                         LadderEventLog ladderEventLog, LadderWriter ladderWriter,
+                         ApplicationEventPublisher eventPublisher, ClubMetrics clubMetrics, EmailIndex emailIndex) {
         this.memberRepository = memberRepository;
         this.rankingService = rankingService;
+        this.ladderService = ladderService;
+        this.leaderboardService = leaderboardService;
+        this.ladderEventLog = ladderEventLog;
+        this.ladderWriter = ladderWriter;
+        this.eventPublisher = eventPublisher;
+        this.clubMetrics = clubMetrics;
+        this.emailIndex = emailIndex;
     }
 
     private static final Logger logger = LogManager.getLogger(MemberService.class);
 
+    @Transactional(readOnly = true)
     public List<Member> getAllMembers() {
+        if (ladderService.isGapped()) {
+            // Stored ranks go stale in gapped mode; the position order is what counts
+            List<Member> members = memberRepository.findAllByOrderByPositionAsc();
+            for (int i = 0; i < members.size(); i++) {
+                members.get(i).setRank(i + 1);
+            }
+            return members;
+        }
         return memberRepository.findAllByOrderByRankAsc();
     }
     
+    /**
+     * Returns up to {@code limit} members ranked below {@code afterRank}; pass 0 for the top of the
+     * ladder. The next cursor is the rank of the last member returned.
+     */
+    public KeysetPage<Member> getMembersPage(int afterRank, int limit) {
+        if (ladderService.isGapped()) {
+            return getCommittedMembersPage(afterRank, limit);
+        }
+        List<Member> members = memberRepository.findRankedAfter(afterRank, PageRequest.of(0, limit + 1));
+        if (members.size() <= limit) {
+            return new KeysetPage<>(members, null);
+        }
+        members = members.subList(0, limit);
+        return new KeysetPage<>(members, String.valueOf(members.get(limit - 1).getRank()));
+    }
+
     public Optional<Member> getMemberById(Long id) {
-        return memberRepository.findById(id);
+        Optional<Member> member = memberRepository.findById(id);
+        if (ladderService.isGapped()) {
+            member.ifPresent(m -> leaderboardService.current().getEntry(m.getId())
+                    .ifPresent(entry -> m.setRank(entry.getRank())));
+        }
+        return member;
+    }
+
+    /*
+     * Gapped-mode ranks live in the ladder, which the writer changes before its transaction commits,
+     * so readers take them from the leaderboard's last committed snapshot instead.
+     */
+    private KeysetPage<Member> getCommittedMembersPage(int afterRank, int limit) {
+        List<LeaderboardEntry> entries = leaderboardService.current().getEntries();
+        if (afterRank >= entries.size()) {
+            return new KeysetPage<>(List.of(), null);
+        }
+        List<LeaderboardEntry> slice = entries.subList(afterRank, Math.min(entries.size(), afterRank + limit));
+        Map<Long, Member> loaded = new HashMap<>();
+        memberRepository.findAllById(slice.stream().map(LeaderboardEntry::getId).toList())
+                .forEach(member -> loaded.put(member.getId(), member));
+        List<Member> members = new ArrayList<>(slice.size());
+        for (LeaderboardEntry entry : slice) {
+            Member member = loaded.get(entry.getId());
+            if (member != null) {
+                member.setRank(entry.getRank());
+                members.add(member);
+            }
+        }
+        int lastRank = afterRank + slice.size();
+        return new KeysetPage<>(members, lastRank < entries.size() ? String.valueOf(lastRank) : null);
     }
 
-    @Transactional
     public Member createMember(Member member) {
+        // Joining the ladder is a ladder mutation, so it is serialized with match recording
+        long start = System.nanoTime();
+        Member saved = ladderWriter.execute(() -> enrollMember(member));
+        clubMetrics.memberChanged("create", start);
+        return saved;
+    }
+
+    private Member enrollMember(Member member) {
         // Set initial rank (last position)
-        Integer maxRank = memberRepository.findMaxRank();
-        int newRank = (maxRank != null) ? maxRank + 1 : 1;
+        int newRank;
+        if (ladderService.isGapped()) {
+            newRank = ladderService.size() + 1;
+        } else {
+            Integer maxRank = memberRepository.findMaxRank();
+            newRank = (maxRank != null) ? maxRank + 1 : 1;
+        }
         member.setRank(newRank);
+        member.setPosition(ladderService.nextAppendPosition());
         logger.info("Member to save: {}", member);
-        return memberRepository.save(member);
+        Member saved = memberRepository.save(member);
+        ladderService.append(saved.getId(), saved.getPosition());
+        ladderEventLog.memberJoined(saved.getId());
+        emailIndex.added(saved.getEmail());
+        eventPublisher.publishEvent(new LeaderboardChangedEvent(Set.of(saved.getId())));
+        return saved;
     }
 
 
-    @Transactional
+    // Also run on the writer so leaderboard snapshots are only ever built there
     public Member updateMember(Long id, Member memberDetails) {
+        long start = System.nanoTime();
+        Member saved = ladderWriter.execute(() -> applyUpdate(id, memberDetails));
+        clubMetrics.memberChanged("update", start);
+        return saved;
+    }
+
+    private Member applyUpdate(Long id, Member memberDetails) {
         Member member = memberRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("Member not found"));
-        
+        String oldEmail = member.getEmail();
+
         member.setName(memberDetails.getName());
         member.setSurname(memberDetails.getSurname());
         member.setEmail(memberDetails.getEmail());
         member.setBirthday(memberDetails.getBirthday());
         
-        return memberRepository.save(member);
+        Member saved = memberRepository.save(member);
+        emailIndex.changed(oldEmail, saved.getEmail());
+        eventPublisher.publishEvent(new LeaderboardChangedEvent(Set.of(id)));
+        return saved;
     }
     
-    @Transactional
     public void deleteMember(Long id) {
+        long start = System.nanoTime();
+        ladderWriter.run(() -> removeMember(id));
+        clubMetrics.memberChanged("delete", start);
+    }
+
+    private void removeMember(Long id) {
         Member member = memberRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("Member not found"));
         
-        int deletedRank = member.getRank();
+        // Update ranks of remaining members (a no-op for the stored rows in gapped mode)
+        ladderService.remove(id);
         memberRepository.delete(member);
-        
-        // Update ranks of remaining members
-        memberRepository.decrementRanks(deletedRank, Integer.MAX_VALUE);
+        ladderEventLog.memberLeft(id);
+        emailIndex.removed(member.getEmail());
+        eventPublisher.publishEvent(new LeaderboardChangedEvent(Set.of()));
     }
 
     public List<Game> getPlayerGameHistory(Long memberId) {
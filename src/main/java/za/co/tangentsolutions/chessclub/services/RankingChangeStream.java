@@ -0,0 +1,194 @@
+package za.co.tangentsolutions.chessclub.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import za.co.tangentsolutions.chessclub.models.LeaderboardUpdate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Streams rank moves to external clients as server-sent events. Every leaderboard update with rank
+ * moves becomes one {@code ranking} event holding its {@link za.co.tangentsolutions.chessclub.models.RankChange}s,
+ * rendered once and written to every open stream.
+ *
+ * The last {@code replay-buffer} events are kept so a client reconnecting with {@code Last-Event-ID}
+ * is sent what it missed. When that is not possible (the id is from before a restart or older than
+ * the buffer, or an update was lost) it gets a {@code reset} event and should reload the leaderboard.
+ */
+@Service
+public class RankingChangeStream {
+
+    private final LeaderboardService leaderboardService;
+    private final ObjectMapper objectMapper;
+    private final int replayBuffer;
+    private final int maxClients;
+    private final long timeoutMillis;
+    // Keeps event ids from one run from being resumed in another
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+
+    // Guarded by this
+    private final Deque<RankingEvent> recent = new ArrayDeque<>();
+    private long lastVersion = -1;
+    // Events after this leaderboard version can be replayed
+    private long replayableAfter = 0;
+
+    private static final Logger logger = LogManager.getLogger(RankingChangeStream.class);
+
+    record RankingEvent(long version, String id, String json) {
+    }
+
+    @Autowired
+    public RankingChangeStream(LeaderboardService leaderboardService, LeaderboardFeed leaderboardFeed,
+                               ObjectMapper objectMapper,
+                               @Value("${chessclub.ranking.stream.replay-buffer:1000}") int replayBuffer,
+                               @Value("${chessclub.ranking.stream.max-clients:1000}") int maxClients,
+                               @Value("${chessclub.ranking.stream.timeout:PT30M}") Duration timeout) {
+        this.leaderboardService = leaderboardService;
+        this.objectMapper = objectMapper;
+        this.replayBuffer = replayBuffer;
+        this.maxClients = maxClients;
+        this.timeoutMillis = timeout.toMillis();
+        leaderboardFeed.subscribe(this::onUpdate);
+    }
+
+    /**
+     * Opens a stream, first replaying the events after {@code lastEventId} if one is given. Throws
+     * {@link RejectedExecutionException} when {@code max-clients} streams are already open.
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        if (emitters.size() >= maxClients) {
+            throw new RejectedExecutionException("Too many open ranking streams");
+        }
+        // Updates are only diffed against an existing snapshot, so make sure there is one
+        leaderboardService.current();
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+        emitter.onError(error -> emitters.remove(emitter));
+        synchronized (this) {
+            try {
+                if (lastEventId != null && !lastEventId.isBlank()) {
+                    List<RankingEvent> missed = since(lastEventId);
+                    if (missed == null) {
+                        emitter.send(reset());
+                    } else {
+                        for (RankingEvent event : missed) {
+                            emitter.send(toSse(event));
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                emitter.completeWithError(e);
+                return emitter;
+            }
+            emitters.add(emitter);
+        }
+        return emitter;
+    }
+
+    public int openStreams() {
+        return emitters.size();
+    }
+
+    // Null when the events after lastEventId are no longer all known
+    synchronized List<RankingEvent> since(String lastEventId) {
+        int separator = lastEventId.lastIndexOf('-');
+        if (separator < 0 || !lastEventId.substring(0, separator).equals(epoch)) {
+            return null;
+        }
+        long version;
+        try {
+            version = Long.parseLong(lastEventId.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (version < replayableAfter || version > lastVersion) {
+            return null;
+        }
+        List<RankingEvent> missed = new ArrayList<>();
+        for (RankingEvent event : recent) {
+            if (event.version() > version) {
+                missed.add(event);
+            }
+        }
+        return missed;
+    }
+
+    synchronized void onUpdate(LeaderboardUpdate update) {
+        if (lastVersion >= 0 && update.previousVersion() != lastVersion) {
+            // An update was lost; nobody can be brought up to date from the buffer any more
+            logger.warn("Ranking stream missed leaderboard versions {} to {}", lastVersion, update.previousVersion());
+            recent.clear();
+            replayableAfter = update.previousVersion();
+            sendToAll(reset().build());
+        }
+        lastVersion = update.version();
+        if (update.rankChanges().isEmpty()) {
+            return;
+        }
+        RankingEvent event = new RankingEvent(update.version(), eventId(update.version()), toJson(update));
+        recent.addLast(event);
+        if (recent.size() > replayBuffer) {
+            replayableAfter = recent.removeFirst().version();
+        }
+        sendToAll(toSse(event).build());
+    }
+
+    String eventId(long version) {
+        return epoch + "-" + version;
+    }
+
+    // Keeps idle connections open through proxies and drops clients that have gone away
+    @Scheduled(fixedDelayString = "${chessclub.ranking.stream.heartbeat:PT15S}")
+    public synchronized void heartbeat() {
+        if (!emitters.isEmpty()) {
+            sendToAll(SseEmitter.event().comment("heartbeat").build());
+        }
+    }
+
+    // Built once and written as is to every stream; an event builder cannot be reused
+    private void sendToAll(Set<ResponseBodyEmitter.DataWithMediaType> event) {
+        for (SseEmitter emitter : emitters) {
+            try {
+                emitter.send(event);
+            } catch (IOException | IllegalStateException e) {
+                emitters.remove(emitter);
+                emitter.completeWithError(e);
+            }
+        }
+    }
+
+    private static SseEmitter.SseEventBuilder toSse(RankingEvent event) {
+        return SseEmitter.event().id(event.id()).name("ranking").data(event.json(), MediaType.APPLICATION_JSON);
+    }
+
+    private static SseEmitter.SseEventBuilder reset() {
+        return SseEmitter.event().name("reset").data("{}", MediaType.APPLICATION_JSON);
+    }
+
+    private String toJson(LeaderboardUpdate update) {
+        try {
+            return objectMapper.writeValueAsString(update.rankChanges());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize ranking changes", e);
+        }
+    }
+}
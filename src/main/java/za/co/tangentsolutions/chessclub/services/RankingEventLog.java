@@ -0,0 +1,47 @@
+package za.co.tangentsolutions.chessclub.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import za.co.tangentsolutions.chessclub.models.Game;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * One compact record per recorded match on the {@code chessclub.ranking.events} logger, which
+ * logback-spring.xml sends through its own async appender as text or JSON. Turn it off with the
+ * logger level, or keep a fraction of matches with {@code chessclub.ranking-events.sample-rate}.
+ */
+@Component
+public class RankingEventLog {
+
+    // SLF4J rather than Log4j here: its fluent API hands the key-value pairs to the JSON encoder as fields
+    private static final Logger events = LoggerFactory.getLogger("chessclub.ranking.events");
+
+    private final double sampleRate;
+
+    public RankingEventLog(@Value("${chessclub.ranking-events.sample-rate:1.0}") double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    public void matchRecorded(Game game) {
+        if (!events.isInfoEnabled() || !sampled()) {
+            return;
+        }
+        events.atInfo()
+                .setMessage("match")
+                .addKeyValue("game", game.getId())
+                .addKeyValue("outcome", ClubMetrics.outcome(game))
+                .addKeyValue("p1", game.getPlayer1().getId())
+                .addKeyValue("p2", game.getPlayer2().getId())
+                .addKeyValue("score", game.getPlayer1Score() + "-" + game.getPlayer2Score())
+                .addKeyValue("p1Rank", game.getPlayer1RankBefore() + ">" + game.getPlayer1RankAfter())
+                .addKeyValue("p2Rank", game.getPlayer2RankBefore() + ">" + game.getPlayer2RankAfter())
+                .log();
+    }
+
+    private boolean sampled() {
+        return sampleRate >= 1.0 || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+}
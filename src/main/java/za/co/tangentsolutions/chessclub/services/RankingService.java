@@ -4,31 +4,113 @@ package za.co.tangentsolutions.chessclub.services;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import za.co.tangentsolutions.chessclub.models.Game;
+import za.co.tangentsolutions.chessclub.models.GameCursor;
+import za.co.tangentsolutions.chessclub.models.GameFilter;
+import za.co.tangentsolutions.chessclub.models.HeadToHead;
+import za.co.tangentsolutions.chessclub.models.KeysetPage;
+import za.co.tangentsolutions.chessclub.models.MatchResult;
+import za.co.tangentsolutions.chessclub.models.MatchSubmission;
 import za.co.tangentsolutions.chessclub.models.Member;
+import za.co.tangentsolutions.chessclub.models.PairRecord;
+import za.co.tangentsolutions.chessclub.models.PlayerStats;
+import za.co.tangentsolutions.chessclub.ranking.RankingStrategy;
 import za.co.tangentsolutions.chessclub.repositories.GameRepository;
 import za.co.tangentsolutions.chessclub.repositories.MemberRepository;
+import za.co.tangentsolutions.chessclub.repositories.PairRecordRepository;
+import za.co.tangentsolutions.chessclub.repositories.PlayerStatsRepository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class RankingService {
     
     private final MemberRepository memberRepository;
     private final GameRepository gameRepository;
+    private final PlayerStatsRepository playerStatsRepository;
+    private final PairRecordRepository pairRecordRepository;
+    private final LadderService ladderService;
+    private final List<RankingStrategy> rankingStrategies;
+    private final LadderEventLog ladderEventLog;
+    private final LadderWriter ladderWriter;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ClubMetrics clubMetrics;
+    private final RankingEventLog rankingEventLog;
 
     private static final Logger logger = LogManager.getLogger(RankingService.class);
 
     @Autowired
-    public RankingService(MemberRepository memberRepository, GameRepository gameRepository) {
+    public RankingService(MemberRepository memberRepository, GameRepository gameRepository,
+                          PlayerStatsRepository playerStatsRepository, PairRecordRepository pairRecordRepository,
+                          LadderService ladderService, List<RankingStrategy> rankingStrategies,
+                          LadderEventLog ladderEventLog,
+                          LadderWriter ladderWriter, ApplicationEventPublisher eventPublisher,
+                          ClubMetrics clubMetrics, RankingEventLog rankingEventLog) {
         this.memberRepository = memberRepository;
         this.gameRepository = gameRepository;
+        this.playerStatsRepository = playerStatsRepository;
+        this.pairRecordRepository = pairRecordRepository;
+        this.ladderService = ladderService;
+        this.rankingStrategies = rankingStrategies;
+        this.ladderEventLog = ladderEventLog;
+        this.ladderWriter = ladderWriter;
+        this.eventPublisher = eventPublisher;
+        this.clubMetrics = clubMetrics;
+        this.rankingEventLog = rankingEventLog;
     }
 
-    @Transactional
+    // Ladder mutations are serialized on the ladder writer, each in its own transaction
     public Game recordMatch(Long player1Id, Long player2Id, int player1Score, int player2Score) {
+        return recordMatch(player1Id, player2Id, player1Score, player2Score, null);
+    }
+
+    /**
+     * Records a match at most once per idempotency key: a repeat of a key already recorded returns
+     * the stored game without touching the ladder, and a key reused for a different match is refused
+     * with an {@link IdempotencyConflictException}. A null key records unconditionally.
+     */
+    public Game recordMatch(Long player1Id, Long player2Id, int player1Score, int player2Score, String idempotencyKey) {
+        long start = System.nanoTime();
+        Game game = ladderWriter.execute(() -> {
+            if (idempotencyKey != null) {
+                Optional<Game> recorded = gameRepository.findByIdempotencyKey(idempotencyKey);
+                if (recorded.isPresent()) {
+                    return sameMatch(recorded.get(), player1Id, player2Id, player1Score, player2Score);
+                }
+            }
+            return applyRecordMatch(player1Id, player2Id, player1Score, player2Score, idempotencyKey);
+        });
+        clubMetrics.matchRecorded(game, start);
+        return game;
+    }
+
+    private Game sameMatch(Game game, Long player1Id, Long player2Id, int player1Score, int player2Score) {
+        if (!game.getPlayer1().getId().equals(player1Id) || !game.getPlayer2().getId().equals(player2Id)
+                || game.getPlayer1Score() != player1Score || game.getPlayer2Score() != player2Score) {
+            throw new IdempotencyConflictException();
+        }
+        return game;
+    }
+
+    private Game applyRecordMatch(Long player1Id, Long player2Id, int player1Score, int player2Score,
+                                  String idempotencyKey) {
         Member player1 = memberRepository.findById(player1Id)
             .orElseThrow(() -> new RuntimeException("Player 1 not found"));
         Member player2 = memberRepository.findById(player2Id)
@@ -37,117 +119,256 @@ public class RankingService {
         if (player1.equals(player2)) {
             throw new RuntimeException("Cannot play against yourself");
         }
+
+        Set<Long> movedMemberIds = new HashSet<>();
+        Game game = applyMatch(player1, player2, player1Score, player2Score, movedMemberIds);
+        
+        // Save the players and only those members whose rank actually changed
+        saveMembers(movedMemberIds, List.of(player1, player2));
+        updateStats(List.of(game));
+
+        game.setIdempotencyKey(idempotencyKey);
+        Game saved = gameRepository.save(game);
+        ladderEventLog.matchesRecorded(List.of(saved));
+        rankingEventLog.matchRecorded(saved);
+        eventPublisher.publishEvent(new LeaderboardChangedEvent(Set.of(player1.getId(), player2.getId()), saved.getId()));
+        return saved;
+    }
+
+    /**
+     * Applies a batch of results in submission order against the ladder in a single transaction.
+     * Submissions that cannot be applied are rejected individually without affecting the rest;
+     * all touched members and games are then written together.
+     */
+    public List<MatchResult> recordMatches(List<MatchSubmission> submissions) {
+        long start = System.nanoTime();
+        List<MatchResult> results = ladderWriter.execute(() -> applyRecordMatches(submissions));
+        clubMetrics.batchRecorded(start);
+        return results;
+    }
+
+    private List<MatchResult> applyRecordMatches(List<MatchSubmission> submissions) {
+        Set<Long> playerIds = new HashSet<>();
+        for (MatchSubmission submission : submissions) {
+            if (submission.player1Id() != null) playerIds.add(submission.player1Id());
+            if (submission.player2Id() != null) playerIds.add(submission.player2Id());
+        }
+        Map<Long, Member> players = new HashMap<>();
+        memberRepository.findAllById(playerIds).forEach(member -> players.put(member.getId(), member));
+
+        List<MatchResult> results = new ArrayList<>(submissions.size());
+        List<Game> games = new ArrayList<>();
+        Map<Long, Member> playedMembers = new LinkedHashMap<>();
+        Set<Long> movedMemberIds = new HashSet<>();
+
+        for (int i = 0; i < submissions.size(); i++) {
+            MatchSubmission submission = submissions.get(i);
+            String error = validate(submission, players);
+            if (error != null) {
+                results.add(MatchResult.rejected(i, error));
+                continue;
+            }
+            Member player1 = players.get(submission.player1Id());
+            Member player2 = players.get(submission.player2Id());
+            Game game = applyMatch(player1, player2, submission.player1Score(), submission.player2Score(),
+                    movedMemberIds);
+            playedMembers.put(player1.getId(), player1);
+            playedMembers.put(player2.getId(), player2);
+            games.add(game);
+            results.add(MatchResult.recorded(i, game));
+        }
+
+        saveMembers(movedMemberIds, playedMembers.values());
+        updateStats(games);
+        gameRepository.saveAll(games);
+        ladderEventLog.matchesRecorded(games);
+        games.forEach(rankingEventLog::matchRecorded);
+        if (!games.isEmpty()) {
+            eventPublisher.publishEvent(new LeaderboardChangedEvent(Set.copyOf(playedMembers.keySet()),
+                games.get(games.size() - 1).getId()));
+        }
+        logger.info("Recorded {} of {} submitted matches", games.size(), submissions.size());
+        return results;
+    }
+
+    private String validate(MatchSubmission submission, Map<Long, Member> players) {
+        if (submission.player1Id() == null) return "Player 1 is required";
+        if (submission.player2Id() == null) return "Player 2 is required";
+        if (submission.player1Id().equals(submission.player2Id())) return "Cannot play against yourself";
+        if (submission.player1Score() < 0 || submission.player2Score() < 0) return "Scores must be non-negative";
+        if (!players.containsKey(submission.player1Id())) return "Player 1 not found";
+        if (!players.containsKey(submission.player2Id())) return "Player 2 not found";
+        return null;
+    }
+
+    // Runs one result against the ladder and returns the game with both rank snapshots filled in
+    private Game applyMatch(Member player1, Member player2, int player1Score, int player2Score,
+                            Set<Long> movedMemberIds) {
+        // The ladder, not the stored row, is the authority for the current rank
+        player1.setRank(ladderService.rankOf(player1.getId()));
+        player2.setRank(ladderService.rankOf(player2.getId()));
         
         // Create game record
         Game game = new Game(player1, player2, player1Score, player2Score);
         
         // Process ranking changes
-        processRankingChanges(game);
+        movedMemberIds.addAll(processRankingChanges(game));
+        clubMetrics.matchApplied(game);
         
         // Update games played count
         player1.setGamesPlayed(player1.getGamesPlayed() + 1);
         player2.setGamesPlayed(player2.getGamesPlayed() + 1);
-        
-        // Save updated members and game
-        memberRepository.save(player1);
-        memberRepository.save(player2);
-        
+
+        player1.setRank(ladderService.rankOf(player1.getId()));
+        player2.setRank(ladderService.rankOf(player2.getId()));
         game.setPlayer1RankAfter(player1.getRank());
         game.setPlayer2RankAfter(player2.getRank());
-        
-        return gameRepository.save(game);
+        return game;
     }
 
     public List<Game> allMatches(){
         return gameRepository.findAll();
     }
-    private void processRankingChanges(Game game) {
-        logger.info("Processing ranking for game: {}", game);
-        
-        Member player1 = game.getPlayer1();
-        Member player2 = game.getPlayer2();
-        
-        logger.info("Player1: {} (rank {}), Player2: {} (rank {})", 
-            player1.getFullName(), player1.getRank(), 
-            player2.getFullName(), player2.getRank());
-        
-        // Determine higher and lower ranked players
-        Member higherRanked, lowerRanked;
-        if (player1.getRank() < player2.getRank()) {
-            higherRanked = player1;
-            lowerRanked = player2;
-        } else {
-            higherRanked = player2;
-            lowerRanked = player1;
+    // Runs every strategy in order; the outcome lands in the ranking event log once the game is saved
+    private Set<Long> processRankingChanges(Game game) {
+        Set<Long> moved = new HashSet<>();
+        for (RankingStrategy strategy : rankingStrategies) {
+            moved.addAll(strategy.apply(game.getPlayer1(), game.getPlayer2(),
+                    game.getPlayer1Score(), game.getPlayer2Score()));
         }
-        
-        logger.info("Higher ranked: {} (rank {}), Lower ranked: {} (rank {})", 
-            higherRanked.getFullName(), higherRanked.getRank(), 
-            lowerRanked.getFullName(), lowerRanked.getRank());
-        
-        if (game.isDraw()) {
-            logger.info("Game is a draw");
-            handleDraw(higherRanked, lowerRanked);
-        } else {
-            Member winner = game.getWinner();
-            Member loser = game.getLoser();
-            
-            logger.info("Winner: {} (rank {}), Loser: {} (rank {})", 
-                winner.getFullName(), winner.getRank(), 
-                loser.getFullName(), loser.getRank());
-            
-            if (winner.equals(lowerRanked)) {
-                logger.info("Lower ranked player won - processing upset");
-                handleLowerRankedWin(higherRanked, lowerRanked);
-            } else {
-                logger.info("Higher ranked player won - no ranking change");
-            }
+        return moved;
+    }
+
+    private void saveMembers(Set<Long> movedMemberIds, Collection<Member> players) {
+        Map<Long, Member> changed = new LinkedHashMap<>();
+        players.forEach(player -> changed.put(player.getId(), player));
+
+        List<Long> bystanders = movedMemberIds.stream()
+            .filter(id -> !changed.containsKey(id))
+            .toList();
+        if (!bystanders.isEmpty()) {
+            memberRepository.findAllById(bystanders).forEach(member -> changed.put(member.getId(), member));
         }
+
+        for (Member member : changed.values()) {
+            member.setRank(ladderService.rankOf(member.getId()));
+            member.setPosition(ladderService.positionOf(member.getId()));
+        }
+        memberRepository.saveAll(changed.values());
     }
     
-    private void handleDraw(Member higherRanked, Member lowerRanked) {
-        int rankDifference = lowerRanked.getRank() - higherRanked.getRank();
-        if (rankDifference > 1) {
-            // Lower ranked player moves up one position
-            int newRank = lowerRanked.getRank() - 1;
-            memberRepository.incrementRanks(newRank, lowerRanked.getRank());
-            lowerRanked.setRank(newRank);
+    // Folds the games, in order, into both players' and the pair's running totals, one read and one batched write each
+    private void updateStats(List<Game> games) {
+        if (games.isEmpty()) {
+            return;
         }
+        Set<Long> playerIds = new HashSet<>();
+        for (Game game : games) {
+            playerIds.add(game.getPlayer1().getId());
+            playerIds.add(game.getPlayer2().getId());
+        }
+        Map<Long, PlayerStats> stats = new HashMap<>();
+        playerStatsRepository.findAllById(playerIds).forEach(s -> stats.put(s.getMemberId(), s));
+
+        for (Game game : games) {
+            stats.computeIfAbsent(game.getPlayer1().getId(), PlayerStats::new)
+                .recordGame(game.getPlayer1Score(), game.getPlayer2Score(),
+                    game.getPlayer1RankBefore(), game.getPlayer1RankAfter(), game.getPlayedAt());
+            stats.computeIfAbsent(game.getPlayer2().getId(), PlayerStats::new)
+                .recordGame(game.getPlayer2Score(), game.getPlayer1Score(),
+                    game.getPlayer2RankBefore(), game.getPlayer2RankAfter(), game.getPlayedAt());
+        }
+        playerStatsRepository.saveAll(stats.values());
+
+        Map<PairRecord.Key, PairRecord> pairs = new HashMap<>();
+        Set<PairRecord.Key> pairKeys = new HashSet<>();
+        for (Game game : games) {
+            pairKeys.add(PairRecord.Key.of(game.getPlayer1().getId(), game.getPlayer2().getId()));
+        }
+        pairRecordRepository.findAllById(pairKeys).forEach(pair -> pairs.put(pair.getId(), pair));
+        for (Game game : games) {
+            pairs.computeIfAbsent(PairRecord.Key.of(game.getPlayer1().getId(), game.getPlayer2().getId()), PairRecord::new)
+                .recordGame(game);
+        }
+        pairRecordRepository.saveAll(pairs.values());
     }
-    
-    private void handleLowerRankedWin(Member higherRanked, Member lowerRanked) {
-        int rankDifference = lowerRanked.getRank() - higherRanked.getRank();
-        
-        logger.info("Processing lower ranked win: {} (rank {}) beats {} (rank {}), difference={}", 
-            lowerRanked.getFullName(), lowerRanked.getRank(), 
-            higherRanked.getFullName(), higherRanked.getRank(), rankDifference);
-        
-        // For ANY upset, the higher ranked player should move down
-        if (rankDifference >= 1) {
-            // Higher ranked moves down one position
-            int newHigherRank = higherRanked.getRank() + 1;
-            logger.info("Upset: {} moves down from rank {} to {}", 
-                higherRanked.getFullName(), higherRanked.getRank(), newHigherRank);
-            memberRepository.decrementRanks(higherRanked.getRank(), newHigherRank);
-            higherRanked.setRank(newHigherRank);
-            
-            // Lower ranked moves up by at least 1 position, or more for larger differences
-            int moveUp = Math.max(1, rankDifference / 2);
-            int newLowerRank = lowerRanked.getRank() - moveUp;
-            logger.info("Upset: {} moves up from rank {} to {}", 
-                lowerRanked.getFullName(), lowerRanked.getRank(), newLowerRank);
-            memberRepository.incrementRanks(newLowerRank, lowerRanked.getRank());
-            lowerRanked.setRank(newLowerRank);
-        } else {
-            logger.info("Upset with no rank difference: no change");
+
+    /**
+     * The pair's totals from the summary table plus their latest games from the pair index; empty
+     * when either member does not exist.
+     */
+    public Optional<HeadToHead> getHeadToHead(Long memberId, Long opponentId, int recentGames) {
+        if (!memberRepository.existsById(memberId) || !memberRepository.existsById(opponentId)) {
+            return Optional.empty();
         }
+        PairRecord.Key pair = PairRecord.Key.of(memberId, opponentId);
+        List<Game> games = gameRepository.findBetween(pair.getPlayerLowId(), pair.getPlayerHighId(),
+            PageRequest.of(0, recentGames));
+        PairRecord record = pairRecordRepository.findById(pair).orElse(null);
+        return Optional.of(HeadToHead.of(memberId, opponentId, record, games));
     }
-    
+
+    // Empty when there is no such member; zeroed totals for a member who has not played yet
+    public Optional<PlayerStats> getPlayerStats(Long memberId) {
+        Optional<PlayerStats> stats = playerStatsRepository.findById(memberId);
+        if (stats.isPresent() || !memberRepository.existsById(memberId)) {
+            return stats;
+        }
+        return Optional.of(new PlayerStats(memberId));
+    }
+
+    // The history reads are read-only so that, with a replica configured, they are served from it
+    @Transactional(readOnly = true)
     public List<Game> getGameHistory() {
         return gameRepository.findAllByOrderByPlayedAtDesc();
     }
     
+    // Up to limit games older than the cursor, newest first; a null cursor starts at the latest game
+    @Transactional(readOnly = true)
+    public KeysetPage<Game> getGameHistoryPage(GameCursor before, int limit) {
+        PageRequest page = PageRequest.of(0, limit + 1);
+        List<Game> games = before == null
+            ? gameRepository.findLatest(page)
+            : gameRepository.findPlayedBefore(before.playedAt(), before.id(), page);
+        if (games.size() <= limit) {
+            return new KeysetPage<>(games, null);
+        }
+        games = games.subList(0, limit);
+        return new KeysetPage<>(games, GameCursor.after(games.get(limit - 1)).encode());
+    }
+
+    @Transactional(readOnly = true)
     public List<Game> getPlayerGameHistory(Long playerId) {
         return gameRepository.findMatchesByPlayerId(playerId);
     }
+
+    /**
+     * One offset page of the games matching {@code filter}, newest first unless the page is sorted;
+     * id breaks ties so pages do not overlap.
+     */
+    @Transactional(readOnly = true)
+    public List<Game> getGameHistory(GameFilter filter, Pageable page) {
+        Sort sort = page.getSort().isSorted() ? page.getSort() : Sort.by(Sort.Direction.DESC, "playedAt");
+        Sort.Direction tieBreak = sort.iterator().next().getDirection();
+        PageRequest sorted = PageRequest.of(page.getPageNumber(), page.getPageSize(), sort.and(Sort.by(tieBreak, "id")));
+        return gameRepository.findHistory(filter.playerId(), namePattern(filter), startOf(filter.from()),
+            filter.to() == null ? null : startOf(filter.to().plusDays(1)), sorted);
+    }
+
+    @Transactional(readOnly = true)
+    public long countGameHistory(GameFilter filter) {
+        return gameRepository.countHistory(filter.playerId(), namePattern(filter), startOf(filter.from()),
+            filter.to() == null ? null : startOf(filter.to().plusDays(1)));
+    }
+
+    private static String namePattern(GameFilter filter) {
+        if (filter.playerName() == null || filter.playerName().isBlank()) {
+            return null;
+        }
+        return "%" + filter.playerName().trim().toLowerCase(Locale.ROOT) + "%";
+    }
+
+    private static LocalDateTime startOf(LocalDate date) {
+        return date == null ? null : date.atStartOfDay();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,475 @@
+package za.co.tangentsolutions.chessclub.services;
+
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import za.co.tangentsolutions.chessclub.models.GameCursor;
+import za.co.tangentsolutions.chessclub.models.GameRatingRow;
+import za.co.tangentsolutions.chessclub.ranking.EloRatingEngine;
+import za.co.tangentsolutions.chessclub.ranking.Glicko2RatingEngine;
+import za.co.tangentsolutions.chessclub.ranking.RankingStrategy;
+import za.co.tangentsolutions.chessclub.repositories.GameRepository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Recomputes every member's rating from the whole match history under the active rating engine,
+ * without going through the ladder. Games are streamed from a cursor in the order they were
+ * played and folded into primitive arrays indexed by member; nothing is written until the end.
+ *
+ * Glicko-2 history is cut into rating periods of {@code rating-period}. Within a period every
+ * player's update only depends on the ratings at its start, so the players of a period are rated
+ * in parallel on a fork/join pool. Elo is order-dependent and is folded in game by game.
+ *
+ * The history is read up to the last game, by (playedAt, id), at the start of the job; games after it,
+ * recorded while the job runs, are then applied one by one on the ladder writer, as live matches are, in the same transaction
+ * as the single batched write of all ratings.
+ */
+@Service
+public class RatingRecalculationService {
+
+    public enum State { IDLE, RUNNING, COMPLETED, FAILED }
+
+    public record Progress(State state, String engine, long gamesProcessed, long totalGames, long ratingPeriods,
+                           double gamesPerSecond, Instant startedAt, Instant finishedAt, String error) {
+    }
+
+    private static final int PLAYERS_PER_TASK = 256;
+
+    private final GameRepository gameRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readTransaction;
+    private final LadderWriter ladderWriter;
+    private final Glicko2RatingEngine glicko2;
+    private final EloRatingEngine elo;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ClubMetrics clubMetrics;
+    private final Duration ratingPeriod;
+    private final ForkJoinPool pool;
+    private final ExecutorService jobExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "rating-recalculation");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicLong gamesProcessed = new AtomicLong();
+    private volatile State state = State.IDLE;
+    private volatile long totalGames;
+    private volatile long ratingPeriods;
+    private volatile long startNanos;
+    private volatile long finishNanos;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String error;
+
+    private static final Logger logger = LogManager.getLogger(RatingRecalculationService.class);
+
+    @Autowired
+    public RatingRecalculationService(GameRepository gameRepository, JdbcTemplate jdbcTemplate,
+                                      PlatformTransactionManager transactionManager, LadderWriter ladderWriter,
+                                      ObjectProvider<Glicko2RatingEngine> glicko2, ObjectProvider<EloRatingEngine> elo,
+                                      ApplicationEventPublisher eventPublisher, ClubMetrics clubMetrics,
+                                      @Value("${chessclub.ranking.rerate.rating-period:P7D}") Duration ratingPeriod,
+                                      @Value("${chessclub.ranking.rerate.parallelism:0}") int parallelism) {
+        this.gameRepository = gameRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.ladderWriter = ladderWriter;
+        this.glicko2 = glicko2.getIfAvailable();
+        this.elo = elo.getIfAvailable();
+        this.eventPublisher = eventPublisher;
+        this.clubMetrics = clubMetrics;
+        this.ratingPeriod = ratingPeriod;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        clubMetrics.trackRatingRecalculation(this);
+    }
+
+    // Starts a job in the background unless one is already running; either way returns its progress
+    public synchronized Progress start() {
+        if (state != State.RUNNING) {
+            begin();
+            jobExecutor.execute(this::run);
+        }
+        return progress();
+    }
+
+    // Runs a whole job on the calling thread
+    public Progress recalculate() {
+        synchronized (this) {
+            if (state == State.RUNNING) {
+                throw new IllegalStateException("A rating recalculation is already running");
+            }
+            begin();
+        }
+        run();
+        return progress();
+    }
+
+    public Progress progress() {
+        long processed = gamesProcessed.get();
+        long end = state == State.RUNNING ? System.nanoTime() : finishNanos;
+        double seconds = (end - startNanos) / 1e9;
+        return new Progress(state, engineName(), processed, totalGames, ratingPeriods,
+                startedAt == null || seconds <= 0 ? 0 : processed / seconds, startedAt, finishedAt, error);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobExecutor.shutdownNow();
+        pool.shutdownNow();
+    }
+
+    private void begin() {
+        state = State.RUNNING;
+        gamesProcessed.set(0);
+        totalGames = 0;
+        ratingPeriods = 0;
+        error = null;
+        finishedAt = null;
+        startedAt = Instant.now();
+        startNanos = System.nanoTime();
+    }
+
+    private void run() {
+        State outcome = State.FAILED;
+        try {
+            recalculateRatings();
+            outcome = State.COMPLETED;
+        } catch (RuntimeException e) {
+            logger.error("Rating recalculation failed", e);
+            error = e.getMessage();
+        } finally {
+            finishNanos = System.nanoTime();
+            finishedAt = Instant.now();
+            state = outcome;
+            clubMetrics.ratingsRecalculated(startNanos);
+        }
+    }
+
+    private void recalculateRatings() {
+        if (glicko2 == null && elo == null) {
+            throw new IllegalStateException("No rating engine is active");
+        }
+        // With no games yet the cursor is empty and everything is caught up on the writer
+        GameCursor last = gameRepository.findLastPlayed(PageRequest.of(0, 1)).stream().findFirst()
+                .orElse(new GameCursor(null, null));
+        totalGames = gameRepository.countPlayedUpTo(last.playedAt(), last.id());
+        RatingTable table = new RatingTable(jdbcTemplate.queryForList("SELECT id FROM members", Long.class));
+        logger.info("Recalculating {} ratings from {} games with {}", table.size, totalGames, engineName());
+
+        readTransaction.executeWithoutResult(status -> {
+            try (Stream<GameRatingRow> rows = gameRepository.streamRatingRowsUpTo(last.playedAt(), last.id())) {
+                if (glicko2 != null) {
+                    rateByPeriod(table, rows.iterator());
+                } else {
+                    rateInOrder(table, rows.iterator());
+                }
+            }
+        });
+
+        long caughtUp = ladderWriter.execute(() -> {
+            long before = gamesProcessed.get();
+            try (Stream<GameRatingRow> rows = gameRepository.streamRatingRowsAfter(last.playedAt(), last.id())) {
+                rateInOrder(table, rows.iterator());
+            }
+            write(table);
+            // Every rating may have changed, so the leaderboard reloads all of its entries
+            eventPublisher.publishEvent(new LeaderboardChangedEvent(table.memberIdSet()));
+            return gamesProcessed.get() - before;
+        });
+        logger.info("Recalculated {} ratings from {} games ({} recorded during the run) in {} ms", table.size,
+                gamesProcessed.get(), caughtUp, (System.nanoTime() - startNanos) / 1_000_000);
+    }
+
+    // Each game is rated on its own from the ratings just before it, as live matches are
+    private void rateInOrder(RatingTable table, Iterator<GameRatingRow> rows) {
+        double[] a = new double[3];
+        double[] b = new double[3];
+        double[] eloRatings = new double[2];
+        while (rows.hasNext()) {
+            GameRatingRow row = rows.next();
+            int player1 = table.indexOf(row.player1Id());
+            int player2 = table.indexOf(row.player2Id());
+            double score = RankingStrategy.score(row.player1Score(), row.player2Score());
+            table.load(player1, a);
+            table.load(player2, b);
+            if (glicko2 != null) {
+                glicko2.rateGame(a, b, score);
+            } else {
+                eloRatings[0] = a[0];
+                eloRatings[1] = b[0];
+                elo.rate(eloRatings, score);
+                a[0] = eloRatings[0];
+                b[0] = eloRatings[1];
+            }
+            table.store(player1, a);
+            table.store(player2, b);
+            gamesProcessed.incrementAndGet();
+        }
+    }
+
+    private void rateByPeriod(RatingTable table, Iterator<GameRatingRow> rows) {
+        RatingPeriod period = new RatingPeriod();
+        long periodNanos = ratingPeriod.toNanos();
+        LocalDateTime origin = null;
+        int current = 0;
+        while (rows.hasNext()) {
+            GameRatingRow row = rows.next();
+            if (origin == null) {
+                origin = row.playedAt();
+            }
+            int index = (int) (Duration.between(origin, row.playedAt()).toNanos() / periodNanos);
+            if (index != current && period.games > 0) {
+                ratePeriod(table, period, current);
+            }
+            current = index;
+            period.add(table.indexOf(row.player1Id()), table.indexOf(row.player2Id()),
+                    RankingStrategy.score(row.player1Score(), row.player2Score()));
+        }
+        if (period.games > 0) {
+            ratePeriod(table, period, current);
+        }
+        // Bring everyone who sat out the last periods up to the end of the history
+        for (int player = 0; player < table.size; player++) {
+            if (table.lastPeriod[player] >= 0) {
+                table.load(player, period.scratch);
+                glicko2.idle(period.scratch, current - table.lastPeriod[player]);
+                table.store(player, period.scratch);
+            }
+        }
+    }
+
+    /**
+     * Rates every player of one period against the ratings at its start. The games are regrouped
+     * per player into flat opponent arrays, the players are rated in parallel into a result array,
+     * and only then are the results copied back, so no task sees another's update.
+     */
+    private void ratePeriod(RatingTable table, RatingPeriod period, int periodIndex) {
+        period.groupByPlayer(table);
+        pool.invoke(new RatePlayers(table, period, periodIndex, 0, period.players));
+        for (int i = 0; i < period.players; i++) {
+            int player = period.playerAt[i];
+            System.arraycopy(period.results, i * 3, table.state, player * 3, 3);
+            table.lastPeriod[player] = periodIndex;
+            table.slot[player] = -1;
+        }
+        gamesProcessed.addAndGet(period.games);
+        ratingPeriods++;
+        period.clear();
+    }
+
+    private class RatePlayers extends RecursiveAction {
+        private final RatingTable table;
+        private final RatingPeriod period;
+        private final int periodIndex;
+        private final int from;
+        private final int to;
+
+        RatePlayers(RatingTable table, RatingPeriod period, int periodIndex, int from, int to) {
+            this.table = table;
+            this.period = period;
+            this.periodIndex = periodIndex;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > PLAYERS_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new RatePlayers(table, period, periodIndex, from, middle),
+                        new RatePlayers(table, period, periodIndex, middle, to));
+                return;
+            }
+            double[] state = new double[3];
+            for (int i = from; i < to; i++) {
+                int player = period.playerAt[i];
+                table.load(player, state);
+                if (table.lastPeriod[player] >= 0) {
+                    glicko2.idle(state, periodIndex - table.lastPeriod[player] - 1);
+                }
+                glicko2.ratePeriod(state, period.opponentRatings, period.opponentDeviations, period.scores,
+                        period.offsets[i], period.offsets[i + 1]);
+                System.arraycopy(state, 0, period.results, i * 3, 3);
+            }
+        }
+    }
+
+    private void write(RatingTable table) {
+        jdbcTemplate.batchUpdate("UPDATE members SET rating = ?, rating_deviation = ?, rating_volatility = ? WHERE id = ?",
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement statement, int i) throws SQLException {
+                        statement.setDouble(1, table.state[i * 3]);
+                        statement.setDouble(2, table.state[i * 3 + 1]);
+                        statement.setDouble(3, table.state[i * 3 + 2]);
+                        statement.setLong(4, table.memberIds[i]);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return table.size;
+                    }
+                });
+    }
+
+    private String engineName() {
+        return glicko2 != null ? "glicko2" : elo != null ? "elo" : "none";
+    }
+
+    // Rating, deviation and volatility of every member, three doubles per member, indexed densely
+    private static final class RatingTable {
+        private final Map<Long, Integer> indexes = new HashMap<>();
+        private long[] memberIds;
+        private double[] state;
+        private int[] lastPeriod;
+        private int[] slot;
+        private int size;
+
+        Set<Long> memberIdSet() {
+            return Set.copyOf(indexes.keySet());
+        }
+
+        RatingTable(List<Long> memberIds) {
+            int capacity = Math.max(16, memberIds.size());
+            this.memberIds = new long[capacity];
+            this.state = new double[capacity * 3];
+            this.lastPeriod = new int[capacity];
+            this.slot = new int[capacity];
+            memberIds.forEach(this::indexOf);
+        }
+
+        // Members who joined after the job started are added on first sight
+        int indexOf(Long memberId) {
+            Integer index = indexes.get(memberId);
+            if (index != null) {
+                return index;
+            }
+            if (size == memberIds.length) {
+                int capacity = size * 2;
+                memberIds = Arrays.copyOf(memberIds, capacity);
+                state = Arrays.copyOf(state, capacity * 3);
+                lastPeriod = Arrays.copyOf(lastPeriod, capacity);
+                slot = Arrays.copyOf(slot, capacity);
+            }
+            memberIds[size] = memberId;
+            state[size * 3] = Glicko2RatingEngine.DEFAULT_RATING;
+            state[size * 3 + 1] = Glicko2RatingEngine.DEFAULT_DEVIATION;
+            state[size * 3 + 2] = Glicko2RatingEngine.DEFAULT_VOLATILITY;
+            lastPeriod[size] = -1;
+            slot[size] = -1;
+            indexes.put(memberId, size);
+            return size++;
+        }
+
+        void load(int player, double[] into) {
+            System.arraycopy(state, player * 3, into, 0, 3);
+        }
+
+        void store(int player, double[] from) {
+            System.arraycopy(from, 0, state, player * 3, 3);
+        }
+    }
+
+    // The games of one rating period, and the same games regrouped by player
+    private static final class RatingPeriod {
+        private int[] player1 = new int[1024];
+        private int[] player2 = new int[1024];
+        private double[] gameScores = new double[1024];
+        private int games;
+
+        private int[] playerAt = new int[2048];
+        private int[] offsets = new int[2049];
+        private double[] opponentRatings = new double[2048];
+        private double[] opponentDeviations = new double[2048];
+        private double[] scores = new double[2048];
+        private double[] results = new double[2048 * 3];
+        private final double[] scratch = new double[3];
+        private int players;
+
+        void add(int first, int second, double score) {
+            if (games == player1.length) {
+                player1 = Arrays.copyOf(player1, games * 2);
+                player2 = Arrays.copyOf(player2, games * 2);
+                gameScores = Arrays.copyOf(gameScores, games * 2);
+            }
+            player1[games] = first;
+            player2[games] = second;
+            gameScores[games] = score;
+            games++;
+        }
+
+        // Counting sort of the games' two sides by player, reading opponents' start-of-period ratings
+        void groupByPlayer(RatingTable table) {
+            int entries = games * 2;
+            if (entries > scores.length) {
+                playerAt = new int[entries];
+                offsets = new int[entries + 1];
+                opponentRatings = new double[entries];
+                opponentDeviations = new double[entries];
+                scores = new double[entries];
+                results = new double[entries * 3];
+            }
+            Arrays.fill(offsets, 0, entries + 1, 0);
+            for (int i = 0; i < games; i++) {
+                count(table, player1[i]);
+                count(table, player2[i]);
+            }
+            for (int i = 0; i < players; i++) {
+                offsets[i + 1] += offsets[i];
+            }
+            int[] next = Arrays.copyOf(offsets, players);
+            for (int i = 0; i < games; i++) {
+                place(table, next, player1[i], player2[i], gameScores[i]);
+                place(table, next, player2[i], player1[i], 1 - gameScores[i]);
+            }
+        }
+
+        private void count(RatingTable table, int player) {
+            if (table.slot[player] < 0) {
+                table.slot[player] = players;
+                playerAt[players++] = player;
+            }
+            offsets[table.slot[player] + 1]++;
+        }
+
+        private void place(RatingTable table, int[] next, int player, int opponent, double score) {
+            int entry = next[table.slot[player]]++;
+            opponentRatings[entry] = table.state[opponent * 3];
+            opponentDeviations[entry] = table.state[opponent * 3 + 1];
+            scores[entry] = score;
+        }
+
+        void clear() {
+            games = 0;
+            players = 0;
+        }
+    }
+}
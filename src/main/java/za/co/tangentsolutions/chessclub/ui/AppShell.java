@@ -0,0 +1,9 @@
+package za.co.tangentsolutions.chessclub.ui;
+
+import com.vaadin.flow.component.page.AppShellConfigurator;
+import com.vaadin.flow.component.page.Push;
+
+// Server push lets leaderboard changes reach open screens without a reload
+@Push
+public class AppShell implements AppShellConfigurator {
+}
@@ -1,6 +1,9 @@
 package za.co.tangentsolutions.chessclub.ui;
 
 
+import com.vaadin.flow.component.AttachEvent;
+import com.vaadin.flow.component.DetachEvent;
+import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.grid.Grid;
 import com.vaadin.flow.component.html.H1;
@@ -17,33 +20,73 @@ import com.vaadin.flow.component.combobox.ComboBox;
 import com.vaadin.flow.component.notification.Notification;
 import com.vaadin.flow.component.details.Details;
 import com.vaadin.flow.component.html.Span;
+import com.vaadin.flow.data.provider.CallbackDataProvider;
+import com.vaadin.flow.data.provider.Query;
+import com.vaadin.flow.data.provider.QuerySortOrder;
+import com.vaadin.flow.data.provider.SortDirection;
+import com.vaadin.flow.data.value.ValueChangeMode;
 import com.vaadin.flow.router.Route;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import za.co.tangentsolutions.chessclub.models.Game;
+import za.co.tangentsolutions.chessclub.models.GameFilter;
+import za.co.tangentsolutions.chessclub.models.LeaderboardEntry;
+import za.co.tangentsolutions.chessclub.models.LeaderboardSnapshot;
+import za.co.tangentsolutions.chessclub.models.LeaderboardUpdate;
 import za.co.tangentsolutions.chessclub.models.Member;
+import za.co.tangentsolutions.chessclub.services.LeaderboardFeed;
+import za.co.tangentsolutions.chessclub.services.LeaderboardService;
 import za.co.tangentsolutions.chessclub.services.MemberService;
 import za.co.tangentsolutions.chessclub.services.RankingService;
 
+import java.util.Comparator;
 import java.util.List;
-
+import java.util.Locale;
+import java.util.stream.Stream;
+
+import static com.vaadin.flow.spring.data.VaadinSpringDataHelpers.toSpringPageRequest;
+
+/**
+ * The members grid follows the leaderboard live. Its rows are ladder positions, keyed by rank, and
+ * each update pushed from the {@link LeaderboardFeed} only re-sends the positions whose member or
+ * details changed; the grid is refetched when it has missed an update, the member count changed or
+ * it is filtered or sorted by another column.
+ *
+ * Every grid is lazy, so a session only holds the rows in view: members are sliced, filtered and
+ * sorted out of the shared leaderboard snapshot, and games are fetched a page at a time with the
+ * filter and sort applied in the query.
+ */
 @Route("")
 public class MainView extends VerticalLayout {
 
     private final MemberService memberService;
     private final RankingService rankingService;
-
-    private final Grid<Member> membersGrid = new Grid<>(Member.class);
+    private final LeaderboardService leaderboardService;
+    private final LeaderboardFeed leaderboardFeed;
+
+    private final Grid<LeaderboardEntry> membersGrid = new Grid<>(LeaderboardEntry.class);
+    private final CallbackDataProvider<LeaderboardEntry, Void> leaderboardProvider =
+            new CallbackDataProvider<>(this::fetchLeaderboard, this::countLeaderboard, LeaderboardEntry::getRank);
+    private final TextField memberFilterField = new TextField();
+    // The shared snapshot the members grid is showing; never copied or modified
+    private LeaderboardSnapshot leaderboard;
+    private LeaderboardFeed.Subscription leaderboardSubscription;
     private final Grid<Game> gamesGrid = new Grid<>();
+    private final TextField gamePlayerFilter = new TextField();
+    private final DatePicker gameFromFilter = new DatePicker();
+    private final DatePicker gameToFilter = new DatePicker();
     private final VerticalLayout contentLayout = new VerticalLayout();
 
     private static final Logger logger = LogManager.getLogger(MainView.class);
 
     @Autowired
-    public MainView(MemberService memberService, RankingService rankingService) {
+    public MainView(MemberService memberService, RankingService rankingService,
+                    LeaderboardService leaderboardService, LeaderboardFeed leaderboardFeed) {
         this.memberService = memberService;
         this.rankingService = rankingService;
+        this.leaderboardService = leaderboardService;
+        this.leaderboardFeed = leaderboardFeed;
 
         setSizeFull();
         setPadding(true);
@@ -79,12 +122,37 @@ public class MainView extends VerticalLayout {
         showMembersView();
     }
 
+    @Override
+    protected void onAttach(AttachEvent attachEvent) {
+        super.onAttach(attachEvent);
+        UI ui = attachEvent.getUI();
+        refreshMembersGrid();
+        leaderboardSubscription = leaderboardFeed.subscribe(update -> ui.access(() -> applyLeaderboardUpdate(update)));
+    }
+
+    @Override
+    protected void onDetach(DetachEvent detachEvent) {
+        if (leaderboardSubscription != null) {
+            leaderboardSubscription.cancel();
+            leaderboardSubscription = null;
+        }
+        super.onDetach(detachEvent);
+    }
+
     private void configureMembersGrid() {
+        membersGrid.setItems(leaderboardProvider);
         membersGrid.setColumns("rank", "name", "surname", "email", "birthday", "gamesPlayed");
         membersGrid.getColumnByKey("rank").setHeader("Rank");
         membersGrid.getColumnByKey("gamesPlayed").setHeader("Games Played");
+        membersGrid.getColumnByKey("email").setSortable(false);
+        membersGrid.getColumnByKey("birthday").setSortable(false);
         membersGrid.getColumns().forEach(col -> col.setAutoWidth(true));
 
+        memberFilterField.setPlaceholder("Filter by name");
+        memberFilterField.setClearButtonVisible(true);
+        memberFilterField.setValueChangeMode(ValueChangeMode.LAZY);
+        memberFilterField.addValueChangeListener(e -> leaderboardProvider.refreshAll());
+
         // Add view history button
         membersGrid.addComponentColumn(member -> {
             Button historyBtn = new Button("History", e -> showPlayerHistory(member));
@@ -97,7 +165,7 @@ public class MainView extends VerticalLayout {
         // Clear any existing columns to ensure custom configuration
         gamesGrid.removeAllColumns();
         
-        gamesGrid.addColumn(game -> game.getPlayedAt().toString()).setHeader("Date");
+        gamesGrid.addColumn(game -> game.getPlayedAt().toString()).setHeader("Date").setSortProperty("playedAt");
         gamesGrid.addColumn(game -> game.getPlayer1().getFullName()).setHeader("Player 1");
         gamesGrid.addColumn(game -> game.getPlayer1Score()).setHeader("P1 Score");
         gamesGrid.addColumn(game -> game.getPlayer2().getFullName()).setHeader("Player 2");
@@ -113,20 +181,31 @@ public class MainView extends VerticalLayout {
                 .setHeader("P2 Rank Change");
 
         gamesGrid.getColumns().forEach(col -> col.setAutoWidth(true));
+        gamesGrid.setItems(query -> fetchGames(gameFilter(), query), query -> countGames(gameFilter()));
+
+        gamePlayerFilter.setPlaceholder("Filter by player");
+        gamePlayerFilter.setClearButtonVisible(true);
+        gamePlayerFilter.setValueChangeMode(ValueChangeMode.LAZY);
+        gameFromFilter.setPlaceholder("From");
+        gameFromFilter.setClearButtonVisible(true);
+        gameToFilter.setPlaceholder("To");
+        gameToFilter.setClearButtonVisible(true);
+        gamePlayerFilter.addValueChangeListener(e -> refreshGamesGrid());
+        gameFromFilter.addValueChangeListener(e -> refreshGamesGrid());
+        gameToFilter.addValueChangeListener(e -> refreshGamesGrid());
         logger.info("Games grid configured with {} columns", gamesGrid.getColumns().size());
     }
 
     private void showMembersView() {
         contentLayout.removeAll();
-        refreshMembersGrid();
-        contentLayout.add(membersGrid);
+        contentLayout.add(memberFilterField, membersGrid);
     }
 
     private void showGamesView() {
         logger.info("Showing games view");
         contentLayout.removeAll();
         refreshGamesGrid();
-        contentLayout.add(gamesGrid);
+        contentLayout.add(new HorizontalLayout(gamePlayerFilter, gameFromFilter, gameToFilter), gamesGrid);
         logger.info("Games grid added to content layout");
     }
 
@@ -137,41 +216,100 @@ public class MainView extends VerticalLayout {
 
     private void refreshMembersGrid() {
         logger.info("Refreshing members grid");
-        List<Member> members = memberService.getAllMembers();
-        membersGrid.setItems(members);
+        leaderboard = leaderboardService.current();
+        leaderboardProvider.refreshAll();
+    }
+
+    private void applyLeaderboardUpdate(LeaderboardUpdate update) {
+        LeaderboardSnapshot previous = leaderboard;
+        if (update.version() <= previous.getVersion()) {
+            return;
+        }
+        leaderboard = leaderboardService.current();
+        if (update.previousVersion() != previous.getVersion() || update.version() != leaderboard.getVersion()
+                || update.size() != previous.getEntries().size() || !memberFilterField.isEmpty()
+                || !membersGrid.getSortOrder().isEmpty()) {
+            leaderboardProvider.refreshAll();
+            return;
+        }
+        update.changed().forEach(leaderboardProvider::refreshItem);
+    }
+
+    private Stream<LeaderboardEntry> fetchLeaderboard(Query<LeaderboardEntry, Void> query) {
+        List<LeaderboardEntry> entries = leaderboard.getEntries();
+        List<QuerySortOrder> sortOrders = query.getSortOrders();
+        boolean rankOrder = sortOrders.isEmpty() || (sortOrders.size() == 1
+                && sortOrders.get(0).getSorted().equals("rank") && sortOrders.get(0).getDirection() == SortDirection.ASCENDING);
+        if (memberFilterField.isEmpty() && rankOrder) {
+            int from = Math.min(query.getOffset(), entries.size());
+            return entries.subList(from, Math.min(from + query.getLimit(), entries.size())).stream();
+        }
+        return filteredLeaderboard()
+                .sorted(leaderboardOrder(sortOrders))
+                .skip(query.getOffset())
+                .limit(query.getLimit());
+    }
+
+    private int countLeaderboard(Query<LeaderboardEntry, Void> query) {
+        return memberFilterField.isEmpty() ? leaderboard.getEntries().size() : (int) filteredLeaderboard().count();
+    }
+
+    private Stream<LeaderboardEntry> filteredLeaderboard() {
+        String filter = memberFilterField.getValue().trim().toLowerCase(Locale.ROOT);
+        return leaderboard.getEntries().stream()
+                .filter(entry -> entry.getFullName().toLowerCase(Locale.ROOT).contains(filter));
+    }
+
+    private static Comparator<LeaderboardEntry> leaderboardOrder(List<QuerySortOrder> sortOrders) {
+        Comparator<LeaderboardEntry> order = (a, b) -> 0;
+        for (QuerySortOrder sortOrder : sortOrders) {
+            Comparator<LeaderboardEntry> column = switch (sortOrder.getSorted()) {
+                case "name" -> Comparator.comparing(LeaderboardEntry::getName, String.CASE_INSENSITIVE_ORDER);
+                case "surname" -> Comparator.comparing(LeaderboardEntry::getSurname, String.CASE_INSENSITIVE_ORDER);
+                case "gamesPlayed" -> Comparator.comparingInt(LeaderboardEntry::getGamesPlayed);
+                default -> Comparator.comparingInt(LeaderboardEntry::getRank);
+            };
+            order = order.thenComparing(sortOrder.getDirection() == SortDirection.DESCENDING ? column.reversed() : column);
+        }
+        return order.thenComparingInt(LeaderboardEntry::getRank);
+    }
+
+    private GameFilter gameFilter() {
+        return new GameFilter(null, gamePlayerFilter.getValue(), gameFromFilter.getValue(), gameToFilter.getValue());
+    }
+
+    private Stream<Game> fetchGames(GameFilter filter, Query<Game, Void> query) {
+        return rankingService.getGameHistory(filter, toSpringPageRequest(query)).stream();
+    }
+
+    private int countGames(GameFilter filter) {
+        return (int) rankingService.countGameHistory(filter);
     }
 
     private void refreshGamesGrid() {
         logger.info("Refreshing games grid");
-        List<Game> games = rankingService.getGameHistory();
-        logger.info("Found {} games", games.size());
-        if (!games.isEmpty()) {
-            Game firstGame = games.get(0);
-            logger.info("First game - Player1: {}, Player2: {}", 
-                firstGame.getPlayer1() != null ? firstGame.getPlayer1().getFullName() : "null",
-                firstGame.getPlayer2() != null ? firstGame.getPlayer2().getFullName() : "null");
-        }
-        gamesGrid.setItems(games);
+        gamesGrid.getDataProvider().refreshAll();
     }
 
-    private void showPlayerHistory(Member member) {
+    private void showPlayerHistory(LeaderboardEntry member) {
         Dialog dialog = new Dialog();
         dialog.setWidth("800px");
 
         Grid<Game> historyGrid = new Grid<>();
-        historyGrid.setItems(memberService.getPlayerGameHistory(member.getId()));
+        GameFilter playerGames = GameFilter.forPlayer(member.getId());
+        historyGrid.setItems(query -> fetchGames(playerGames, query), query -> countGames(playerGames));
 
-        historyGrid.addColumn(game -> game.getPlayedAt().toString()).setHeader("Date");
+        historyGrid.addColumn(game -> game.getPlayedAt().toString()).setHeader("Date").setSortProperty("playedAt");
         historyGrid.addColumn(game -> {
-            if (game.getPlayer1().equals(member)) return game.getPlayer2().getFullName();
+            if (game.getPlayer1().getId().equals(member.getId())) return game.getPlayer2().getFullName();
             return game.getPlayer1().getFullName();
         }).setHeader("Opponent");
         historyGrid.addColumn(game -> {
-            if (game.getPlayer1().equals(member)) return game.getPlayer1Score() + " - " + game.getPlayer2Score();
+            if (game.getPlayer1().getId().equals(member.getId())) return game.getPlayer1Score() + " - " + game.getPlayer2Score();
             return game.getPlayer2Score() + " - " + game.getPlayer1Score();
         }).setHeader("Score");
         historyGrid.addColumn(game -> {
-            if (game.getPlayer1().equals(member)) {
+            if (game.getPlayer1().getId().equals(member.getId())) {
                 return game.getPlayer1RankBefore() + " → " + game.getPlayer1RankAfter();
             } else {
                 return game.getPlayer2RankBefore() + " → " + game.getPlayer2RankAfter();
@@ -180,7 +318,7 @@ public class MainView extends VerticalLayout {
         historyGrid.addColumn(game -> {
             if (game.isDraw()) return "Draw";
             Member winner = game.getWinner();
-            if (winner != null && winner.equals(member)) return "Won";
+            if (winner != null && winner.getId().equals(member.getId())) return "Won";
             return "Lost";
         }).setHeader("Result");
 
@@ -188,11 +326,6 @@ public class MainView extends VerticalLayout {
         dialog.open();
     }
 
-    private void refreshGrid() {
-        List<Member> members = memberService.getAllMembers();
-        membersGrid.setItems(members);
-    }
-
     private void showErrorNotification(String title, String message, Exception ex) {
         Dialog errorDialog = new Dialog();
         errorDialog.setWidth("500px");
@@ -249,7 +382,6 @@ public class MainView extends VerticalLayout {
 
                 Member savedMember = memberService.createMember(member);
                 if (savedMember != null && savedMember.getId() != null) {
-                    refreshGrid();
                     dialog.close();
                     Notification.show("Member added successfully!", 3000, Notification.Position.MIDDLE);
                 } else {
@@ -279,25 +411,25 @@ public class MainView extends VerticalLayout {
         Dialog dialog = new Dialog();
         FormLayout form = new FormLayout();
 
-        List<Member> members = memberService.getAllMembers();
+        List<LeaderboardEntry> members = leaderboardService.current().getEntries();
 
-        ComboBox<Member> player1Combo = new ComboBox<>("Player 1");
+        ComboBox<LeaderboardEntry> player1Combo = new ComboBox<>("Player 1");
         player1Combo.setItems(members);
-        player1Combo.setItemLabelGenerator(Member::getFullName);
+        player1Combo.setItemLabelGenerator(LeaderboardEntry::getFullName);
 
-        ComboBox<Member> player2Combo = new ComboBox<>("Player 2");
+        ComboBox<LeaderboardEntry> player2Combo = new ComboBox<>("Player 2");
         player2Combo.setItems(members);
-        player2Combo.setItemLabelGenerator(Member::getFullName);
+        player2Combo.setItemLabelGenerator(LeaderboardEntry::getFullName);
 
         TextField player1ScoreField = new TextField("Player 1 Score");
         TextField player2ScoreField = new TextField("Player 2 Score");
 
         Button saveBtn = new Button("Record Match", e -> {
             try {
-                Member player1 = player1Combo.getValue();
-                Member player2 = player2Combo.getValue();
+                LeaderboardEntry player1 = player1Combo.getValue();
+                LeaderboardEntry player2 = player2Combo.getValue();
 
-                if (player1 == null || player2 == null || player1.equals(player2)) {
+                if (player1 == null || player2 == null || player1.getId().equals(player2.getId())) {
                     Notification.show("Please select two different players", 3000, Notification.Position.MIDDLE);
                     return;
                 }
@@ -323,7 +455,7 @@ public class MainView extends VerticalLayout {
                 Game recordedGame = rankingService.recordMatch(player1.getId(), player2.getId(), player1Score, player2Score);
                 
                 if (recordedGame != null && recordedGame.getId() != null) {
-                    refreshAll(); // Refresh both members and games grids
+                    refreshGamesGrid(); // The members grid is updated through the leaderboard feed
                     dialog.close();
                     Notification.show("Match recorded successfully! Rankings updated.", 3000, Notification.Position.MIDDLE);
                 } else {
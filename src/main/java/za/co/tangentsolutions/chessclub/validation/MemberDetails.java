@@ -0,0 +1,8 @@
+package za.co.tangentsolutions.chessclub.validation;
+
+/**
+ * Validation group for the member constraints that need no lookup, i.e. all of them except
+ * {@link UniqueEmail}. Bulk imports check uniqueness once per batch instead of once per row.
+ */
+public interface MemberDetails {
+}
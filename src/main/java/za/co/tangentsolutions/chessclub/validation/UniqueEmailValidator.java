@@ -7,12 +7,16 @@ import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.BeanFactoryAware;
 import org.springframework.stereotype.Component;
 import za.co.tangentsolutions.chessclub.repositories.MemberRepository;
+import za.co.tangentsolutions.chessclub.services.ClubMetrics;
+import za.co.tangentsolutions.chessclub.services.EmailIndex;
 
 @Component
 public class UniqueEmailValidator implements ConstraintValidator<UniqueEmail, String>, BeanFactoryAware {
 
     private BeanFactory beanFactory;
     private MemberRepository memberRepository;
+    private ClubMetrics clubMetrics;
+    private EmailIndex emailIndex;
 
     @Override
     public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
@@ -24,6 +28,8 @@ public class UniqueEmailValidator implements ConstraintValidator<UniqueEmail, St
         // Get the repository from the bean factory when the validator is initialized
         try {
             this.memberRepository = beanFactory.getBean(MemberRepository.class);
+            this.clubMetrics = beanFactory.getBean(ClubMetrics.class);
+            this.emailIndex = beanFactory.getBean(EmailIndex.class);
         } catch (Exception e) {
             // If we can't get the repository, we'll handle it gracefully
             System.err.println("Warning: Could not get MemberRepository bean: " + e.getMessage());
@@ -37,14 +43,29 @@ public class UniqueEmailValidator implements ConstraintValidator<UniqueEmail, St
             return true;
         }
 
+        // The in-memory index answers without a query once it has been loaded
+        if (emailIndex != null && emailIndex.isReady()) {
+            long start = System.nanoTime();
+            boolean registered = emailIndex.contains(email);
+            if (clubMetrics != null) {
+                clubMetrics.emailChecked(true, start);
+            }
+            return !registered;
+        }
+
         // Use your repository to check if an email already exists
         if (memberRepository != null) {
+            long start = System.nanoTime();
             try {
                 return !memberRepository.existsByEmail(email);
             } catch (Exception e) {
                 // If there's an error checking the email, assume it's valid to avoid blocking
                 System.err.println("Error checking email uniqueness: " + e.getMessage());
                 return true;
+            } finally {
+                if (clubMetrics != null) {
+                    clubMetrics.emailChecked(false, start);
+                }
             }
         }
         
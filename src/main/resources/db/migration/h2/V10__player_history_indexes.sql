@@ -0,0 +1,3 @@
+-- A player's games are looked up by either seat and read newest first
+CREATE INDEX idx_games_player1_played_at ON games (player1_id, played_at);
+CREATE INDEX idx_games_player2_played_at ON games (player2_id, played_at);
@@ -0,0 +1,8 @@
+-- Stamped on the primary and read back from a read replica to measure replication lag
+CREATE TABLE replica_heartbeat (
+    id INTEGER NOT NULL,
+    beat_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+INSERT INTO replica_heartbeat (id, beat_at) VALUES (1, CURRENT_TIMESTAMP);
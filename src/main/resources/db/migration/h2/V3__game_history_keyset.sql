@@ -0,0 +1,2 @@
+-- Game history pages are keyed on (played_at, id), newest first
+CREATE INDEX idx_games_played_at_id ON games (played_at DESC, id DESC);
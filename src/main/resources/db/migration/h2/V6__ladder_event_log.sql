@@ -0,0 +1,22 @@
+-- The ladder is rebuilt from the latest snapshot plus the events after it; on an existing database the
+-- first snapshot is taken from the ranks when the application starts
+CREATE TABLE ladder_events (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    type ENUM ('JOINED','LEFT','MATCH') NOT NULL,
+    member_id BIGINT NOT NULL,
+    opponent_id BIGINT,
+    game_id BIGINT,
+    member_score INTEGER,
+    opponent_score INTEGER,
+    occurred_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE ladder_snapshots (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    last_event_id BIGINT NOT NULL UNIQUE,
+    member_count INTEGER NOT NULL,
+    member_ids BLOB NOT NULL,
+    taken_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id)
+);
@@ -0,0 +1,4 @@
+-- Existing members start unrated; a rating recalculation replays their games
+ALTER TABLE members ADD COLUMN rating FLOAT(53) DEFAULT 1500 NOT NULL;
+ALTER TABLE members ADD COLUMN rating_deviation FLOAT(53) DEFAULT 350 NOT NULL;
+ALTER TABLE members ADD COLUMN rating_volatility FLOAT(53) DEFAULT 0.06 NOT NULL;
@@ -0,0 +1,2 @@
+-- Set when a client retries a match submission under the same Idempotency-Key
+ALTER TABLE games ADD COLUMN idempotency_key VARCHAR(100) UNIQUE;
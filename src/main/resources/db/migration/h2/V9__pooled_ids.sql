@@ -0,0 +1,11 @@
+-- Member and game ids move from IDENTITY to sequences Hibernate draws 50 ids from at a time. The block
+-- ends at the value drawn, so each sequence starts 50 past the largest id already taken.
+CREATE SEQUENCE members_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE games_seq START WITH 1 INCREMENT BY 50;
+
+ALTER SEQUENCE members_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM members);
+ALTER SEQUENCE games_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM games);
+
+-- Left in place, the identity defaults would hand out ids inside blocks Hibernate has reserved
+ALTER TABLE members ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE games ALTER COLUMN id DROP IDENTITY;
@@ -0,0 +1,29 @@
+-- The schema as Hibernate generated it before migrations took over; databases created that way are
+-- baselined at this version and pick up the later changes from V2 on
+CREATE TABLE members (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    name VARCHAR(255) NOT NULL,
+    surname VARCHAR(255) NOT NULL,
+    email VARCHAR(255) NOT NULL UNIQUE,
+    birthday DATE NOT NULL,
+    games_played INTEGER NOT NULL,
+    rank INTEGER NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE games (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    player1_id BIGINT NOT NULL,
+    player2_id BIGINT NOT NULL,
+    player1_score INTEGER NOT NULL CHECK (player1_score >= 0),
+    player2_score INTEGER NOT NULL CHECK (player2_score >= 0),
+    played_at TIMESTAMP(6) NOT NULL,
+    player1_rank_before INTEGER,
+    player2_rank_before INTEGER,
+    player1_rank_after INTEGER,
+    player2_rank_after INTEGER,
+    PRIMARY KEY (id)
+);
+
+ALTER TABLE games ADD CONSTRAINT fk_games_player1 FOREIGN KEY (player1_id) REFERENCES members;
+ALTER TABLE games ADD CONSTRAINT fk_games_player2 FOREIGN KEY (player2_id) REFERENCES members;
@@ -0,0 +1,7 @@
+-- Ranks are read in order, and gapped mode keeps a sortable position spaced by the default gap of 1024
+ALTER TABLE members ADD COLUMN ladder_position BIGINT;
+UPDATE members SET ladder_position = rank * 1024;
+ALTER TABLE members ALTER COLUMN ladder_position SET NOT NULL;
+
+CREATE INDEX idx_members_rank ON members (rank);
+CREATE INDEX idx_members_ladder_position ON members (ladder_position);
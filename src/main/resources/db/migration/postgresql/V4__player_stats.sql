@@ -0,0 +1,51 @@
+CREATE TABLE player_stats (
+    member_id BIGINT NOT NULL,
+    wins INTEGER NOT NULL,
+    losses INTEGER NOT NULL,
+    draws INTEGER NOT NULL,
+    current_streak INTEGER NOT NULL,
+    longest_win_streak INTEGER NOT NULL,
+    best_rank INTEGER,
+    last_played_at TIMESTAMP(6),
+    PRIMARY KEY (member_id)
+);
+
+-- Backfilled from the games already played. Streaks are runs of equal results in play order:
+-- the last run is the current streak (negative for losses, zero after a draw)
+INSERT INTO player_stats (member_id, wins, losses, draws, current_streak, longest_win_streak, best_rank, last_played_at)
+WITH results AS (
+    SELECT id, player1_id AS member_id, played_at,
+           CASE WHEN player1_score > player2_score THEN 1 WHEN player1_score < player2_score THEN -1 ELSE 0 END AS result,
+           LEAST(player1_rank_before, player1_rank_after) AS best_rank
+    FROM games
+    UNION ALL
+    SELECT id, player2_id, played_at,
+           CASE WHEN player2_score > player1_score THEN 1 WHEN player2_score < player1_score THEN -1 ELSE 0 END,
+           LEAST(player2_rank_before, player2_rank_after)
+    FROM games
+), ordered AS (
+    SELECT member_id, result, played_at, best_rank,
+           ROW_NUMBER() OVER (PARTITION BY member_id ORDER BY played_at, id) AS seq
+    FROM results
+), runs AS (
+    SELECT member_id, result, COUNT(*) AS length, MAX(seq) AS last_seq
+    FROM (SELECT member_id, result, seq,
+                 seq - ROW_NUMBER() OVER (PARTITION BY member_id, result ORDER BY seq) AS run
+          FROM ordered) r
+    GROUP BY member_id, result, run
+), totals AS (
+    SELECT member_id,
+           SUM(CASE WHEN result > 0 THEN 1 ELSE 0 END) AS wins,
+           SUM(CASE WHEN result < 0 THEN 1 ELSE 0 END) AS losses,
+           SUM(CASE WHEN result = 0 THEN 1 ELSE 0 END) AS draws,
+           COUNT(*) AS played,
+           MIN(best_rank) AS best_rank,
+           MAX(played_at) AS last_played_at
+    FROM ordered
+    GROUP BY member_id
+)
+SELECT t.member_id, t.wins, t.losses, t.draws,
+       (SELECT c.result * c.length FROM runs c WHERE c.member_id = t.member_id AND c.last_seq = t.played),
+       COALESCE((SELECT MAX(w.length) FROM runs w WHERE w.member_id = t.member_id AND w.result > 0), 0),
+       t.best_rank, t.last_played_at
+FROM totals t;
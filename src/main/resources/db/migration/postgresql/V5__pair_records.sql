@@ -0,0 +1,29 @@
+-- Games between the same two players are found by the ordered pair, whichever seat each took
+ALTER TABLE games ADD COLUMN player_low_id BIGINT;
+ALTER TABLE games ADD COLUMN player_high_id BIGINT;
+UPDATE games SET player_low_id = LEAST(player1_id, player2_id), player_high_id = GREATEST(player1_id, player2_id);
+ALTER TABLE games ALTER COLUMN player_low_id SET NOT NULL;
+ALTER TABLE games ALTER COLUMN player_high_id SET NOT NULL;
+
+CREATE INDEX idx_games_pair_played_at ON games (player_low_id, player_high_id, played_at DESC);
+
+CREATE TABLE pair_records (
+    player_low_id BIGINT NOT NULL,
+    player_high_id BIGINT NOT NULL,
+    low_wins INTEGER NOT NULL,
+    high_wins INTEGER NOT NULL,
+    draws INTEGER NOT NULL,
+    last_played_at TIMESTAMP(6),
+    PRIMARY KEY (player_high_id, player_low_id)
+);
+
+INSERT INTO pair_records (player_low_id, player_high_id, low_wins, high_wins, draws, last_played_at)
+SELECT player_low_id, player_high_id,
+       SUM(CASE WHEN (player1_id = player_low_id AND player1_score > player2_score)
+                  OR (player2_id = player_low_id AND player2_score > player1_score) THEN 1 ELSE 0 END),
+       SUM(CASE WHEN (player1_id = player_high_id AND player1_score > player2_score)
+                  OR (player2_id = player_high_id AND player2_score > player1_score) THEN 1 ELSE 0 END),
+       SUM(CASE WHEN player1_score = player2_score THEN 1 ELSE 0 END),
+       MAX(played_at)
+FROM games
+GROUP BY player_low_id, player_high_id;
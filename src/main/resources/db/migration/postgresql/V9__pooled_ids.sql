@@ -0,0 +1,14 @@
+-- Member and game ids move from IDENTITY to sequences Hibernate draws 50 ids from at a time. The block
+-- ends at the value drawn, so each sequence starts 50 past the largest id already taken.
+CREATE SEQUENCE members_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE games_seq START WITH 1 INCREMENT BY 50;
+
+SELECT setval('members_seq', COALESCE((SELECT MAX(id) FROM members), 0) + 50, false);
+SELECT setval('games_seq', COALESCE((SELECT MAX(id) FROM games), 0) + 50, false);
+
+-- Left in place, the identity defaults would hand out ids inside blocks Hibernate has reserved. A
+-- serial column created before Hibernate 6 has a plain default instead.
+ALTER TABLE members ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE games ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE members ALTER COLUMN id DROP DEFAULT;
+ALTER TABLE games ALTER COLUMN id DROP DEFAULT;
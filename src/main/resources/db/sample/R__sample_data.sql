@@ -0,0 +1,68 @@
+-- Sample members and games for the in-memory development database, applied after the migrations
+
+-- Insert test members
+INSERT INTO members (id, name, surname, email, birthday, games_played, rank, ladder_position) VALUES
+(1, 'John', 'Doe', 'john.doe@email.com', '1985-05-15', 10, 1, 1024),
+(2, 'Jane', 'Smith', 'jane.smith@email.com', '1990-08-22', 8, 2, 2048),
+(3, 'Mike', 'Johnson', 'mike.johnson@email.com', '1988-12-03', 12, 3, 3072),
+(4, 'Sarah', 'Wilson', 'sarah.wilson@email.com', '1992-03-30', 5, 4, 4096),
+(5, 'David', 'Brown', 'david.brown@email.com', '1987-07-14', 7, 5, 5120),
+(6, 'Emily', 'Davis', 'emily.davis@email.com', '1995-11-08', 3, 6, 6144);
+
+-- Insert some sample games
+INSERT INTO games (id, player1_id, player2_id, player1_score, player2_score, played_at, 
+                  player1_rank_before, player2_rank_before, player1_rank_after, player2_rank_after,
+                  player_low_id, player_high_id) 
+SELECT 
+    1, p1.id, p2.id, 1, 0, DATEADD('DAY', -7, CURRENT_TIMESTAMP),
+    p1.rank, p2.rank, p1.rank, p2.rank,
+    LEAST(p1.id, p2.id), GREATEST(p1.id, p2.id)
+FROM members p1, members p2 
+WHERE p1.rank = 1 AND p2.rank = 2;
+
+INSERT INTO games (id, player1_id, player2_id, player1_score, player2_score, played_at, 
+                  player1_rank_before, player2_rank_before, player1_rank_after, player2_rank_after,
+                  player_low_id, player_high_id) 
+SELECT 
+    2, p1.id, p2.id, 0, 1, DATEADD('DAY', -5, CURRENT_TIMESTAMP),
+    p1.rank, p2.rank, p1.rank + 1, p2.rank - 1,
+    LEAST(p1.id, p2.id), GREATEST(p1.id, p2.id)
+FROM members p1, members p2 
+WHERE p1.rank = 3 AND p2.rank = 6;
+
+-- Ids are pooled 50 at a time, and Hibernate takes the block below the first value it draws,
+-- so start the sequences well past the rows above
+ALTER SEQUENCE members_seq RESTART WITH 101;
+ALTER SEQUENCE games_seq RESTART WITH 101;
+
+-- Statistics for the sample games above
+INSERT INTO player_stats (member_id, wins, losses, draws, current_streak, longest_win_streak, best_rank, last_played_at)
+SELECT m.id,
+       (SELECT COUNT(*) FROM games g WHERE (g.player1_id = m.id AND g.player1_score > g.player2_score)
+                                        OR (g.player2_id = m.id AND g.player2_score > g.player1_score)),
+       (SELECT COUNT(*) FROM games g WHERE (g.player1_id = m.id AND g.player1_score < g.player2_score)
+                                        OR (g.player2_id = m.id AND g.player2_score < g.player1_score)),
+       0,
+       (SELECT CASE WHEN (g.player1_id = m.id AND g.player1_score > g.player2_score)
+                      OR (g.player2_id = m.id AND g.player2_score > g.player1_score) THEN 1 ELSE -1 END
+        FROM games g WHERE g.player1_id = m.id OR g.player2_id = m.id),
+       (SELECT CASE WHEN (g.player1_id = m.id AND g.player1_score > g.player2_score)
+                      OR (g.player2_id = m.id AND g.player2_score > g.player1_score) THEN 1 ELSE 0 END
+        FROM games g WHERE g.player1_id = m.id OR g.player2_id = m.id),
+       (SELECT MIN(CASE WHEN g.player1_id = m.id THEN LEAST(g.player1_rank_before, g.player1_rank_after)
+                        ELSE LEAST(g.player2_rank_before, g.player2_rank_after) END)
+        FROM games g WHERE g.player1_id = m.id OR g.player2_id = m.id),
+       (SELECT MAX(g.played_at) FROM games g WHERE g.player1_id = m.id OR g.player2_id = m.id)
+FROM members m
+WHERE EXISTS (SELECT 1 FROM games g WHERE g.player1_id = m.id OR g.player2_id = m.id);
+
+INSERT INTO pair_records (player_low_id, player_high_id, low_wins, high_wins, draws, last_played_at)
+SELECT g.player_low_id, g.player_high_id,
+       SUM(CASE WHEN (g.player1_id = g.player_low_id AND g.player1_score > g.player2_score)
+                  OR (g.player2_id = g.player_low_id AND g.player2_score > g.player1_score) THEN 1 ELSE 0 END),
+       SUM(CASE WHEN (g.player1_id = g.player_high_id AND g.player1_score > g.player2_score)
+                  OR (g.player2_id = g.player_high_id AND g.player2_score > g.player1_score) THEN 1 ELSE 0 END),
+       SUM(CASE WHEN g.player1_score = g.player2_score THEN 1 ELSE 0 END),
+       MAX(g.played_at)
+FROM games g
+GROUP BY g.player_low_id, g.player_high_id;
@@ -0,0 +1,132 @@
+package za.co.tangentsolutions.chessclub.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.annotation.DirtiesContext;
+import za.co.tangentsolutions.chessclub.models.Game;
+import za.co.tangentsolutions.chessclub.models.Member;
+import za.co.tangentsolutions.chessclub.services.MemberService;
+import za.co.tangentsolutions.chessclub.services.RankingService;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two in-memory H2 databases stand in for the primary and its replica. Replication is simulated:
+ * the replica gets one member and one game the primary does not have, and its heartbeat is set by hand.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing_primary;DB_CLOSE_DELAY=-1",
+        "chessclub.datasource.replica.enabled=true",
+        "chessclub.datasource.replica.url=" + ReplicaRoutingTest.REPLICA_URL,
+        "chessclub.datasource.replica.username=sa",
+        "chessclub.datasource.replica.max-lag=PT5S",
+        "chessclub.datasource.replica.lag-check-interval=PT1H"
+})
+class ReplicaRoutingTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:routing_replica;DB_CLOSE_DELAY=-1";
+    private static final String REPLICA_ONLY_EMAIL = "replica.only@email.com";
+
+    private static final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    @Autowired
+    private MemberService memberService;
+
+    @Autowired
+    private RankingService rankingService;
+
+    @Autowired
+    private ReplicaLagMonitor monitor;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private HikariDataSource replicaDataSource;
+
+    @BeforeAll
+    static void createReplica() {
+        Flyway.configure().dataSource(REPLICA_URL, "sa", "")
+                .locations("classpath:db/migration/h2", "classpath:db/sample")
+                .load().migrate();
+        if (replica.queryForObject("SELECT COUNT(*) FROM members WHERE email = ?", Integer.class, REPLICA_ONLY_EMAIL) == 0) {
+            replica.update("INSERT INTO members (id, name, surname, email, birthday, games_played, rank, ladder_position) "
+                    + "VALUES (999, 'Replica', 'Only', ?, '1990-01-01', 0, 7, 7168)", REPLICA_ONLY_EMAIL);
+            replica.update("INSERT INTO games (id, player1_id, player2_id, player1_score, player2_score, played_at, "
+                    + "player1_rank_before, player2_rank_before, player1_rank_after, player2_rank_after, "
+                    + "player_low_id, player_high_id) VALUES (999, 1, 999, 1, 0, CURRENT_TIMESTAMP, 1, 7, 1, 7, 1, 999)");
+        }
+    }
+
+    @Test
+    void readOnlyReads_WhenReplicaIsFresh_ShouldUseReplica() {
+        replicatedAt(Instant.now());
+
+        assertTrue(monitor.isUsable());
+        assertTrue(memberService.getAllMembers().stream().anyMatch(m -> REPLICA_ONLY_EMAIL.equals(m.getEmail())));
+        assertTrue(rankingService.getPlayerGameHistory(999L).stream().map(Game::getId).anyMatch(id -> id == 999L));
+        assertTrue(rankingService.getGameHistoryPage(null, 50).items().stream().anyMatch(g -> g.getId() == 999L));
+    }
+
+    @Test
+    void readOnlyReads_WhenReplicaIsBehind_ShouldUsePrimary() {
+        replicatedAt(Instant.now().minus(1, ChronoUnit.MINUTES));
+
+        assertFalse(monitor.isUsable());
+        assertTrue(monitor.lagSeconds() >= 60);
+        assertTrue(memberService.getAllMembers().stream().noneMatch(m -> REPLICA_ONLY_EMAIL.equals(m.getEmail())));
+        assertTrue(rankingService.getPlayerGameHistory(999L).isEmpty());
+    }
+
+    @Test
+    void lag_WhenReplicaHasLatestBeat_ShouldBeZero() {
+        Instant latest = Instant.now().minus(1, ChronoUnit.MINUTES);
+        jdbcTemplate.update("UPDATE replica_heartbeat SET beat_at = ? WHERE id = 1", Timestamp.from(latest));
+        replica.update("UPDATE replica_heartbeat SET beat_at = ? WHERE id = 1", Timestamp.from(latest));
+
+        monitor.check();
+
+        assertEquals(0.0, monitor.lagSeconds());
+        assertTrue(monitor.isUsable());
+    }
+
+    @Test
+    void writes_ShouldGoToPrimary() {
+        replicatedAt(Instant.now());
+
+        memberService.createMember(new Member("Primary", "Write", "primary.write@email.com", LocalDate.of(1991, 1, 1), 0));
+
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM members WHERE email = 'primary.write@email.com'", Integer.class));
+        assertEquals(0, replica.queryForObject(
+                "SELECT COUNT(*) FROM members WHERE email = 'primary.write@email.com'", Integer.class));
+    }
+
+    @Test
+    @DirtiesContext
+    void readOnlyReads_WhenReplicaIsDown_ShouldUsePrimary() {
+        replicatedAt(Instant.now());
+        replicaDataSource.close();
+
+        assertTrue(memberService.getAllMembers().stream().noneMatch(m -> REPLICA_ONLY_EMAIL.equals(m.getEmail())));
+        assertFalse(monitor.isUsable());
+    }
+
+    // Sets the replica's copy of the heartbeat, as if replication had last caught up at that instant
+    private void replicatedAt(Instant instant) {
+        jdbcTemplate.update("UPDATE replica_heartbeat SET beat_at = ? WHERE id = 1", Timestamp.from(Instant.now()));
+        replica.update("UPDATE replica_heartbeat SET beat_at = ? WHERE id = 1", Timestamp.from(instant));
+        monitor.check();
+    }
+}
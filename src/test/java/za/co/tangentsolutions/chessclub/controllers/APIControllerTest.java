@@ -1,5 +1,6 @@
 package za.co.tangentsolutions.chessclub.controllers;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -8,19 +9,49 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import za.co.tangentsolutions.chessclub.models.Game;
+import za.co.tangentsolutions.chessclub.models.GameCursor;
+import za.co.tangentsolutions.chessclub.models.HeadToHead;
+import za.co.tangentsolutions.chessclub.models.KeysetPage;
+import za.co.tangentsolutions.chessclub.models.LeaderboardEntry;
+import za.co.tangentsolutions.chessclub.models.LeaderboardSnapshot;
+import za.co.tangentsolutions.chessclub.models.MatchResult;
+import za.co.tangentsolutions.chessclub.models.MatchSubmission;
+import za.co.tangentsolutions.chessclub.models.MatchTicket;
 import za.co.tangentsolutions.chessclub.models.Member;
+import za.co.tangentsolutions.chessclub.models.MemberImportReport;
+import za.co.tangentsolutions.chessclub.models.PlayerStats;
+import za.co.tangentsolutions.chessclub.services.ClubMetrics;
+import za.co.tangentsolutions.chessclub.services.IdempotencyConflictException;
+import za.co.tangentsolutions.chessclub.services.LeaderboardService;
+import za.co.tangentsolutions.chessclub.services.MatchExportService;
+import za.co.tangentsolutions.chessclub.services.MatchSubmissionQueue;
+import za.co.tangentsolutions.chessclub.services.MemberImportService;
 import za.co.tangentsolutions.chessclub.services.MemberService;
+import za.co.tangentsolutions.chessclub.services.RankingChangeStream;
 import za.co.tangentsolutions.chessclub.services.RankingService;
 
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.RejectedExecutionException;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -37,9 +68,31 @@ class APIControllerTest {
     @MockBean
     private RankingService rankingService;
 
+    @MockBean
+    private LeaderboardService leaderboardService;
+
+    @MockBean
+    private MatchExportService matchExportService;
+
+    @MockBean
+    private MatchSubmissionQueue matchSubmissionQueue;
+
+    @MockBean
+    private MemberImportService memberImportService;
+
+    @MockBean
+    private RankingChangeStream rankingChangeStream;
+
+    @MockBean
+    private ClubMetrics clubMetrics;
+
     @Autowired
     private ObjectMapper objectMapper;
 
+    private static final String GAME_REQUEST = """
+            {"player1": {"id": 1}, "player2": {"id": 2}, "player1Score": 1, "player2Score": 0}
+            """;
+
     private Member testMember;
     private Game testGame;
 
@@ -57,17 +110,144 @@ class APIControllerTest {
         testGame.setId(1L);
     }
 
+    private LeaderboardSnapshot leaderboard() throws Exception {
+        List<LeaderboardEntry> entries = Collections.singletonList(LeaderboardEntry.of(testMember, 1));
+        return new LeaderboardSnapshot(7, "\"test-7\"", entries, objectMapper.writeValueAsBytes(entries));
+    }
+
     @Test
     void getAllMembers_ShouldReturnMembersList() throws Exception {
-        when(memberService.getAllMembers()).thenReturn(Collections.singletonList(testMember));
+        when(leaderboardService.current()).thenReturn(leaderboard());
 
         mockMvc.perform(get("/api/members"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().string("ETag", "\"test-7\""))
                 .andExpect(jsonPath("$[0].id").value(1))
                 .andExpect(jsonPath("$[0].name").value("John"))
                 .andExpect(jsonPath("$[0].surname").value("Doe"))
-                .andExpect(jsonPath("$[0].email").value("john.doe@example.com"));
+                .andExpect(jsonPath("$[0].email").value("john.doe@example.com"))
+                .andExpect(jsonPath("$[0].birthday").value("1990-01-01"))
+                .andExpect(jsonPath("$[0].rank").value(1));
+    }
+
+    @Test
+    void getAllMembers_WithCurrentETag_ShouldReturnNotModified() throws Exception {
+        when(leaderboardService.current()).thenReturn(leaderboard());
+
+        mockMvc.perform(get("/api/members").header("If-None-Match", "\"test-7\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        verify(clubMetrics).leaderboardRead(eq(true), anyLong());
+    }
+
+    @Test
+    void getAllMembers_WithStaleETag_ShouldReturnMembersList() throws Exception {
+        when(leaderboardService.current()).thenReturn(leaderboard());
+
+        mockMvc.perform(get("/api/members").header("If-None-Match", "\"test-6\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1));
+    }
+
+    @Test
+    void membersPage_ShouldReturnItemsAndNextCursor() throws Exception {
+        when(memberService.getMembersPage(0, 1)).thenReturn(new KeysetPage<>(List.of(testMember), "1"));
+
+        mockMvc.perform(get("/api/members/page").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(1))
+                .andExpect(jsonPath("$.nextCursor").value("1"));
+    }
+
+    @Test
+    void membersPage_WithOversizedLimit_ShouldReturn400() throws Exception {
+        mockMvc.perform(get("/api/members/page").param("limit", "100000"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void matchesPage_ShouldPassDecodedCursor() throws Exception {
+        GameCursor cursor = GameCursor.after(testGame);
+        when(rankingService.getGameHistoryPage(eq(cursor), eq(20))).thenReturn(new KeysetPage<>(List.of(testGame), null));
+
+        mockMvc.perform(get("/api/matches/page").param("cursor", cursor.encode()).param("limit", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(1))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void exportMatches_AsCsv_ShouldStreamExporterOutput() throws Exception {
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(0);
+            out.write("id,played_at\n1,2024-03-01T18:30\n".getBytes());
+            return 1L;
+        }).when(matchExportService).writeCsv(any());
+
+        MvcResult result = mockMvc.perform(get("/api/matches/export").param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"matches.csv\""))
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(content().string("id,played_at\n1,2024-03-01T18:30\n"));
+    }
+
+    @Test
+    void exportMatches_WithUnknownFormat_ShouldReturn400() throws Exception {
+        mockMvc.perform(get("/api/matches/export").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void matchesPage_WithInvalidCursor_ShouldReturn400() throws Exception {
+        mockMvc.perform(get("/api/matches/page").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getPlayerStats_WhenMemberExists_ShouldReturnStats() throws Exception {
+        PlayerStats stats = new PlayerStats(1L);
+        stats.recordGame(1, 0, 2, 1, LocalDate.of(2024, 3, 1).atStartOfDay());
+        when(rankingService.getPlayerStats(1L)).thenReturn(Optional.of(stats));
+
+        mockMvc.perform(get("/api/members/1/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.memberId").value(1))
+                .andExpect(jsonPath("$.wins").value(1))
+                .andExpect(jsonPath("$.gamesPlayed").value(1))
+                .andExpect(jsonPath("$.bestRank").value(1))
+                .andExpect(jsonPath("$.new").doesNotExist());
+    }
+
+    @Test
+    void getPlayerStats_WhenMemberNotFound_ShouldReturn404() throws Exception {
+        when(rankingService.getPlayerStats(999L)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/members/999/stats"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getHeadToHead_ShouldReturnRecordAndRecentGames() throws Exception {
+        HeadToHead headToHead = new HeadToHead(1L, 2L, 1, 0, 0, 1, testGame.getPlayedAt(), List.of(testGame));
+        when(rankingService.getHeadToHead(1L, 2L, 10)).thenReturn(Optional.of(headToHead));
+
+        mockMvc.perform(get("/api/members/1/head-to-head/2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.wins").value(1))
+                .andExpect(jsonPath("$.gamesPlayed").value(1))
+                .andExpect(jsonPath("$.recentGames[0].id").value(1))
+                .andExpect(jsonPath("$.recentGames[0].playerLowId").doesNotExist());
+    }
+
+    @Test
+    void getHeadToHead_WithSameMemberTwice_ShouldReturn400() throws Exception {
+        mockMvc.perform(get("/api/members/1/head-to-head/1"))
+                .andExpect(status().isBadRequest());
     }
 
     @Test
@@ -82,6 +262,25 @@ class APIControllerTest {
                 .andExpect(jsonPath("$.surname").value("Doe"));
     }
 
+    @Test
+    void getAllMembers_ShouldSerializeMembersLikeGetMemberById() throws Exception {
+        testMember.setRating(1612.5);
+        when(leaderboardService.current()).thenReturn(leaderboard());
+        when(memberService.getMemberById(1L)).thenReturn(Optional.of(testMember));
+
+        JsonNode listed = objectMapper.readTree(mockMvc.perform(get("/api/members"))
+                .andReturn().getResponse().getContentAsByteArray()).get(0);
+        JsonNode single = objectMapper.readTree(mockMvc.perform(get("/api/members/1"))
+                .andReturn().getResponse().getContentAsByteArray());
+
+        Set<String> listedFields = new TreeSet<>();
+        listed.fieldNames().forEachRemaining(listedFields::add);
+        Set<String> singleFields = new TreeSet<>();
+        single.fieldNames().forEachRemaining(singleFields::add);
+        assertEquals(singleFields, listedFields);
+        assertEquals(1612.5, listed.get("rating").asDouble());
+    }
+
     @Test
     void getMemberById_WhenMemberNotFound_ShouldReturn404() throws Exception {
         when(memberService.getMemberById(999L)).thenReturn(Optional.empty());
@@ -162,7 +361,7 @@ class APIControllerTest {
 
     @Test
     void addGame_WithValidData_ShouldReturnCreatedGame() throws Exception {
-        when(rankingService.recordMatch(anyLong(), anyLong(), any(Integer.class), any(Integer.class)))
+        when(rankingService.recordMatch(anyLong(), anyLong(), any(Integer.class), any(Integer.class), isNull()))
                 .thenReturn(testGame);
 
         String gameRequest = """
@@ -198,6 +397,175 @@ class APIControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void addGame_WithIdempotencyKeyOfAnotherMatch_ShouldReturn409() throws Exception {
+        when(rankingService.recordMatch(1L, 2L, 1, 0, "result-17"))
+                .thenThrow(new IdempotencyConflictException());
+
+        mockMvc.perform(post("/api/matches")
+                        .header("Idempotency-Key", "result-17")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(GAME_REQUEST))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void addGame_WhenWriterFails_ShouldReturn500() throws Exception {
+        when(rankingService.recordMatch(1L, 2L, 1, 0, null))
+                .thenThrow(new IllegalStateException("Interrupted while waiting for the ladder writer"));
+
+        mockMvc.perform(post("/api/matches")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(GAME_REQUEST))
+                .andExpect(status().isInternalServerError());
+    }
+
+    @Test
+    void addGame_WhenWriterQueueIsFull_ShouldReturn503() throws Exception {
+        when(rankingService.recordMatch(1L, 2L, 1, 0, null))
+                .thenThrow(new RejectedExecutionException("The ladder writer queue is full"));
+
+        mockMvc.perform(post("/api/matches")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(GAME_REQUEST))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
+    @Test
+    void submitGame_ShouldReturn202WithTicketLocation() throws Exception {
+        MatchTicket ticket = new MatchTicket(new MatchSubmission(1L, 2L, 1, 0), "result-17");
+        when(matchSubmissionQueue.submit(new MatchSubmission(1L, 2L, 1, 0), "result-17")).thenReturn(ticket);
+
+        mockMvc.perform(post("/api/matches/async")
+                        .header("Idempotency-Key", "result-17")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(GAME_REQUEST))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/matches/tickets/" + ticket.getId()))
+                .andExpect(jsonPath("$.status").value("PENDING"))
+                .andExpect(jsonPath("$.idempotencyKey").doesNotExist());
+    }
+
+    @Test
+    void streamRankingChanges_ShouldResumeFromLastEventId() throws Exception {
+        when(rankingChangeStream.subscribe("abc-7")).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/api/rankings/stream").header("Last-Event-ID", "abc-7"))
+                .andExpect(request().asyncStarted());
+
+        verify(rankingChangeStream).subscribe("abc-7");
+    }
+
+    @Test
+    void streamRankingChanges_WhenTooManyStreams_ShouldReturn503() throws Exception {
+        when(rankingChangeStream.subscribe(isNull()))
+                .thenThrow(new RejectedExecutionException("Too many open ranking streams"));
+
+        mockMvc.perform(get("/api/rankings/stream"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "5"));
+    }
+
+    @Test
+    void importMembers_WithCsv_ShouldReturnReport() throws Exception {
+        MemberImportReport report = new MemberImportReport(2, 1, 1, 5, 400,
+                List.of(new MemberImportReport.RowError(3, "Email must be valid")));
+        when(memberImportService.importCsv(any())).thenReturn(report);
+
+        mockMvc.perform(post("/api/members/import")
+                        .contentType("text/csv")
+                        .content("name,surname,email,birthday\nAnna,Muller,anna@example.com,1991-02-03\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.errors[0].row").value(3));
+    }
+
+    @Test
+    void importMembers_WithBadHeader_ShouldReturn400() throws Exception {
+        when(memberImportService.importCsv(any()))
+                .thenThrow(new IllegalArgumentException("CSV header must name the columns name,surname,email,birthday"));
+
+        mockMvc.perform(post("/api/members/import")
+                        .contentType("text/csv")
+                        .content("name,email\n"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void submitGame_WhenQueueIsFull_ShouldReturn503() throws Exception {
+        when(matchSubmissionQueue.submit(any(MatchSubmission.class), isNull()))
+                .thenThrow(new RejectedExecutionException("The match queue is full"));
+
+        mockMvc.perform(post("/api/matches/async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(GAME_REQUEST))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
+    @Test
+    void getMatchTicket_WhenApplied_ShouldReturnGame() throws Exception {
+        MatchTicket ticket = new MatchTicket(new MatchSubmission(1L, 2L, 1, 0), null);
+        ticket.applied(testGame);
+        when(matchSubmissionQueue.ticket(ticket.getId())).thenReturn(Optional.of(ticket));
+
+        mockMvc.perform(get("/api/matches/tickets/" + ticket.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("APPLIED"))
+                .andExpect(jsonPath("$.game.id").value(1));
+    }
+
+    @Test
+    void getMatchTicket_WhenUnknown_ShouldReturn404() throws Exception {
+        when(matchSubmissionQueue.ticket("missing")).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/matches/tickets/missing"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void addGames_WithBatch_ShouldReturnPerMatchResults() throws Exception {
+        when(rankingService.recordMatches(anyList()))
+                .thenReturn(List.of(MatchResult.recorded(0, testGame), MatchResult.rejected(1, "Player 2 not found")));
+
+        String batchRequest = """
+                [
+                    {"player1": {"id": 1}, "player2": {"id": 2}, "player1Score": 1, "player2Score": 0},
+                    {"player1": {"id": 1}, "player2": {"id": 99}, "player1Score": 0, "player2Score": 0}
+                ]
+                """;
+
+        mockMvc.perform(post("/api/matches/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(batchRequest))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].recorded").value(true))
+                .andExpect(jsonPath("$[0].game.id").value(1))
+                .andExpect(jsonPath("$[1].recorded").value(false))
+                .andExpect(jsonPath("$[1].error").value("Player 2 not found"));
+    }
+
+    @Test
+    void addGames_WhenWriterQueueIsFull_ShouldReturn503() throws Exception {
+        when(rankingService.recordMatches(anyList()))
+                .thenThrow(new RejectedExecutionException("The ladder writer queue is full"));
+
+        mockMvc.perform(post("/api/matches/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[" + GAME_REQUEST + "]"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
+    @Test
+    void addGames_WithEmptyBatch_ShouldReturn400() throws Exception {
+        mockMvc.perform(post("/api/matches/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void getAllGames_ShouldReturnGamesList() throws Exception {
         when(rankingService.allMatches()).thenReturn(Collections.singletonList(testGame));
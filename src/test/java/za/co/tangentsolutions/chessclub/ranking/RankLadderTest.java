@@ -0,0 +1,91 @@
+package za.co.tangentsolutions.chessclub.ranking;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RankLadderTest {
+
+    @Test
+    void of_ShouldKeepGivenOrder() {
+        RankLadder ladder = RankLadder.of(List.of(10L, 20L, 30L, 40L));
+
+        assertEquals(4, ladder.size());
+        assertEquals(1, ladder.rankOf(10L));
+        assertEquals(4, ladder.rankOf(40L));
+        assertEquals(30L, ladder.memberAt(3));
+        assertEquals(List.of(10L, 20L, 30L, 40L), ladder.memberIds());
+    }
+
+    @Test
+    void move_Up_ShouldShiftMembersInBetweenDown() {
+        RankLadder ladder = RankLadder.of(List.of(1L, 2L, 3L, 4L, 5L));
+
+        ladder.move(5L, 2);
+
+        assertEquals(List.of(1L, 5L, 2L, 3L, 4L), ladder.memberIds());
+        assertEquals(2, ladder.rankOf(5L));
+        assertEquals(5, ladder.rankOf(4L));
+    }
+
+    @Test
+    void move_Down_ShouldShiftMembersInBetweenUp() {
+        RankLadder ladder = RankLadder.of(List.of(1L, 2L, 3L, 4L, 5L));
+
+        ladder.move(1L, 4);
+
+        assertEquals(List.of(2L, 3L, 4L, 1L, 5L), ladder.memberIds());
+    }
+
+    @Test
+    void appendAndRemove_ShouldKeepRanksDense() {
+        RankLadder ladder = RankLadder.of(List.of(1L, 2L, 3L));
+
+        ladder.append(4L, 4);
+        ladder.remove(2L);
+
+        assertEquals(List.of(1L, 3L, 4L), ladder.memberIds());
+        assertEquals(2, ladder.rankOf(3L));
+        assertFalse(ladder.contains(2L));
+    }
+
+    @Test
+    void membersBetween_ShouldReturnInclusiveSlice() {
+        RankLadder ladder = RankLadder.of(List.of(1L, 2L, 3L, 4L, 5L));
+
+        assertEquals(List.of(2L, 3L, 4L), ladder.membersBetween(2, 4));
+    }
+
+    @Test
+    void move_ToInvalidRank_ShouldThrow() {
+        RankLadder ladder = RankLadder.of(List.of(1L, 2L));
+
+        assertThrows(IllegalArgumentException.class, () -> ladder.move(1L, 3));
+        assertThrows(IllegalArgumentException.class, () -> ladder.rankOf(99L));
+    }
+
+    @Test
+    void randomMoves_ShouldMatchListModel() {
+        Random random = new Random(42);
+        List<Long> model = new ArrayList<>();
+        for (long id = 1; id <= 500; id++) {
+            model.add(id);
+        }
+        RankLadder ladder = RankLadder.of(model);
+
+        for (int i = 0; i < 5_000; i++) {
+            long memberId = model.get(random.nextInt(model.size()));
+            int newRank = random.nextInt(model.size()) + 1;
+            model.remove(memberId);
+            model.add(newRank - 1, memberId);
+            ladder.move(memberId, newRank);
+            assertEquals(newRank, ladder.rankOf(memberId));
+        }
+
+        assertEquals(model, ladder.memberIds());
+    }
+}
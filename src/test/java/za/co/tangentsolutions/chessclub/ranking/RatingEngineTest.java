@@ -0,0 +1,79 @@
+package za.co.tangentsolutions.chessclub.ranking;
+
+import org.junit.jupiter.api.Test;
+import za.co.tangentsolutions.chessclub.models.Member;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RatingEngineTest {
+
+    private final Glicko2RatingEngine glicko2 = new Glicko2RatingEngine(0.5);
+
+    @Test
+    void ratePeriod_ShouldMatchGlickmansWorkedExample() {
+        // Section "Example calculation" of the Glicko-2 paper
+        double[] player = {1500, 200, 0.06};
+
+        glicko2.ratePeriod(player, new double[]{1400, 1550, 1700}, new double[]{30, 100, 300},
+                new double[]{1, 0, 0}, 0, 3);
+
+        assertEquals(1464.06, player[Glicko2RatingEngine.RATING], 0.01);
+        assertEquals(151.52, player[Glicko2RatingEngine.DEVIATION], 0.01);
+        assertEquals(0.05999, player[Glicko2RatingEngine.VOLATILITY], 0.00001);
+    }
+
+    @Test
+    void ratePeriod_WithoutGames_ShouldOnlyWidenDeviationUpToTheCap() {
+        double[] player = {1700, 50, 0.06};
+        glicko2.ratePeriod(player, new double[0], new double[0], new double[0], 0, 0);
+
+        assertEquals(1700, player[Glicko2RatingEngine.RATING]);
+        assertEquals(Math.sqrt(50 * 50 + 0.06 * 0.06 * 173.7178 * 173.7178), player[Glicko2RatingEngine.DEVIATION], 0.001);
+
+        double[] unknown = {1500, 350, 0.06};
+        glicko2.ratePeriod(unknown, new double[0], new double[0], new double[0], 0, 0);
+        assertEquals(350, unknown[Glicko2RatingEngine.DEVIATION]);
+    }
+
+    @Test
+    void rateGame_ShouldRateBothPlayersFromTheirRatingsBeforeTheGame() {
+        double[] winner = {1500, 200, 0.06};
+        double[] loser = {1400, 30, 0.06};
+        glicko2.rateGame(winner, loser, 1.0);
+
+        double[] alone = {1500, 200, 0.06};
+        glicko2.ratePeriod(alone, new double[]{1400}, new double[]{30}, new double[]{1}, 0, 1);
+        assertArrayEquals(alone, winner, 1e-9);
+        // The loser's rating is far more certain, so it moves far less than the winner's
+        assertTrue(loser[Glicko2RatingEngine.RATING] < 1400);
+        assertTrue(1400 - loser[Glicko2RatingEngine.RATING] < winner[Glicko2RatingEngine.RATING] - 1500);
+    }
+
+    @Test
+    void apply_ShouldWriteRatingsToMembersAndMoveNobodyElse() {
+        Member player1 = new Member("John", "Doe", "john@email.com", LocalDate.of(1985, 5, 15), 1);
+        Member player2 = new Member("Jane", "Smith", "jane@email.com", LocalDate.of(1990, 8, 22), 2);
+
+        assertEquals(Set.of(), glicko2.apply(player1, player2, 1, 1));
+
+        assertEquals(1500, player1.getRating(), 1e-9);
+        assertEquals(1500, player2.getRating(), 1e-9);
+        assertTrue(player1.getRatingDeviation() < 350);
+        assertEquals(player1.getRatingDeviation(), player2.getRatingDeviation(), 1e-9);
+    }
+
+    @Test
+    void elo_ShouldTransferExpectedPointsBetweenPlayers() {
+        EloRatingEngine elo = new EloRatingEngine(32);
+        double[] ratings = {1600, 1400};
+
+        elo.rate(ratings, 0.0);
+
+        // The favourite was expected to score 1 / (1 + 10^(-0.5)) = 0.7597
+        assertEquals(1600 - 32 * 0.75974, ratings[0], 0.01);
+        assertEquals(1400 + 32 * 0.75974, ratings[1], 0.01);
+    }
+}
@@ -0,0 +1,74 @@
+package za.co.tangentsolutions.chessclub.repositories;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Upgrades a database holding the original schema and some games, the way a production database
+ * baselined at V1 is upgraded, and checks the backfilled columns and tables.
+ */
+class MigrationTest {
+
+    private static final String URL = "jdbc:h2:mem:migration_upgrade;DB_CLOSE_DELAY=-1";
+
+    private final JdbcTemplate jdbc = new JdbcTemplate(new DriverManagerDataSource(URL, "sa", ""));
+
+    @Test
+    void migrate_FromBaselineWithData_ShouldBackfillSeriesChanges() {
+        flyway("1").migrate();
+        jdbc.update("INSERT INTO members (name, surname, email, birthday, games_played, rank) VALUES "
+                + "('Ann', 'A', 'ann@email.com', '1990-01-01', 3, 1), "
+                + "('Ben', 'B', 'ben@email.com', '1990-01-01', 2, 2), "
+                + "('Cat', 'C', 'cat@email.com', '1990-01-01', 1, 3)");
+        // Ann beats Ben twice, then draws with Cat; Ben's last game is his second loss
+        insertGame(2, 1, 0, 1, "2024-01-01 10:00:00");
+        insertGame(1, 2, 1, 0, "2024-01-02 10:00:00");
+        insertGame(1, 3, 1, 1, "2024-01-03 10:00:00");
+
+        flyway(null).migrate();
+
+        assertEquals(2048L, jdbc.queryForObject("SELECT ladder_position FROM members WHERE id = 2", Long.class));
+        assertEquals(1500.0, jdbc.queryForObject("SELECT rating FROM members WHERE id = 1", Double.class));
+
+        Map<String, Object> ann = jdbc.queryForMap("SELECT * FROM player_stats WHERE member_id = 1");
+        assertEquals(2, ann.get("WINS"));
+        assertEquals(1, ann.get("DRAWS"));
+        assertEquals(0, ann.get("CURRENT_STREAK"));
+        assertEquals(2, ann.get("LONGEST_WIN_STREAK"));
+        assertEquals(1, ann.get("BEST_RANK"));
+        Map<String, Object> ben = jdbc.queryForMap("SELECT * FROM player_stats WHERE member_id = 2");
+        assertEquals(2, ben.get("LOSSES"));
+        assertEquals(-2, ben.get("CURRENT_STREAK"));
+        assertEquals(0, ben.get("LONGEST_WIN_STREAK"));
+
+        Map<String, Object> pair = jdbc.queryForMap("SELECT * FROM pair_records WHERE player_low_id = 1 AND player_high_id = 2");
+        assertEquals(2, pair.get("LOW_WINS"));
+        assertEquals(0, pair.get("HIGH_WINS"));
+        assertEquals(3L, jdbc.queryForObject("SELECT player_high_id FROM games WHERE id = 3", Long.class));
+
+        // The next pooled block must start past the ids the identity columns handed out
+        long next = jdbc.queryForObject("SELECT NEXT VALUE FOR games_seq", Long.class);
+        assertTrue(next - 49 > 3, "block starting at " + (next - 49) + " overlaps existing game ids");
+        assertThrows(Exception.class, () -> jdbc.update("INSERT INTO members (name, surname, email, birthday, games_played, rank, "
+                + "ladder_position) VALUES ('Dan', 'D', 'dan@email.com', '1990-01-01', 0, 4, 4096)"));
+    }
+
+    private Flyway flyway(String target) {
+        var configuration = Flyway.configure().dataSource(URL, "sa", "").locations("classpath:db/migration/h2");
+        return (target == null ? configuration : configuration.target(target)).load();
+    }
+
+    private void insertGame(long player1, long player2, int score1, int score2, String playedAt) {
+        jdbc.update("INSERT INTO games (player1_id, player2_id, player1_score, player2_score, played_at, "
+                + "player1_rank_before, player2_rank_before, player1_rank_after, player2_rank_after) "
+                + "SELECT ?, ?, ?, ?, CAST(? AS TIMESTAMP), p1.rank, p2.rank, p1.rank, p2.rank "
+                + "FROM members p1, members p2 WHERE p1.id = ? AND p2.id = ?",
+                player1, player2, score1, score2, playedAt, player1, player2);
+    }
+}
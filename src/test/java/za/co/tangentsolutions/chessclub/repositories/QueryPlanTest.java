@@ -0,0 +1,104 @@
+package za.co.tangentsolutions.chessclub.repositories;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the hot repository queries against the migrated H2 schema and checks their plans, so a query
+ * or schema change that falls back to a table scan fails here rather than on a large ladder.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:query_plan;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "za.co.tangentsolutions.chessclub.repositories.QueryPlanTest$RecordingInspector"
+})
+class QueryPlanTest {
+
+    public static class RecordingInspector implements StatementInspector {
+        static final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+    }
+
+    @Autowired
+    private GameRepository gameRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void migrations_ShouldCreateTheHotQueryIndexes() {
+        List<String> indexes = jdbcTemplate.queryForList(
+                "SELECT LOWER(index_name) FROM information_schema.indexes WHERE table_schema = 'PUBLIC'", String.class);
+
+        assertTrue(indexes.containsAll(List.of("idx_members_rank", "idx_games_played_at_id",
+                "idx_games_player1_played_at", "idx_games_player2_played_at")), indexes.toString());
+    }
+
+    @Test
+    void playerHistory_ShouldLookUpEachSeatByIndex() {
+        String plan = planOf("from games", () -> gameRepository.findMatchesByPlayerId(1L));
+
+        assertFalse(plan.contains("tableScan"), plan);
+        assertTrue(plan.contains("PLAYER1_ID = "), plan);
+        assertTrue(plan.contains("PLAYER2_ID = "), plan);
+    }
+
+    @Test
+    void leaderboard_ShouldReadMembersInRankIndexOrder() {
+        String plan = planOf("from members", () -> memberRepository.findAllByOrderByRankAsc());
+
+        assertTrue(plan.contains("IDX_MEMBERS_RANK"), plan);
+        assertTrue(plan.contains("index sorted"), plan);
+    }
+
+    @Test
+    void rankShifts_ShouldUpdateARankRangeByIndex() {
+        String increment = planOf("update members", () -> transactionTemplate.executeWithoutResult(
+                status -> memberRepository.incrementRanks(1000, 1001)));
+        String decrement = planOf("update members", () -> transactionTemplate.executeWithoutResult(
+                status -> memberRepository.decrementRanks(1000, 1001)));
+
+        assertTrue(increment.contains("IDX_MEMBERS_RANK: RANK >="), increment);
+        assertTrue(decrement.contains("IDX_MEMBERS_RANK: RANK >"), decrement);
+    }
+
+    @Test
+    void matchHistory_ShouldReadNewestFirstInIndexOrder() {
+        String plan = planOf("from games", () -> gameRepository.findLatest(PageRequest.of(0, 50)));
+
+        assertTrue(plan.contains("IDX_GAMES_PLAYED_AT_ID"), plan);
+        assertTrue(plan.contains("index sorted"), plan);
+    }
+
+    // EXPLAIN of the last statement the query sent that contains fragment, with every parameter bound to 1
+    private String planOf(String fragment, Runnable query) {
+        RecordingInspector.statements.clear();
+        query.run();
+        String sql = RecordingInspector.statements.stream()
+                .filter(statement -> statement.toLowerCase().contains(fragment))
+                .reduce((first, second) -> second)
+                .orElseThrow(() -> new AssertionError("No statement containing " + fragment));
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql.replace("?", "1"), String.class);
+    }
+}
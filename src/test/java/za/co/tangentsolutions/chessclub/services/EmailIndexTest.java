@@ -0,0 +1,98 @@
+package za.co.tangentsolutions.chessclub.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import za.co.tangentsolutions.chessclub.repositories.MemberRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class EmailIndexTest {
+
+    @Mock
+    private MemberRepository memberRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private EmailIndex emailIndex;
+
+    @BeforeEach
+    void setUp() {
+        emailIndex = new EmailIndex(memberRepository, new LadderWriter(transactionManager, 100), 10, 0.01);
+    }
+
+    @Test
+    void load_ShouldIndexStoredEmails() {
+        when(memberRepository.findAllEmails()).thenReturn(List.of("john.doe@email.com", "jane.smith@email.com"));
+        assertFalse(emailIndex.isReady());
+
+        emailIndex.load();
+
+        assertTrue(emailIndex.isReady());
+        assertTrue(emailIndex.contains("john.doe@email.com"));
+        assertFalse(emailIndex.contains("John.Doe@email.com"));
+        assertFalse(emailIndex.contains("new.member@email.com"));
+    }
+
+    @Test
+    void changes_ShouldKeepTheIndexCurrentAcrossFilterRebuilds() {
+        when(memberRepository.findAllEmails()).thenReturn(List.of("john.doe@email.com"));
+        emailIndex.load();
+
+        // Well past the filter's capacity of 10, so it is rebuilt on the way
+        for (int i = 0; i < 50; i++) {
+            emailIndex.added("member" + i + "@email.com");
+        }
+        for (int i = 0; i < 40; i++) {
+            emailIndex.removed("member" + i + "@email.com");
+        }
+        emailIndex.changed("john.doe@email.com", "john@email.com");
+
+        assertFalse(emailIndex.contains("member0@email.com"));
+        assertTrue(emailIndex.contains("member45@email.com"));
+        assertFalse(emailIndex.contains("john.doe@email.com"));
+        assertTrue(emailIndex.contains("john@email.com"));
+    }
+
+    @Test
+    void added_InsideTransaction_ShouldWaitForCommit() {
+        when(memberRepository.findAllEmails()).thenReturn(List.of());
+        emailIndex.load();
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            emailIndex.added("pending@email.com");
+            assertFalse(emailIndex.contains("pending@email.com"));
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertTrue(emailIndex.contains("pending@email.com"));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void bloomFilter_ShouldHaveNoFalseNegativesAndFewFalsePositives() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("member" + i + "@email.com");
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("member" + i + "@email.com"));
+            if (filter.mightContain("other" + i + "@email.com")) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+    }
+}
@@ -0,0 +1,78 @@
+package za.co.tangentsolutions.chessclub.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import za.co.tangentsolutions.chessclub.models.Game;
+import za.co.tangentsolutions.chessclub.models.GameFilter;
+import za.co.tangentsolutions.chessclub.models.Member;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:game_history;DB_CLOSE_DELAY=-1")
+class GameHistoryTest {
+
+    @Autowired
+    private MemberService memberService;
+
+    @Autowired
+    private RankingService rankingService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> ids = new ArrayList<>();
+    private final List<Long> gameIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM games");
+        String[] surnames = {"Carlsen", "Caruana", "Nakamura"};
+        for (String surname : surnames) {
+            Member member = memberService.getAllMembers().stream()
+                    .filter(m -> m.getSurname().equals(surname)).findFirst()
+                    .orElseGet(() -> memberService.createMember(new Member("History", surname,
+                            surname.toLowerCase() + "@history.com", LocalDate.of(1990, 1, 1), 0)));
+            ids.add(member.getId());
+        }
+        // Games on 1, 2 and 3 March between Carlsen-Caruana, Caruana-Nakamura and Nakamura-Carlsen
+        for (int i = 0; i < 3; i++) {
+            Game game = rankingService.recordMatch(ids.get(i), ids.get((i + 1) % 3), 1, 0);
+            jdbcTemplate.update("UPDATE games SET played_at = ? WHERE id = ?",
+                    LocalDate.of(2026, 3, i + 1).atTime(19, 0), game.getId());
+            gameIds.add(game.getId());
+        }
+    }
+
+    @Test
+    void getGameHistory_ShouldPageNewestFirstByDefault() {
+        List<Game> first = rankingService.getGameHistory(GameFilter.NONE, PageRequest.of(0, 2));
+        List<Game> second = rankingService.getGameHistory(GameFilter.NONE, PageRequest.of(1, 2));
+
+        assertEquals(List.of(gameIds.get(2), gameIds.get(1)), first.stream().map(Game::getId).toList());
+        assertEquals(List.of(gameIds.get(0)), second.stream().map(Game::getId).toList());
+        assertEquals("Nakamura", first.get(0).getPlayer1().getSurname());
+        assertEquals(3, rankingService.countGameHistory(GameFilter.NONE));
+    }
+
+    @Test
+    void getGameHistory_ShouldFilterByPlayerNameAndDates() {
+        GameFilter carlsen = new GameFilter(null, " history CARL", null, null);
+        GameFilter fromSecond = new GameFilter(null, null, LocalDate.of(2026, 3, 2), LocalDate.of(2026, 3, 3));
+
+        assertEquals(List.of(gameIds.get(0), gameIds.get(2)), rankingService.getGameHistory(carlsen,
+                PageRequest.of(0, 10, Sort.by("playedAt"))).stream().map(Game::getId).toList());
+        assertEquals(2, rankingService.countGameHistory(carlsen));
+        assertEquals(List.of(gameIds.get(2), gameIds.get(1)), rankingService.getGameHistory(fromSecond,
+                PageRequest.of(0, 10)).stream().map(Game::getId).toList());
+        assertEquals(2, rankingService.countGameHistory(GameFilter.forPlayer(ids.get(1))));
+    }
+}
@@ -0,0 +1,11 @@
+package za.co.tangentsolutions.chessclub.services;
+
+import org.springframework.test.context.TestPropertySource;
+
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:gapped_ladder_concurrency;DB_CLOSE_DELAY=-1",
+        "chessclub.ladder.storage-mode=gapped",
+        "chessclub.ladder.position-gap=16"
+})
+class GappedLadderConcurrencyTest extends LadderConcurrencyTest {
+}
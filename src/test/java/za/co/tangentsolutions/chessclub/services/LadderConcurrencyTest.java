@@ -0,0 +1,122 @@
+package za.co.tangentsolutions.chessclub.services;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import za.co.tangentsolutions.chessclub.models.LeaderboardEntry;
+import za.co.tangentsolutions.chessclub.models.Member;
+import za.co.tangentsolutions.chessclub.repositories.MemberRepository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Fires matches from many threads at once and checks the ladder is still a permutation of 1..N
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:ladder_concurrency;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false"
+})
+class LadderConcurrencyTest {
+
+    private static final int MEMBERS = 200;
+    private static final int SERIAL_MATCHES = 500;
+    private static final int CONCURRENT_MATCHES = 2_000;
+    private static final int THREADS = 32;
+
+    private static final Logger logger = LogManager.getLogger(LadderConcurrencyTest.class);
+
+    @Autowired
+    protected MemberService memberService;
+
+    @Autowired
+    protected RankingService rankingService;
+
+    @Autowired
+    protected LadderService ladderService;
+
+    @Autowired
+    protected MemberRepository memberRepository;
+
+    @Autowired
+    protected LeaderboardService leaderboardService;
+
+    @Test
+    void concurrentMatches_ShouldKeepRanksAPermutation() throws Exception {
+        List<Long> memberIds = seedMembers();
+
+        double serial = playMatches(memberIds, 1, SERIAL_MATCHES);
+        double contended = playMatches(memberIds, THREADS, CONCURRENT_MATCHES);
+        logger.info("{} ladder: {} matches/s on 1 thread, {} matches/s on {} threads",
+                ladderService.getStorageMode(), Math.round(serial), Math.round(contended), THREADS);
+
+        assertLadderIsPermutation();
+        // A single writer should hold its throughput under contention rather than collapse
+        assertTrue(contended >= serial * 0.25,
+                "Throughput fell from " + serial + " to " + contended + " matches/s under contention");
+    }
+
+    private List<Long> seedMembers() {
+        List<Long> memberIds = new ArrayList<>();
+        String prefix = ladderService.getStorageMode().name().toLowerCase();
+        for (int i = 0; i < MEMBERS; i++) {
+            Member member = new Member("Load", "Member" + i, prefix + ".load" + i + "@email.com",
+                    LocalDate.of(1990, 1, 1), 0);
+            memberIds.add(memberService.createMember(member).getId());
+        }
+        return memberIds;
+    }
+
+    // Returns matches per second
+    private double playMatches(List<Long> memberIds, int threads, int matches) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>(matches);
+        long start = System.nanoTime();
+        for (int i = 0; i < matches; i++) {
+            futures.add(executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long player1 = memberIds.get(random.nextInt(memberIds.size()));
+                long player2 = memberIds.get(random.nextInt(memberIds.size()));
+                while (player2 == player1) {
+                    player2 = memberIds.get(random.nextInt(memberIds.size()));
+                }
+                rankingService.recordMatch(player1, player2, random.nextInt(2), random.nextInt(2));
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        executor.shutdown();
+        return matches / seconds;
+    }
+
+    protected void assertLadderIsPermutation() {
+        List<Member> members = memberService.getAllMembers();
+        for (int i = 0; i < members.size(); i++) {
+            Member member = members.get(i);
+            assertEquals(i + 1, member.getRank(), "Stored ladder has a gap or duplicate at " + member.getId());
+            assertEquals(i + 1, ladderService.rankOf(member.getId()), "In-memory ladder disagrees at " + member.getId());
+            if (ladderService.isGapped() && i > 0) {
+                assertTrue(member.getPosition() > members.get(i - 1).getPosition(),
+                        "Ladder positions collide at " + member.getId());
+            }
+        }
+        assertEquals(members.size(), ladderService.size());
+
+        // The cached leaderboard has followed every committed change
+        List<LeaderboardEntry> entries = leaderboardService.current().getEntries();
+        assertEquals(members.size(), entries.size());
+        for (int i = 0; i < members.size(); i++) {
+            assertEquals(members.get(i).getId(), entries.get(i).getId());
+            assertEquals(members.get(i).getGamesPlayed(), entries.get(i).getGamesPlayed());
+        }
+    }
+}
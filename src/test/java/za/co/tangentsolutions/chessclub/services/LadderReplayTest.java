@@ -0,0 +1,87 @@
+package za.co.tangentsolutions.chessclub.services;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import za.co.tangentsolutions.chessclub.models.Member;
+import za.co.tangentsolutions.chessclub.ranking.LadderRule;
+import za.co.tangentsolutions.chessclub.repositories.LadderSnapshotRepository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Plays random matches and checks the event log rebuilds exactly the ladder the services produced
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:ladder_replay;DB_CLOSE_DELAY=-1",
+        "chessclub.ladder.events.snapshot-interval=25"
+})
+class LadderReplayTest {
+
+    @Autowired
+    private MemberService memberService;
+
+    @Autowired
+    private RankingService rankingService;
+
+    @Autowired
+    private LadderService ladderService;
+
+    @Autowired
+    private LadderReplayService replayService;
+
+    @Autowired
+    private LadderSnapshotRepository snapshotRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void replay_AfterMatchesAndMembershipChanges_ShouldMatchLiveLadder() {
+        List<Long> genesis = ladderService.memberIds();
+        List<Long> memberIds = new ArrayList<>(genesis);
+        for (int i = 0; i < 20; i++) {
+            Member member = new Member("Replay", "Member" + i, "replay" + i + "@email.com", LocalDate.of(1990, 1, 1), 0);
+            memberIds.add(memberService.createMember(member).getId());
+        }
+        Random random = new Random(13);
+        for (int i = 0; i < 120; i++) {
+            long player1 = memberIds.get(random.nextInt(memberIds.size()));
+            long player2 = memberIds.get(random.nextInt(memberIds.size()));
+            if (player1 != player2) {
+                rankingService.recordMatch(player1, player2, random.nextInt(2), random.nextInt(2));
+            }
+        }
+        // Members with games cannot be deleted, so the leaver joins after the matches
+        Member leaver = memberService.createMember(
+                new Member("Replay", "Leaver", "replay.leaver@email.com", LocalDate.of(1990, 1, 1), 0));
+        memberService.deleteMember(leaver.getId());
+
+        assertTrue(snapshotRepository.count() > 1, "Expected periodic snapshots");
+        assertEquals(ladderService.memberIds(), replayService.replay().memberIds());
+
+        // Under a rule that never moves anyone, history replays to the joining order
+        LadderRule standStill = (rank1, rank2, score1, score2) -> List.of();
+        List<Long> joiningOrder = new ArrayList<>(genesis);
+        memberIds.stream().filter(id -> !genesis.contains(id)).forEach(joiningOrder::add);
+        assertEquals(joiningOrder, replayService.replayHistory(standStill).memberIds());
+
+        // Scramble the stored ladder behind the services' back and let the log put it right
+        List<Long> expected = ladderService.memberIds();
+        jdbcTemplate.update("UPDATE members SET rank = ? WHERE id = ?", expected.size() + 1, expected.get(0));
+        jdbcTemplate.update("UPDATE members SET rank = 0 WHERE id = ?", expected.get(expected.size() - 1));
+
+        assertTrue(replayService.recover() > 0);
+        assertEquals(expected, ladderService.memberIds());
+        List<Member> stored = memberService.getAllMembers();
+        for (int i = 0; i < stored.size(); i++) {
+            assertEquals(expected.get(i), stored.get(i).getId());
+            assertEquals(i + 1, stored.get(i).getRank());
+        }
+        assertEquals(0, replayService.recover());
+    }
+}
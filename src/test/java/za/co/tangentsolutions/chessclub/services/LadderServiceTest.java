@@ -0,0 +1,158 @@
+package za.co.tangentsolutions.chessclub.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import za.co.tangentsolutions.chessclub.repositories.MemberRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LadderServiceTest {
+
+    @Mock
+    private MemberRepository memberRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private LadderService ladderService(LadderStorageMode storageMode) {
+        return new LadderService(memberRepository, jdbcTemplate, new LadderWriter(transactionManager, 100),
+                new ClubMetrics(new SimpleMeterRegistry()), storageMode, 1024);
+    }
+
+    private LadderService gappedLadder(long... positions) {
+        List<MemberRepository.LadderSlot> slots = new ArrayList<>();
+        for (int i = 0; i < positions.length; i++) {
+            long id = i + 1;
+            long position = positions[i];
+            slots.add(new MemberRepository.LadderSlot() {
+                public Long getId() { return id; }
+                public long getPosition() { return position; }
+            });
+        }
+        when(memberRepository.findLadderSlotsOrderByPositionAsc()).thenReturn(slots);
+        return ladderService(LadderStorageMode.GAPPED);
+    }
+
+    @Test
+    void moves_InOneTransaction_ShouldRegisterOneRollbackHook() {
+        when(memberRepository.findIdsOrderByRankAsc()).thenReturn(Arrays.asList(1L, 2L, 3L, 4L, 5L));
+        LadderService ladderService = ladderService(LadderStorageMode.DENSE);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            ladderService.move(5L, 1);
+            ladderService.move(4L, 2);
+            ladderService.remove(3L);
+
+            List<TransactionSynchronization> hooks = TransactionSynchronizationManager.getSynchronizations();
+            assertEquals(1, hooks.size());
+            TransactionSynchronizationUtils.invokeAfterCompletion(hooks, TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Rolled back, so the ladder is reloaded from the table
+        assertEquals(5, ladderService.rankOf(5L));
+        verify(memberRepository, times(2)).findIdsOrderByRankAsc();
+    }
+
+    @Test
+    void move_InDenseMode_ShouldReportEveryShiftedMember() {
+        when(memberRepository.findIdsOrderByRankAsc()).thenReturn(Arrays.asList(1L, 2L, 3L, 4L, 5L));
+        LadderService ladderService = ladderService(LadderStorageMode.DENSE);
+
+        Set<Long> written = ladderService.move(5L, 2);
+
+        assertEquals(Set.of(5L, 2L, 3L, 4L), written);
+        assertEquals(2, ladderService.rankOf(5L));
+    }
+
+    @Test
+    void move_InGappedMode_ShouldOnlyRepositionMover() {
+        LadderService ladderService = gappedLadder(1024, 2048, 3072, 4096, 5120);
+
+        Set<Long> written = ladderService.move(5L, 2);
+
+        assertEquals(Set.of(5L), written);
+        assertEquals(1536, ladderService.positionOf(5L));
+        assertEquals(5, ladderService.rankOf(4L));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void move_ToTopInGappedMode_ShouldGoAboveLeader() {
+        LadderService ladderService = gappedLadder(1024, 2048, 3072);
+
+        ladderService.move(3L, 1);
+
+        assertEquals(0, ladderService.positionOf(3L));
+        assertEquals(1, ladderService.rankOf(3L));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void move_WhenGapIsExhausted_ShouldRenumberLadder() {
+        LadderService ladderService = gappedLadder(10, 11, 12);
+
+        Set<Long> written = ladderService.move(3L, 2);
+
+        assertEquals(Set.of(3L), written);
+        assertEquals(1024, ladderService.positionOf(1L));
+        assertEquals(2048, ladderService.positionOf(3L));
+        assertEquals(3072, ladderService.positionOf(2L));
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), rows.capture());
+        assertEquals(3, rows.getValue().size());
+    }
+
+    @Test
+    void remove_InGappedMode_ShouldNotShiftOtherRows() {
+        LadderService ladderService = gappedLadder(1024, 2048, 3072);
+
+        ladderService.remove(1L);
+
+        assertEquals(1, ladderService.rankOf(2L));
+        verify(memberRepository, never()).decrementRanks(anyInt(), anyInt());
+    }
+
+    @Test
+    void remove_InDenseMode_ShouldCloseGapWithBulkUpdate() {
+        when(memberRepository.findIdsOrderByRankAsc()).thenReturn(Arrays.asList(1L, 2L, 3L));
+        LadderService ladderService = ladderService(LadderStorageMode.DENSE);
+
+        ladderService.remove(2L);
+
+        assertEquals(2, ladderService.rankOf(3L));
+        verify(memberRepository).decrementRanks(2, Integer.MAX_VALUE);
+    }
+
+    @Test
+    void rebalanceIfDue_AfterGapsNarrow_ShouldRenumber() {
+        LadderService ladderService = gappedLadder(1024, 1040, 2048);
+
+        ladderService.move(3L, 2);
+        ladderService.rebalanceIfDue();
+
+        assertEquals(2048, ladderService.positionOf(3L));
+        verify(jdbcTemplate).batchUpdate(anyString(), anyList());
+    }
+}
@@ -0,0 +1,128 @@
+package za.co.tangentsolutions.chessclub.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import za.co.tangentsolutions.chessclub.models.LeaderboardSnapshot;
+import za.co.tangentsolutions.chessclub.models.LeaderboardUpdate;
+import za.co.tangentsolutions.chessclub.models.Member;
+import za.co.tangentsolutions.chessclub.models.RankChange;
+import za.co.tangentsolutions.chessclub.repositories.MemberRepository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LeaderboardServiceTest {
+
+    @Mock
+    private MemberRepository memberRepository;
+
+    @Mock
+    private LadderService ladderService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private LeaderboardService leaderboardService;
+    private final LeaderboardFeed leaderboardFeed = new LeaderboardFeed();
+    private final List<Member> members = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        leaderboardService = new LeaderboardService(memberRepository, ladderService,
+                new LadderWriter(transactionManager, 100), new ObjectMapper().registerModule(new JavaTimeModule()),
+                new ClubMetrics(new SimpleMeterRegistry()), leaderboardFeed);
+        for (long id = 1; id <= 3; id++) {
+            Member member = new Member("Player", "No" + id, "player" + id + "@email.com", LocalDate.of(1990, 1, 1), (int) id);
+            member.setId(id);
+            members.add(member);
+        }
+        when(ladderService.memberIds()).thenReturn(List.of(1L, 2L, 3L));
+        when(memberRepository.findAll()).thenReturn(members);
+    }
+
+    @Test
+    void current_ShouldBuildSnapshotOnceAndReuseIt() {
+        LeaderboardSnapshot first = leaderboardService.current();
+        LeaderboardSnapshot second = leaderboardService.current();
+
+        assertSame(first, second);
+        assertEquals(3, first.getEntries().size());
+        assertEquals(1, first.getEntry(1L).orElseThrow().getRank());
+        verify(memberRepository, times(1)).findAll();
+    }
+
+    @Test
+    void onLeaderboardChanged_ShouldOnlyReloadChangedMembers() {
+        LeaderboardSnapshot before = leaderboardService.current();
+        members.get(2).setGamesPlayed(1);
+        when(ladderService.memberIds()).thenReturn(List.of(3L, 1L, 2L));
+        when(memberRepository.findAllById(anyIterable())).thenReturn(List.of(members.get(2)));
+
+        leaderboardService.onLeaderboardChanged(new LeaderboardChangedEvent(Set.of(3L)));
+        LeaderboardSnapshot after = leaderboardService.current();
+
+        assertTrue(after.getVersion() > before.getVersion());
+        assertNotEquals(before.getEtag(), after.getEtag());
+        assertEquals(List.of(3L, 1L, 2L), after.getEntries().stream().map(e -> e.getId()).toList());
+        assertEquals(1, after.getEntry(3L).orElseThrow().getGamesPlayed());
+        assertEquals(3, after.getEntry(2L).orElseThrow().getRank());
+        verify(memberRepository).findAllById(Set.of(3L));
+        // The previous snapshot is untouched
+        assertEquals(3, before.getEntry(3L).orElseThrow().getRank());
+    }
+
+    @Test
+    void onLeaderboardChanged_ForRemovedMember_ShouldDropEntryWithoutReading() {
+        leaderboardService.current();
+        when(ladderService.memberIds()).thenReturn(List.of(1L, 3L));
+
+        leaderboardService.onLeaderboardChanged(new LeaderboardChangedEvent(Set.of()));
+
+        LeaderboardSnapshot after = leaderboardService.current();
+        assertTrue(after.getEntry(2L).isEmpty());
+        assertEquals(2, after.getEntry(3L).orElseThrow().getRank());
+        verify(memberRepository, never()).findAllById(anyIterable());
+    }
+
+    @Test
+    void onLeaderboardChanged_ShouldPublishOnlyChangedRowsToSubscribers() throws InterruptedException {
+        LeaderboardSnapshot before = leaderboardService.current();
+        BlockingQueue<LeaderboardUpdate> first = new LinkedBlockingQueue<>();
+        BlockingQueue<LeaderboardUpdate> second = new LinkedBlockingQueue<>();
+        leaderboardFeed.subscribe(first::add);
+        LeaderboardFeed.Subscription cancelled = leaderboardFeed.subscribe(second::add);
+        cancelled.cancel();
+        when(ladderService.memberIds()).thenReturn(List.of(1L, 3L, 2L));
+
+        leaderboardService.onLeaderboardChanged(new LeaderboardChangedEvent(Set.of(), 42L));
+
+        LeaderboardUpdate update = first.poll(5, TimeUnit.SECONDS);
+        assertNotNull(update);
+        assertEquals(before.getVersion(), update.previousVersion());
+        assertEquals(leaderboardService.current().getVersion(), update.version());
+        assertEquals(3, update.size());
+        assertEquals(List.of(3L, 2L), update.changed().stream().map(e -> e.getId()).toList());
+        assertEquals(List.of(2, 3), update.changed().stream().map(e -> e.getRank()).toList());
+        assertTrue(update.removedMemberIds().isEmpty());
+        assertEquals(List.of(new RankChange(3L, 3, 2, 42L), new RankChange(2L, 2, 3, 42L)), update.rankChanges());
+        assertTrue(second.isEmpty());
+        verify(memberRepository, never()).findAllById(anyIterable());
+    }
+}
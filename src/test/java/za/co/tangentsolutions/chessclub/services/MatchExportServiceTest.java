@@ -0,0 +1,88 @@
+package za.co.tangentsolutions.chessclub.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import za.co.tangentsolutions.chessclub.models.GameExportRow;
+import za.co.tangentsolutions.chessclub.repositories.GameRepository;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MatchExportServiceTest {
+
+    @Mock
+    private GameRepository gameRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private MatchExportService exportService;
+    private boolean streamClosed;
+
+    @BeforeEach
+    void setUp() {
+        exportService = new MatchExportService(gameRepository, objectMapper);
+        streamClosed = false;
+    }
+
+    private void givenGames() {
+        LocalDateTime playedAt = LocalDateTime.of(2024, 3, 1, 18, 30);
+        when(gameRepository.streamExportRows()).thenReturn(Stream.of(
+                new GameExportRow(1L, playedAt, 1L, "John", "Doe", 1, 3, 2, 2L, "Jane", "Smith", 0, 2, 3),
+                new GameExportRow(2L, playedAt.plusHours(1), 3L, "Mary-Anne", "O\"Neil, Jr", 1, 5, 5,
+                        1L, "John", "Doe", 1, 2, 2)
+        ).onClose(() -> streamClosed = true));
+    }
+
+    @Test
+    void writeNdjson_ShouldWriteOneObjectPerLine() throws Exception {
+        givenGames();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = exportService.writeNdjson(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, count);
+        assertEquals(2, lines.length);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals(1, first.get("id").asLong());
+        assertEquals("2024-03-01T18:30:00.000000", first.get("playedAt").asText());
+        assertEquals(2, first.get("player1RankAfter").asInt());
+        assertTrue(streamClosed);
+    }
+
+    @Test
+    void writeCsv_ShouldQuoteFieldsThatNeedIt() throws Exception {
+        givenGames();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = exportService.writeCsv(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, count);
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].startsWith("id,played_at,player1_id"));
+        assertEquals("1,2024-03-01T18:30,1,John,Doe,1,3,2,2,Jane,Smith,0,2,3", lines[1]);
+        assertTrue(lines[2].contains(",Mary-Anne,\"O\"\"Neil, Jr\",1,5,5,"));
+        assertTrue(streamClosed);
+    }
+
+    @Test
+    void writeNdjson_WithNoGames_ShouldWriteNothing() throws Exception {
+        when(gameRepository.streamExportRows()).thenReturn(Stream.empty());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(0, exportService.writeNdjson(out));
+        assertEquals(0, out.size());
+    }
+}
@@ -0,0 +1,124 @@
+package za.co.tangentsolutions.chessclub.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import za.co.tangentsolutions.chessclub.models.Game;
+import za.co.tangentsolutions.chessclub.models.MatchSubmission;
+import za.co.tangentsolutions.chessclub.models.MatchTicket;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MatchSubmissionQueueTest {
+
+    @Mock
+    private RankingService rankingService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private LadderWriter ladderWriter;
+    private final MatchSubmission submission = new MatchSubmission(1L, 2L, 1, 0);
+
+    @BeforeEach
+    void setUp() {
+        ladderWriter = new LadderWriter(transactionManager, 100);
+    }
+
+    @Test
+    void submit_ShouldCompleteTicketWithRecordedGame() throws Exception {
+        Game game = new Game();
+        game.setId(7L);
+        when(rankingService.recordMatch(1L, 2L, 1, 0, null)).thenReturn(game);
+        MatchSubmissionQueue queue = new MatchSubmissionQueue(rankingService, ladderWriter, 10, Duration.ofHours(1));
+
+        MatchTicket ticket = queue.submit(submission, null);
+
+        awaitCompletion(ticket);
+        assertEquals(MatchTicket.Status.APPLIED, ticket.getStatus());
+        assertSame(game, ticket.getGame());
+        assertSame(ticket, queue.ticket(ticket.getId()).orElseThrow());
+        assertEquals(0, queue.pending());
+    }
+
+    @Test
+    void submit_WithRepeatedKey_ShouldQueueOnce() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(rankingService.recordMatch(1L, 2L, 1, 0, "result-17")).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return new Game();
+        });
+        MatchSubmissionQueue queue = new MatchSubmissionQueue(rankingService, ladderWriter, 10, Duration.ofHours(1));
+
+        MatchTicket first = queue.submit(submission, "result-17");
+        MatchTicket retry = queue.submit(submission, "result-17");
+        assertThrows(IdempotencyConflictException.class,
+                () -> queue.submit(new MatchSubmission(1L, 2L, 0, 1), "result-17"));
+        release.countDown();
+
+        assertSame(first, retry);
+        awaitCompletion(first);
+        verify(rankingService, times(1)).recordMatch(1L, 2L, 1, 0, "result-17");
+    }
+
+    @Test
+    void submit_WhenQueueIsFull_ShouldRefuse() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(rankingService.recordMatch(1L, 2L, 1, 0, null)).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return new Game();
+        });
+        MatchSubmissionQueue queue = new MatchSubmissionQueue(rankingService, ladderWriter, 1, Duration.ofHours(1));
+
+        MatchTicket queued = queue.submit(submission, null);
+        assertThrows(RejectedExecutionException.class, () -> queue.submit(submission, null));
+        release.countDown();
+
+        awaitCompletion(queued);
+        assertEquals(0, queue.pending());
+    }
+
+    @Test
+    void submit_WhenRecordingFails_ShouldRejectTicket() throws Exception {
+        when(rankingService.recordMatch(1L, 2L, 1, 0, null)).thenThrow(new RuntimeException("Player 2 not found"));
+        MatchSubmissionQueue queue = new MatchSubmissionQueue(rankingService, ladderWriter, 10, Duration.ofHours(1));
+
+        MatchTicket ticket = queue.submit(submission, null);
+
+        awaitCompletion(ticket);
+        assertEquals(MatchTicket.Status.REJECTED, ticket.getStatus());
+        assertEquals("Player 2 not found", ticket.getError());
+    }
+
+    @Test
+    void expireTickets_ShouldForgetCompletedTicketsAndTheirKeys() throws Exception {
+        when(rankingService.recordMatch(1L, 2L, 1, 0, "result-17")).thenReturn(new Game());
+        MatchSubmissionQueue queue = new MatchSubmissionQueue(rankingService, ladderWriter, 10, Duration.ZERO);
+        MatchTicket ticket = queue.submit(submission, "result-17");
+        awaitCompletion(ticket);
+        Thread.sleep(5);
+
+        queue.expireTickets();
+
+        assertTrue(queue.ticket(ticket.getId()).isEmpty());
+        assertNotSame(ticket, queue.submit(submission, "result-17"));
+    }
+
+    private static void awaitCompletion(MatchTicket ticket) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (ticket.getStatus() == MatchTicket.Status.PENDING && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertNotEquals(MatchTicket.Status.PENDING, ticket.getStatus());
+    }
+}
@@ -0,0 +1,108 @@
+package za.co.tangentsolutions.chessclub.services;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import za.co.tangentsolutions.chessclub.models.LeaderboardEntry;
+import za.co.tangentsolutions.chessclub.models.MemberImportReport;
+import za.co.tangentsolutions.chessclub.models.MemberImportReport.RowError;
+import za.co.tangentsolutions.chessclub.repositories.MemberRepository;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:member_import;DB_CLOSE_DELAY=-1",
+        "chessclub.members.import.batch-size=2"
+})
+class MemberImportTest {
+
+    @Autowired
+    private MemberImportService memberImportService;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private LadderService ladderService;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private EmailIndex emailIndex;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void importCsv_ShouldEnrollValidRowsWithConsecutiveRanksAndReportTheRest() throws IOException {
+        int before = ladderService.size();
+        String csv = """
+                email,name,surname,birthday
+                anna@import.com,Anna,Muller,1991-02-03
+                "bert@import.com","Bert, Jr",Smith,1992-03-04
+                anna@import.com,Anna,Again,1991-02-03
+                john.doe@email.com,John,Again,1985-05-15
+                carl@import.com,Carl,Jones,03/04/1992
+
+                not-an-email,Dora,Lee,1993-04-05
+                erin@import.com,Erin,Khan,1994-05-06
+                """;
+
+        long lookups = emailLookups();
+
+        MemberImportReport report = memberImportService.importCsv(new StringReader(csv));
+
+        assertEquals(lookups, emailLookups(), "rows must not be checked one at a time by @UniqueEmail");
+        assertEquals(7, report.rowsRead());
+        assertEquals(3, report.imported());
+        assertEquals(4, report.rejected());
+        assertEquals(List.of(4L, 5L, 6L, 8L), report.errors().stream().map(RowError::row).sorted().toList());
+        assertTrue(report.errors().contains(new RowError(4, "Email appears more than once in the import")));
+        assertTrue(report.errors().contains(new RowError(5, "Email is already registered")));
+
+        assertEquals(before + 3, ladderService.size());
+        assertEquals("Bert, Jr", memberRepository.findByEmail("bert@import.com").orElseThrow().getName());
+        List<LeaderboardEntry> bottom = leaderboardService.current().getEntries().subList(before, before + 3);
+        assertEquals(List.of("anna@import.com", "bert@import.com", "erin@import.com"),
+                bottom.stream().map(LeaderboardEntry::getEmail).toList());
+        assertEquals(List.of(before + 1, before + 2, before + 3),
+                bottom.stream().map(e -> memberRepository.findByEmail(e.getEmail()).orElseThrow().getRank()).toList());
+        assertTrue(emailIndex.contains("erin@import.com"));
+    }
+
+    @Test
+    void importNdjson_ShouldReportMalformedLines() throws IOException {
+        String ndjson = """
+                {"name":"Fay","surname":"Ng","email":"fay@import.com","birthday":"1990-01-01"}
+                {"name":"Gus",
+                {"name":"","surname":"Ott","email":"gus@import.com","birthday":"1990-01-01"}
+                null
+                """;
+
+        MemberImportReport report = memberImportService.importNdjson(new StringReader(ndjson));
+
+        assertEquals(1, report.imported());
+        assertEquals(3, report.rejected());
+        assertTrue(report.errors().get(0).error().startsWith("Malformed JSON"));
+        assertEquals(new RowError(3, "Name cannot be blank"), report.errors().get(1));
+        assertEquals(new RowError(4, "Row must be a JSON object"), report.errors().get(2));
+        assertTrue(memberRepository.findByEmail("fay@import.com").isPresent());
+    }
+
+    private long emailLookups() {
+        return meterRegistry.find("chessclub.members.email.check").timers().stream().mapToLong(Timer::count).sum();
+    }
+
+    @Test
+    void importCsv_WithoutRequiredColumns_ShouldBeRefused() {
+        assertThrows(IllegalArgumentException.class,
+                () -> memberImportService.importCsv(new StringReader("name,email\nAnna,anna2@import.com\n")));
+    }
+}
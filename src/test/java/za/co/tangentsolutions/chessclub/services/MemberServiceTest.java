@@ -1,24 +1,33 @@
 package za.co.tangentsolutions.chessclub.services;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.data.domain.PageRequest;
+import za.co.tangentsolutions.chessclub.models.KeysetPage;
+import za.co.tangentsolutions.chessclub.models.LeaderboardEntry;
+import za.co.tangentsolutions.chessclub.models.LeaderboardSnapshot;
 import za.co.tangentsolutions.chessclub.models.Member;
 import za.co.tangentsolutions.chessclub.repositories.MemberRepository;
 import za.co.tangentsolutions.chessclub.services.MemberService;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
 import static com.helger.commons.mock.CommonsAssert.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -31,7 +40,21 @@ public class MemberServiceTest {
 //    @Mock
 //    private RankingService rankingService;
 
-    @InjectMocks
+    @Mock
+    private LadderService ladderService;
+
+    @Mock
+    private LeaderboardService leaderboardService;
+
+    @Mock
+    private LadderEventLog ladderEventLog;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     private MemberService memberService;
 
     private Member testMember;
@@ -39,6 +62,11 @@ public class MemberServiceTest {
 
     @BeforeEach
     void setUp() {
+        LadderWriter ladderWriter = new LadderWriter(transactionManager, 100);
+        memberService = new MemberService(memberRepository, null, ladderService, leaderboardService, ladderEventLog,
+                ladderWriter, eventPublisher, new ClubMetrics(new SimpleMeterRegistry()),
+                new EmailIndex(memberRepository, ladderWriter, 100, 0.01));
+
         testMember = new Member("John", "Doe", "john@email.com",
                 LocalDate.of(1985, 5, 15), 1);
         testMember.setId(1L);
@@ -66,6 +94,50 @@ public class MemberServiceTest {
         verify(memberRepository).findAllByOrderByRankAsc();
     }
 
+    @Test
+    void getMembersPage_WhenMoreMembersRemain_ShouldReturnCursorAtLastRank() {
+        when(memberRepository.findRankedAfter(0, PageRequest.of(0, 2)))
+                .thenReturn(Arrays.asList(testMember, testMember2));
+
+        KeysetPage<Member> page = memberService.getMembersPage(0, 1);
+
+        assertEquals(1, page.items().size());
+        assertEquals("John", page.items().get(0).getName());
+        assertEquals("1", page.nextCursor());
+    }
+
+    @Test
+    void getMembersPage_InGappedMode_ShouldTakeRanksFromCommittedLeaderboard() {
+        when(ladderService.isGapped()).thenReturn(true);
+        // Member 2 has since moved up on the ladder, but that change has not committed yet
+        when(leaderboardService.current()).thenReturn(leaderboard(testMember, testMember2));
+        when(memberRepository.findAllById(List.of(2L))).thenReturn(List.of(testMember2));
+
+        KeysetPage<Member> page = memberService.getMembersPage(1, 10);
+
+        assertEquals(1, page.items().size());
+        assertEquals(2, page.items().get(0).getRank());
+        assertNull(page.nextCursor());
+        verify(ladderService, never()).rankOf(any());
+    }
+
+    @Test
+    void getMemberById_InGappedMode_ShouldTakeRankFromCommittedLeaderboard() {
+        when(ladderService.isGapped()).thenReturn(true);
+        when(leaderboardService.current()).thenReturn(leaderboard(testMember2, testMember));
+        when(memberRepository.findById(1L)).thenReturn(Optional.of(testMember));
+
+        assertEquals(2, memberService.getMemberById(1L).orElseThrow().getRank());
+    }
+
+    private static LeaderboardSnapshot leaderboard(Member... membersInRankOrder) {
+        List<LeaderboardEntry> entries = new ArrayList<>();
+        for (Member member : membersInRankOrder) {
+            entries.add(LeaderboardEntry.of(member, entries.size() + 1));
+        }
+        return new LeaderboardSnapshot(1, "\"1\"", entries, new byte[0]);
+    }
+
     @Test
     void getMemberById_WhenMemberExists_ShouldReturnMember() {
         // Arrange
@@ -95,7 +167,7 @@ public class MemberServiceTest {
         Member newMember = new Member("New", "Member", "new@email.com",
                 LocalDate.of(2000, 1, 1), 0);
         when(memberRepository.findMaxRank()).thenReturn(null);
-        when(memberRepository.save(any(Member.class))).thenReturn(newMember);
+        when(memberRepository.save(any(Member.class))).thenAnswer(invocation -> persisted(invocation.getArgument(0)));
 
         Member result = memberService.createMember(newMember);
 
@@ -109,7 +181,7 @@ public class MemberServiceTest {
         Member newMember = new Member("New", "Member", "new@email.com",
                 LocalDate.of(2000, 1, 1), 0);
         when(memberRepository.findMaxRank()).thenReturn(5);
-        when(memberRepository.save(any(Member.class))).thenReturn(newMember);
+        when(memberRepository.save(any(Member.class))).thenAnswer(invocation -> persisted(invocation.getArgument(0)));
 
         Member result = memberService.createMember(newMember);
 
@@ -118,4 +190,8 @@ public class MemberServiceTest {
         verify(memberRepository).save(newMember);
     }
 
+    private static Member persisted(Member member) {
+        member.setId(10L);
+        return member;
+    }
 }
@@ -0,0 +1,71 @@
+package za.co.tangentsolutions.chessclub.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import za.co.tangentsolutions.chessclub.models.LeaderboardUpdate;
+import za.co.tangentsolutions.chessclub.models.RankChange;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class RankingChangeStreamTest {
+
+    @Mock
+    private LeaderboardService leaderboardService;
+
+    private RankingChangeStream stream;
+
+    @BeforeEach
+    void setUp() {
+        stream = new RankingChangeStream(leaderboardService, new LeaderboardFeed(), new ObjectMapper(), 2, 10,
+                Duration.ofMinutes(1));
+    }
+
+    @Test
+    void since_ShouldReplayEventsAfterTheLastOneSeen() {
+        stream.onUpdate(update(1, 2, 10L));
+        stream.onUpdate(update(2, 3, 11L));
+
+        List<RankingChangeStream.RankingEvent> missed = stream.since(stream.eventId(2));
+
+        assertEquals(1, missed.size());
+        assertEquals(stream.eventId(3), missed.get(0).id());
+        assertEquals("[{\"memberId\":5,\"oldRank\":4,\"newRank\":3,\"gameId\":11}]", missed.get(0).json());
+        assertTrue(stream.since(stream.eventId(3)).isEmpty());
+    }
+
+    @Test
+    void since_ShouldRequireResetForUnknownOrEvictedIds() {
+        stream.onUpdate(update(1, 2, 10L));
+        stream.onUpdate(update(2, 3, 11L));
+        stream.onUpdate(update(3, 4, 12L));
+
+        // Only the last two events are buffered
+        assertNull(stream.since(stream.eventId(1)));
+        assertEquals(2, stream.since(stream.eventId(2)).size());
+        assertNull(stream.since("otherrun-3"));
+        assertNull(stream.since("garbage"));
+    }
+
+    @Test
+    void onUpdate_AfterMissedVersions_ShouldDropTheReplayBuffer() {
+        stream.onUpdate(update(1, 2, 10L));
+        stream.onUpdate(update(4, 5, 11L));
+
+        assertNull(stream.since(stream.eventId(2)));
+        assertEquals(1, stream.since(stream.eventId(4)).size());
+    }
+
+    private static LeaderboardUpdate update(long previousVersion, long version, Long gameId) {
+        return new LeaderboardUpdate(previousVersion, version, 5, gameId, List.of(), Set.of(),
+                List.of(new RankChange(5L, 4, 3, gameId)));
+    }
+}
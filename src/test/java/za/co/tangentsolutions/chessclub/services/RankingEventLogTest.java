@@ -0,0 +1,69 @@
+package za.co.tangentsolutions.chessclub.services;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.slf4j.event.KeyValuePair;
+import za.co.tangentsolutions.chessclub.models.Game;
+import za.co.tangentsolutions.chessclub.models.Member;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RankingEventLogTest {
+
+    private final Logger eventLogger = (Logger) LoggerFactory.getLogger("chessclub.ranking.events");
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    private Game game;
+
+    @BeforeEach
+    void setUp() {
+        appender.start();
+        eventLogger.addAppender(appender);
+
+        Member higher = new Member("John", "Doe", "john@email.com", LocalDate.of(1985, 5, 15), 3);
+        higher.setId(1L);
+        Member lower = new Member("Jane", "Smith", "jane@email.com", LocalDate.of(1990, 8, 22), 8);
+        lower.setId(2L);
+        game = new Game(higher, lower, 0, 1);
+        game.setId(42L);
+        game.setPlayer1RankAfter(4);
+        game.setPlayer2RankAfter(6);
+    }
+
+    @AfterEach
+    void tearDown() {
+        eventLogger.detachAppender(appender);
+    }
+
+    @Test
+    void matchRecorded_ShouldLogOneStructuredEvent() {
+        new RankingEventLog(1.0).matchRecorded(game);
+
+        assertEquals(1, appender.list.size());
+        Map<String, Object> fields = new HashMap<>();
+        for (KeyValuePair pair : appender.list.get(0).getKeyValuePairs()) {
+            fields.put(pair.key, pair.value);
+        }
+        assertEquals(42L, fields.get("game"));
+        assertEquals(ClubMetrics.UPSET, fields.get("outcome"));
+        assertEquals("0-1", fields.get("score"));
+        assertEquals("3>4", fields.get("p1Rank"));
+        assertEquals("8>6", fields.get("p2Rank"));
+    }
+
+    @Test
+    void matchRecorded_WithZeroSampleRate_ShouldLogNothing() {
+        new RankingEventLog(0.0).matchRecorded(game);
+
+        assertTrue(appender.list.isEmpty());
+    }
+}
@@ -1,23 +1,43 @@
 package za.co.tangentsolutions.chessclub.services;
 
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
 import za.co.tangentsolutions.chessclub.models.Game;
+import za.co.tangentsolutions.chessclub.models.HeadToHead;
+import za.co.tangentsolutions.chessclub.models.MatchResult;
+import za.co.tangentsolutions.chessclub.models.MatchSubmission;
 import za.co.tangentsolutions.chessclub.models.Member;
+import za.co.tangentsolutions.chessclub.models.PairRecord;
+import za.co.tangentsolutions.chessclub.models.PlayerStats;
+import za.co.tangentsolutions.chessclub.ranking.ChallengeLadderRule;
+import za.co.tangentsolutions.chessclub.ranking.Glicko2RatingEngine;
+import za.co.tangentsolutions.chessclub.ranking.RankingStrategy;
 import za.co.tangentsolutions.chessclub.repositories.GameRepository;
 import za.co.tangentsolutions.chessclub.repositories.MemberRepository;
+import za.co.tangentsolutions.chessclub.repositories.PairRecordRepository;
+import za.co.tangentsolutions.chessclub.repositories.PlayerStatsRepository;
 import za.co.tangentsolutions.chessclub.services.RankingService;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -32,15 +52,41 @@ class RankingServiceTest {
     @Mock
     private GameRepository gameRepository;
 
-    @InjectMocks
+    @Mock
+    private PlayerStatsRepository playerStatsRepository;
+
+    @Mock
+    private PairRecordRepository pairRecordRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private LadderEventLog ladderEventLog;
+
     private RankingService rankingService;
+    private SimpleMeterRegistry meterRegistry;
+    private ClubMetrics clubMetrics;
 
     private Member higherRanked;
     private Member lowerRanked;
+    private Member adjacentLower;
     private Game testGame;
+    private final Map<Long, Member> bystanders = new HashMap<>();
 
     @BeforeEach
     void setUp() {
+        LadderWriter ladderWriter = new LadderWriter(transactionManager, 100);
+        meterRegistry = new SimpleMeterRegistry();
+        clubMetrics = new ClubMetrics(meterRegistry);
+        rankingService = rankingService(ladderWriter, LadderStorageMode.DENSE);
+
         higherRanked = new Member("John", "Doe", "john@email.com",
                                 LocalDate.of(1985, 5, 15), 3);
         higherRanked.setId(1L);
@@ -51,7 +97,48 @@ class RankingServiceTest {
         lowerRanked.setId(2L);
         lowerRanked.setGamesPlayed(8);
 
+        adjacentLower = new Member("Adjacent", "Player", "adjacent@email.com",
+                                        LocalDate.of(1990, 8, 22), 4);
+        adjacentLower.setId(3L);
+
         testGame = new Game(higherRanked, lowerRanked, 1, 0);
+
+        for (long id : new long[] {101L, 102L, 105L, 106L, 107L}) {
+            Member member = new Member("Member", String.valueOf(id), id + "@email.com",
+                                       LocalDate.of(1990, 1, 1), 0);
+            member.setId(id);
+            bystanders.put(id, member);
+        }
+        bystanders.put(1L, higherRanked);
+        bystanders.put(2L, lowerRanked);
+        bystanders.put(3L, adjacentLower);
+    }
+
+    // Ladder top to bottom: 101, 102, John (3), Adjacent (4), 105, 106, 107, Jane (8)
+    private void givenLadder() {
+        when(memberRepository.findIdsOrderByRankAsc())
+                .thenReturn(Arrays.asList(101L, 102L, 1L, 3L, 105L, 106L, 107L, 2L));
+    }
+
+    private void givenBystandersLoadable() {
+        when(memberRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            List<Member> found = new ArrayList<>();
+            for (Object id : (Iterable<?>) invocation.getArgument(0)) {
+                if (bystanders.containsKey(id)) {
+                    found.add(bystanders.get(id));
+                }
+            }
+            return found;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Member> savedMembers() {
+        ArgumentCaptor<Iterable<Member>> captor = ArgumentCaptor.forClass(Iterable.class);
+        verify(memberRepository).saveAll(captor.capture());
+        List<Member> saved = new ArrayList<>();
+        captor.getValue().forEach(saved::add);
+        return saved;
     }
 
     @Test
@@ -60,6 +147,7 @@ class RankingServiceTest {
         when(memberRepository.findById(1L)).thenReturn(Optional.of(higherRanked));
         when(memberRepository.findById(2L)).thenReturn(Optional.of(lowerRanked));
         when(gameRepository.save(any(Game.class))).thenReturn(testGame);
+        givenLadder();
 
         // Act
         Game result = rankingService.recordMatch(1L, 2L, 1, 0);
@@ -69,7 +157,8 @@ class RankingServiceTest {
         assertEquals(8, lowerRanked.getRank());  // No change
         assertEquals(11, higherRanked.getGamesPlayed());
         assertEquals(9, lowerRanked.getGamesPlayed());
-        verify(memberRepository, times(2)).save(any(Member.class));
+        assertEquals(List.of(higherRanked, lowerRanked), savedMembers());
+        verify(memberRepository, never()).findAllById(any());
         verify(gameRepository).save(any(Game.class));
     }
 
@@ -79,7 +168,8 @@ class RankingServiceTest {
         when(memberRepository.findById(1L)).thenReturn(Optional.of(higherRanked));
         when(memberRepository.findById(2L)).thenReturn(Optional.of(lowerRanked));
         when(gameRepository.save(any(Game.class))).thenReturn(testGame);
-        doNothing().when(memberRepository).incrementRanks(7, 8);
+        givenLadder();
+        givenBystandersLoadable();
 
         // Act
         Game result = rankingService.recordMatch(1L, 2L, 0, 0);
@@ -87,20 +177,18 @@ class RankingServiceTest {
         // Assert
         assertEquals(7, lowerRanked.getRank()); // Moved up one position
         assertEquals(3, higherRanked.getRank()); // No change
-        verify(memberRepository).incrementRanks(7, 8);
-        verify(memberRepository, times(2)).save(any(Member.class));
+        assertEquals(8, bystanders.get(107L).getRank()); // Pushed down by the draw
+        assertEquals(List.of(higherRanked, lowerRanked, bystanders.get(107L)), savedMembers());
+        verify(memberRepository, never()).incrementRanks(anyInt(), anyInt());
     }
 
     @Test
     void recordMatch_WhenDrawWithAdjacentRanks_ShouldNotChangeRanks() {
         // Arrange
-        Member adjacentLower = new Member("Adjacent", "Player", "adjacent@email.com",
-                                        LocalDate.of(1990, 8, 22), 4);
-        adjacentLower.setId(3L);
-
         when(memberRepository.findById(1L)).thenReturn(Optional.of(higherRanked));
         when(memberRepository.findById(3L)).thenReturn(Optional.of(adjacentLower));
         when(gameRepository.save(any(Game.class))).thenReturn(testGame);
+        givenLadder();
 
         // Act
         Game result = rankingService.recordMatch(1L, 3L, 0, 0);
@@ -109,7 +197,7 @@ class RankingServiceTest {
         assertEquals(3, higherRanked.getRank()); // No change
         assertEquals(4, adjacentLower.getRank()); // No change (adjacent ranks)
         verify(memberRepository, never()).incrementRanks(anyInt(), anyInt());
-        verify(memberRepository, times(2)).save(any(Member.class));
+        assertEquals(List.of(higherRanked, adjacentLower), savedMembers());
     }
 
     @Test
@@ -118,8 +206,8 @@ class RankingServiceTest {
         when(memberRepository.findById(1L)).thenReturn(Optional.of(higherRanked));
         when(memberRepository.findById(2L)).thenReturn(Optional.of(lowerRanked));
         when(gameRepository.save(any(Game.class))).thenReturn(testGame);
-        doNothing().when(memberRepository).decrementRanks(3, 4);
-        doNothing().when(memberRepository).incrementRanks(6, 8);
+        givenLadder();
+        givenBystandersLoadable();
 
         // Act
         Game result = rankingService.recordMatch(1L, 2L, 0, 1);
@@ -127,21 +215,75 @@ class RankingServiceTest {
         // Assert
         assertEquals(4, higherRanked.getRank()); // Moved down one position
         assertEquals(6, lowerRanked.getRank());  // Moved up by 2 positions (8-6)
-        verify(memberRepository).decrementRanks(3, 4);
-        verify(memberRepository).incrementRanks(6, 8);
-        verify(memberRepository, times(2)).save(any(Member.class));
+        verify(memberRepository, never()).decrementRanks(anyInt(), anyInt());
+        verify(memberRepository, never()).incrementRanks(anyInt(), anyInt());
+
+        // Adjacent (4 -> 3), 106 (6 -> 7) and 107 (7 -> 8) moved; 105 stayed on 5 and is not written
+        assertEquals(3, adjacentLower.getRank());
+        assertEquals(Set.of(1L, 2L, 3L, 106L, 107L),
+                savedMembers().stream().map(Member::getId).collect(Collectors.toSet()));
+
+        assertEquals(1, meterRegistry.get("chessclub.matches.recorded").tag("outcome", ClubMetrics.UPSET).counter().count());
+        assertEquals(1, meterRegistry.get("chessclub.ladder.rank.shift").tag("direction", "down").summary().totalAmount());
+        assertEquals(2, meterRegistry.get("chessclub.ladder.rank.shift").tag("direction", "up").summary().totalAmount());
+        // John's move shifts John and Adjacent, Jane's shifts Jane, 106 and 107
+        assertEquals(5, meterRegistry.get("chessclub.ladder.rows.written").tag("operation", "move").summary().totalAmount());
+
+        // The rating engine runs alongside the ladder and moves both new players symmetrically
+        assertTrue(lowerRanked.getRating() > 1500);
+        assertEquals(3000, higherRanked.getRating() + lowerRanked.getRating(), 0.001);
+    }
+
+    private RankingService rankingService(LadderWriter ladderWriter, LadderStorageMode storageMode) {
+        LadderService ladderService = new LadderService(memberRepository, jdbcTemplate, ladderWriter, clubMetrics,
+                storageMode, 1024);
+        List<RankingStrategy> strategies = List.of(
+                new LadderRankingStrategy(ladderService, new ChallengeLadderRule()), new Glicko2RatingEngine(0.5));
+        return new RankingService(memberRepository, gameRepository, playerStatsRepository, pairRecordRepository,
+                ladderService, strategies, ladderEventLog, ladderWriter, eventPublisher, clubMetrics,
+                new RankingEventLog(1.0));
+    }
+
+    @Test
+    void recordMatch_WhenLowerRankedWinsInGappedMode_ShouldOnlyWritePlayers() {
+        // Arrange - same upset as above, with positions 1024 apart
+        LadderWriter ladderWriter = new LadderWriter(transactionManager, 100);
+        rankingService = rankingService(ladderWriter, LadderStorageMode.GAPPED);
+        List<Long> ids = Arrays.asList(101L, 102L, 1L, 3L, 105L, 106L, 107L, 2L);
+        List<MemberRepository.LadderSlot> slots = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            Long id = ids.get(i);
+            long position = (i + 1) * 1024L;
+            slots.add(new MemberRepository.LadderSlot() {
+                public Long getId() { return id; }
+                public long getPosition() { return position; }
+            });
+        }
+        when(memberRepository.findLadderSlotsOrderByPositionAsc()).thenReturn(slots);
+        when(memberRepository.findById(1L)).thenReturn(Optional.of(higherRanked));
+        when(memberRepository.findById(2L)).thenReturn(Optional.of(lowerRanked));
+        when(gameRepository.save(any(Game.class))).thenReturn(testGame);
+
+        // Act
+        rankingService.recordMatch(1L, 2L, 0, 1);
+
+        // Assert - John slots between 3 and 105, Jane between 105 and 106
+        assertEquals(4, higherRanked.getRank());
+        assertEquals(6, lowerRanked.getRank());
+        assertEquals(4 * 1024L + 512, higherRanked.getPosition());
+        assertEquals(5 * 1024L + 512, lowerRanked.getPosition());
+        assertEquals(List.of(higherRanked, lowerRanked), savedMembers());
+        verify(memberRepository, never()).findAllById(any());
+        verifyNoInteractions(jdbcTemplate);
     }
 
     @Test
     void recordMatch_WhenLowerRankedWinsWithSmallDifference_ShouldChangeRanks() {
         // Arrange - adjacent ranks (difference = 1)
-        Member adjacentLower = new Member("Adjacent", "Player", "adjacent@email.com",
-                                        LocalDate.of(1990, 8, 22), 4);
-        adjacentLower.setId(3L);
-
         when(memberRepository.findById(1L)).thenReturn(Optional.of(higherRanked));
         when(memberRepository.findById(3L)).thenReturn(Optional.of(adjacentLower));
         when(gameRepository.save(any(Game.class))).thenReturn(testGame);
+        givenLadder();
 
         // Act
         Game result = rankingService.recordMatch(1L, 3L, 0, 1);
@@ -149,9 +291,28 @@ class RankingServiceTest {
         // Assert - difference = 1, so both players should change ranks
         assertEquals(4, higherRanked.getRank()); // Moved down from 3 to 4
         assertEquals(3, adjacentLower.getRank()); // Moved up from 4 to 3
-        verify(memberRepository).decrementRanks(3, 4); // higher ranked moved down
-        verify(memberRepository).incrementRanks(3, 4); // lower ranked moved up
-        verify(memberRepository, times(2)).save(any(Member.class));
+        assertEquals(List.of(higherRanked, adjacentLower), savedMembers());
+    }
+
+    @Test
+    void recordMatch_WhenLowerRankedWinsTwoPlacesBelow_ShouldKeepLadderAPermutation() {
+        // Arrange - John (3) loses to 105 (5): 105 moves up one, John drops below it
+        Member challenger = bystanders.get(105L);
+        when(memberRepository.findById(1L)).thenReturn(Optional.of(higherRanked));
+        when(memberRepository.findById(105L)).thenReturn(Optional.of(challenger));
+        when(gameRepository.save(any(Game.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        givenLadder();
+        givenBystandersLoadable();
+
+        // Act
+        Game result = rankingService.recordMatch(1L, 105L, 0, 1);
+
+        // Assert
+        assertEquals(5, higherRanked.getRank());
+        assertEquals(4, challenger.getRank());
+        assertEquals(3, adjacentLower.getRank());
+        assertEquals(5, result.getPlayer1RankAfter());
+        assertEquals(4, result.getPlayer2RankAfter());
     }
 
     @Test
@@ -161,7 +322,7 @@ class RankingServiceTest {
             rankingService.recordMatch(1L, 1L, 1, 0);
         });
         verify(memberRepository).findById(any());
-        verify(memberRepository, never()).save(any());
+        verify(memberRepository, never()).saveAll(any());
         verify(gameRepository, never()).save(any());
     }
 
@@ -175,10 +336,169 @@ class RankingServiceTest {
             rankingService.recordMatch(1L, 2L, 1, 0);
         });
         verify(memberRepository).findById(1L);
-        verify(memberRepository, never()).save(any());
+        verify(memberRepository, never()).saveAll(any());
         verify(gameRepository, never()).save(any());
     }
 
+    @Test
+    void recordMatch_WithRecordedIdempotencyKey_ShouldReturnStoredGameWithoutReapplying() {
+        when(gameRepository.findByIdempotencyKey("result-17")).thenReturn(Optional.of(testGame));
+
+        Game result = rankingService.recordMatch(1L, 2L, 1, 0, "result-17");
+
+        assertSame(testGame, result);
+        verify(memberRepository, never()).findById(any());
+        verify(gameRepository, never()).save(any());
+        assertThrows(IdempotencyConflictException.class, () -> rankingService.recordMatch(1L, 2L, 0, 1, "result-17"));
+    }
+
+    @Test
+    void recordMatch_WithNewIdempotencyKey_ShouldStoreKeyOnGame() {
+        when(gameRepository.findByIdempotencyKey("result-18")).thenReturn(Optional.empty());
+        when(memberRepository.findById(1L)).thenReturn(Optional.of(higherRanked));
+        when(memberRepository.findById(2L)).thenReturn(Optional.of(lowerRanked));
+        when(gameRepository.save(any(Game.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        givenLadder();
+
+        Game result = rankingService.recordMatch(1L, 2L, 1, 0, "result-18");
+
+        assertEquals("result-18", result.getIdempotencyKey());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void recordMatches_ShouldApplyInOrderAndWriteOnce() {
+        // Arrange - Jane (8) beats John (3), then John draws with Adjacent, then a self-match
+        givenLadder();
+        givenBystandersLoadable();
+        List<MatchSubmission> submissions = List.of(
+                new MatchSubmission(1L, 2L, 0, 1),
+                new MatchSubmission(1L, 3L, 0, 0),
+                new MatchSubmission(3L, 3L, 1, 0),
+                new MatchSubmission(1L, 999L, 1, 0));
+
+        // Act
+        List<MatchResult> results = rankingService.recordMatches(submissions);
+
+        // Assert - second match sees John on 4 and Adjacent on 3 after the upset
+        assertEquals(4, results.size());
+        assertTrue(results.get(0).recorded());
+        assertEquals(4, results.get(0).game().getPlayer1RankAfter());
+        assertEquals(6, results.get(0).game().getPlayer2RankAfter());
+        assertTrue(results.get(1).recorded());
+        assertEquals(3, results.get(1).game().getPlayer2RankBefore());
+        assertEquals(4, results.get(1).game().getPlayer1RankBefore());
+        assertEquals("Cannot play against yourself", results.get(2).error());
+        assertEquals("Player 2 not found", results.get(3).error());
+
+        assertEquals(12, higherRanked.getGamesPlayed());
+        verify(memberRepository, never()).findById(any());
+        verify(memberRepository).saveAll(any());
+        ArgumentCaptor<Iterable<Game>> games = ArgumentCaptor.forClass(Iterable.class);
+        verify(gameRepository).saveAll(games.capture());
+        assertEquals(2, games.getValue().spliterator().getExactSizeIfKnown());
+        verify(gameRepository, never()).save(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void recordMatches_ShouldFoldResultsIntoPlayerStatsInOrder() {
+        // Arrange - John already has a one-game winning streak
+        givenLadder();
+        givenBystandersLoadable();
+        PlayerStats johnStats = new PlayerStats(1L);
+        johnStats.recordGame(1, 0, 3, 3, LocalDateTime.now().minusDays(1));
+        when(playerStatsRepository.findAllById(anyIterable())).thenReturn(List.of(johnStats));
+
+        // Act - Jane (8) beats John (3), then John draws with Adjacent
+        rankingService.recordMatches(List.of(
+                new MatchSubmission(1L, 2L, 0, 1),
+                new MatchSubmission(1L, 3L, 0, 0)));
+
+        // Assert - one read and one write for all three players
+        ArgumentCaptor<Iterable<PlayerStats>> captor = ArgumentCaptor.forClass(Iterable.class);
+        verify(playerStatsRepository).findAllById(anyIterable());
+        verify(playerStatsRepository).saveAll(captor.capture());
+        Map<Long, PlayerStats> saved = new HashMap<>();
+        captor.getValue().forEach(stats -> saved.put(stats.getMemberId(), stats));
+        assertEquals(Set.of(1L, 2L, 3L), saved.keySet());
+
+        PlayerStats john = saved.get(1L);
+        assertEquals(1, john.getWins());
+        assertEquals(1, john.getLosses());
+        assertEquals(1, john.getDraws());
+        assertEquals(0, john.getCurrentStreak());
+        assertEquals(1, john.getLongestWinStreak());
+        assertEquals(3, john.getBestRank());
+
+        PlayerStats jane = saved.get(2L);
+        assertEquals(1, jane.getWins());
+        assertEquals(1, jane.getCurrentStreak());
+        assertEquals(6, jane.getBestRank());
+
+        assertEquals(1, saved.get(3L).getDraws());
+        assertEquals(3, saved.get(3L).getBestRank());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void recordMatches_ShouldKeepOnePairRecordPerPairWhicheverSideIsPlayer1() {
+        givenLadder();
+        givenBystandersLoadable();
+
+        // Jane beats John, then John beats Jane with the players the other way round
+        rankingService.recordMatches(List.of(
+                new MatchSubmission(1L, 2L, 0, 1),
+                new MatchSubmission(2L, 1L, 0, 1)));
+
+        ArgumentCaptor<Iterable<PairRecord>> captor = ArgumentCaptor.forClass(Iterable.class);
+        verify(pairRecordRepository).saveAll(captor.capture());
+        List<PairRecord> saved = new ArrayList<>();
+        captor.getValue().forEach(saved::add);
+        assertEquals(1, saved.size());
+        PairRecord pair = saved.get(0);
+        assertEquals(1L, pair.getPlayerLowId());
+        assertEquals(2L, pair.getPlayerHighId());
+        assertEquals(1, pair.winsFor(1L));
+        assertEquals(1, pair.lossesFor(1L));
+        assertEquals(2, pair.getGamesPlayed());
+    }
+
+    @Test
+    void getHeadToHead_ShouldReadPairRecordAndRecentGamesFromTheSameKey() {
+        PairRecord pair = new PairRecord(PairRecord.Key.of(2L, 1L));
+        pair.recordGame(testGame);
+        when(memberRepository.existsById(anyLong())).thenReturn(true);
+        when(pairRecordRepository.findById(PairRecord.Key.of(1L, 2L))).thenReturn(Optional.of(pair));
+        when(gameRepository.findBetween(eq(1L), eq(2L), any())).thenReturn(List.of(testGame));
+
+        HeadToHead headToHead = rankingService.getHeadToHead(2L, 1L, 5).orElseThrow();
+
+        assertEquals(0, headToHead.wins());
+        assertEquals(1, headToHead.losses());
+        assertEquals(1, headToHead.gamesPlayed());
+        assertEquals(List.of(testGame), headToHead.recentGames());
+    }
+
+    @Test
+    void getPlayerStats_ForMemberWhoHasNotPlayed_ShouldReturnZeroedStats() {
+        when(playerStatsRepository.findById(5L)).thenReturn(Optional.empty());
+        when(memberRepository.existsById(5L)).thenReturn(true);
+
+        PlayerStats stats = rankingService.getPlayerStats(5L).orElseThrow();
+
+        assertEquals(0, stats.getGamesPlayed());
+        assertNull(stats.getBestRank());
+    }
+
+    @Test
+    void getPlayerStats_ForUnknownMember_ShouldBeEmpty() {
+        when(playerStatsRepository.findById(999L)).thenReturn(Optional.empty());
+        when(memberRepository.existsById(999L)).thenReturn(false);
+
+        assertTrue(rankingService.getPlayerStats(999L).isEmpty());
+    }
+
     @Test
     void getGameHistory_ShouldReturnAllGames() {
         // Arrange
@@ -217,6 +537,8 @@ class RankingServiceTest {
             savedGame.setId(1L);
             return savedGame;
         });
+        givenLadder();
+        givenBystandersLoadable();
 
         // Act
         Game result = rankingService.recordMatch(1L, 2L, 0, 1);
@@ -0,0 +1,103 @@
+package za.co.tangentsolutions.chessclub.services;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+import za.co.tangentsolutions.chessclub.models.GameCursor;
+import za.co.tangentsolutions.chessclub.models.GameRatingRow;
+import za.co.tangentsolutions.chessclub.models.Member;
+import za.co.tangentsolutions.chessclub.ranking.Glicko2RatingEngine;
+import za.co.tangentsolutions.chessclub.repositories.GameRepository;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:rating_recalculation;DB_CLOSE_DELAY=-1")
+class RatingRecalculationTest {
+
+    @Autowired
+    private MemberService memberService;
+
+    @Autowired
+    private RankingService rankingService;
+
+    @Autowired
+    private RatingRecalculationService recalculationService;
+
+    @Autowired
+    private Glicko2RatingEngine glicko2;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private GameRepository gameRepository;
+
+    @Test
+    void recalculate_ShouldRateEachPeriodFromTheRatingsAtItsStart() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Member member = new Member("Rated", "Member" + i, "rated" + i + "@email.com", LocalDate.of(1990, 1, 1), 0);
+            ids.add(memberService.createMember(member).getId());
+        }
+        // One period: 0 beats 1, 2 draws 3, 2 beats 0, 1 beats 3
+        rankingService.recordMatch(ids.get(0), ids.get(1), 1, 0);
+        rankingService.recordMatch(ids.get(2), ids.get(3), 1, 1);
+        rankingService.recordMatch(ids.get(0), ids.get(2), 0, 1);
+        rankingService.recordMatch(ids.get(1), ids.get(3), 1, 0);
+        // Scramble the live ratings; the recalculation must not depend on them
+        jdbcTemplate.update("UPDATE members SET rating = 2400, rating_deviation = 40");
+
+        RatingRecalculationService.Progress progress = recalculationService.recalculate();
+
+        assertEquals(RatingRecalculationService.State.COMPLETED, progress.state());
+        assertEquals(progress.totalGames(), progress.gamesProcessed());
+        assertEquals(6, progress.gamesProcessed());
+        assertEquals("glicko2", progress.engine());
+
+        double[][] scores = {{1, 0}, {0, 1}, {0.5, 1}, {0.5, 0}};
+        for (int i = 0; i < ids.size(); i++) {
+            double[] expected = {1500, 350, 0.06};
+            glicko2.ratePeriod(expected, new double[]{1500, 1500}, new double[]{350, 350}, scores[i], 0, 2);
+            Map<String, Object> stored = jdbcTemplate.queryForMap(
+                    "SELECT rating, rating_deviation, rating_volatility FROM members WHERE id = ?", ids.get(i));
+            assertEquals(expected[0], ((Number) stored.get("RATING")).doubleValue(), 1e-6);
+            assertEquals(expected[1], ((Number) stored.get("RATING_DEVIATION")).doubleValue(), 1e-6);
+            assertEquals(expected[2], ((Number) stored.get("RATING_VOLATILITY")).doubleValue(), 1e-9);
+        }
+
+        // Members without games go back to a new player's rating
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM members m WHERE NOT EXISTS "
+                + "(SELECT 1 FROM games g WHERE g.player1_id = m.id OR g.player2_id = m.id) "
+                + "AND (rating <> 1500 OR rating_deviation <> 350)", Integer.class));
+    }
+
+    @Test
+    @Transactional
+    void catchUp_ShouldFollowPlayOrderRatherThanIds() {
+        GameCursor last = gameRepository.findLastPlayed(PageRequest.of(0, 1)).get(0);
+        // Another node's id block can sit below ids already used here while its games are newer
+        long earlierId = last.id() - 1;
+        while (gameRepository.existsById(earlierId)) {
+            earlierId--;
+        }
+        jdbcTemplate.update("INSERT INTO games (id, player1_id, player2_id, player1_score, player2_score, played_at, "
+                + "player1_rank_before, player2_rank_before, player1_rank_after, player2_rank_after, "
+                + "player_low_id, player_high_id) VALUES (?, 1, 2, 1, 0, ?, 1, 2, 1, 2, 1, 2)",
+                earlierId, Timestamp.valueOf(last.playedAt().plusSeconds(1)));
+
+        try (Stream<GameRatingRow> after = gameRepository.streamRatingRowsAfter(last.playedAt(), last.id())) {
+            assertEquals(List.of(earlierId), after.map(GameRatingRow::id).toList());
+        }
+        assertEquals(gameRepository.count() - 1, gameRepository.countPlayedUpTo(last.playedAt(), last.id()));
+    }
+}